@@ -1,5 +1,8 @@
 package com.twitzer.newsapi;
 
+import com.twitzer.newsapi.ingest.BulkImportStats;
+import com.twitzer.newsapi.ingest.BulkImporter;
+import java.nio.file.Paths;
 import java.util.Arrays;
 
 import org.springframework.boot.SpringApplication;
@@ -7,15 +10,37 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.support.SpringBootServletInitializer;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+/**
+ * Runs the web service, or with <code>--import=&lt;file&gt;</code> imports the
+ * articles of the file without starting the web server and exits, see
+ * {@link BulkImporter}.
+ * <p>
+ * The import needs a persistent datasource: the default in-memory H2 with
+ * <code>ddl-auto = create-drop</code> is dropped when the import exits. E.g.
+ * <code>--spring.datasource.url=jdbc:h2:file:./data/news
+ * --spring.jpa.hibernate.ddl-auto=update</code>, and the same for the web
+ * service afterwards.
+ */
 @SpringBootApplication
 @EnableJpaRepositories
 @EnableTransactionManagement
+@EnableScheduling
 public class Application extends SpringBootServletInitializer {
 
-    public static void main(String[] args) {
+    static final String IMPORT_ARG = "--import=";
+
+    public static void main(String[] args) throws Exception {
+        final String importFile = Arrays.stream(args).filter((arg) -> arg.startsWith(IMPORT_ARG))
+                .map((arg) -> arg.substring(IMPORT_ARG.length())).findFirst().orElse(null);
+        if (importFile != null) {
+            System.exit(importArticles(importFile, args));
+        }
+
         ApplicationContext ctx = SpringApplication.run(Application.class, args);
 
         /*System.out.println("Let's inspect the beans provided by Spring Boot:");
@@ -27,6 +52,21 @@ public class Application extends SpringBootServletInitializer {
         }*/
     }
 
+    /**
+     * @return  the exit code: 0 if all records were imported or skipped as tombstones, 1 if some were rejected
+     */
+    static int importArticles(final String file, final String[] args) throws Exception {
+        final ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class).web(false).run(args);
+        final BulkImportStats stats;
+        try {
+            stats = ctx.getBean(BulkImporter.class).importFile(Paths.get(file));
+        } finally {
+            ctx.close();
+        }
+        System.out.println(stats);
+        return stats.getRejected() == 0 ? 0 : 1;
+    }
+
     @Override
     protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
         return application.sources(Application.class);
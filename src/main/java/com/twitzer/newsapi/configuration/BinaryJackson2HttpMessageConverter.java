@@ -0,0 +1,19 @@
+package com.twitzer.newsapi.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+/**
+ * Reads and writes a binary JSON format (Smile, CBOR) with an
+ * {@link ObjectMapper} on the matching factory.
+ *
+ * @author jschulz
+ */
+public class BinaryJackson2HttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public BinaryJackson2HttpMessageConverter(final ObjectMapper objectMapper, final MediaType mediaType) {
+        super(objectMapper, mediaType);
+    }
+}
@@ -0,0 +1,78 @@
+package com.twitzer.newsapi.configuration;
+
+import com.twitzer.newsapi.controller.AsyncArticlesController;
+import com.twitzer.newsapi.controller.Bulkhead;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * The pools of the {@link AsyncArticlesController}: point lookups, list
+ * queries and writes each get their own threads, queue and timeout, set by
+ * the <code>bulkhead.*</code> properties. The threads are virtual ones with
+ * <code>virtual-threads.enabled = true</code>, see {@link VirtualThreadConfig}.
+ *
+ * @author jschulz
+ */
+@Configuration
+public class BulkheadConfig {
+
+    private final boolean virtualThreads;
+
+    @Autowired
+    public BulkheadConfig(@Value("${virtual-threads.enabled:false}") final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads && VirtualThreads.isAvailable();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead lookupBulkhead(@Value("${bulkhead.lookup.threads:8}") final int threads,
+            @Value("${bulkhead.lookup.queue-capacity:200}") final int queueCapacity,
+            @Value("${bulkhead.lookup.timeout:1000}") final long timeoutMillis) {
+        return new Bulkhead("lookup", threads, queueCapacity, timeoutMillis, threadFactory("lookup"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead queryBulkhead(@Value("${bulkhead.query.threads:4}") final int threads,
+            @Value("${bulkhead.query.queue-capacity:50}") final int queueCapacity,
+            @Value("${bulkhead.query.timeout:10000}") final long timeoutMillis) {
+        return new Bulkhead("query", threads, queueCapacity, timeoutMillis, threadFactory("query"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead writeBulkhead(@Value("${bulkhead.write.threads:4}") final int threads,
+            @Value("${bulkhead.write.queue-capacity:100}") final int queueCapacity,
+            @Value("${bulkhead.write.timeout:5000}") final long timeoutMillis) {
+        return new Bulkhead("write", threads, queueCapacity, timeoutMillis, threadFactory("write"));
+    }
+
+    private ThreadFactory threadFactory(final String name) {
+        final String prefix = "bulkhead-" + name + "-";
+        return virtualThreads ? VirtualThreads.factory(prefix) : new CustomizableThreadFactory(prefix);
+    }
+
+    /**
+     * Publishes the saturation, rejections and timeouts of every pool to the
+     * actuator <code>/metrics</code> endpoint, see {@link Bulkhead#metrics()}.
+     */
+    @Bean
+    public PublicMetrics bulkheadMetrics(final List<Bulkhead> bulkheads) {
+        return () -> {
+            final Collection<Metric<?>> metrics = new ArrayList<>();
+            for (Bulkhead bulkhead : bulkheads) {
+                metrics.addAll(bulkhead.metrics());
+            }
+            return metrics;
+        };
+    }
+
+}
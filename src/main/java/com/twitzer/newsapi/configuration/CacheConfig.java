@@ -0,0 +1,57 @@
+package com.twitzer.newsapi.configuration;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Cache configuration. The caches themselves are Caffeine caches set up by
+ * spring-boot from the <code>spring.cache.*</code> properties; Caffeine
+ * evicts by (W-)TinyLFU, which keeps the hot articles of a skewed workload.
+ * <p>
+ * The cache advice wraps the transaction advice, so the write methods evict
+ * after their commit: a concurrent read can't put the uncommitted state
+ * back into the cache for good.
+ *
+ * @author jschulz
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /**
+     * Publishes hit, miss and eviction counters of every Caffeine cache to
+     * the actuator <code>/metrics</code> endpoint, e.g.
+     * <code>cache.articles.hits</code>.
+     */
+    @Bean
+    public PublicMetrics caffeineCacheCounterMetrics(final CacheManager cacheManager) {
+        return () -> {
+            final Collection<Metric<?>> metrics = new ArrayList<>();
+            for (String cacheName : cacheManager.getCacheNames()) {
+                final Cache cache = cacheManager.getCache(cacheName);
+                if (cache instanceof CaffeineCache) {
+                    final CacheStats stats = ((CaffeineCache) cache).getNativeCache().stats();
+                    final String prefix = "cache." + cacheName + ".";
+                    metrics.add(new Metric<>(prefix + "hits", stats.hitCount()));
+                    metrics.add(new Metric<>(prefix + "misses", stats.missCount()));
+                    metrics.add(new Metric<>(prefix + "evictions", stats.evictionCount()));
+                }
+            }
+            return metrics;
+        };
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.twitzer.newsapi.configuration;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.model.RsAuthor;
+import com.twitzer.newsapi.model.RsKeyword;
+import com.twitzer.newsapi.service.ArticleField;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streaming serializers for the response types, instead of Jackson's
+ * reflective bean serializer: the field names are encoded once, dates are
+ * written as ISO-8601 (yyyy-MM-dd) without a formatter. The output is the
+ * same as the reflective one, field order and <code>null</code>s included.
+ * Written with an {@link ArticleFieldFilter}, articles contain only the
+ * requested fields.
+ *
+ * @author jschulz
+ */
+public class ModelJsonModule extends SimpleModule {
+
+    private static final long serialVersionUID = 2786157062337465319L;
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString HEADLINE = new SerializedString("headline");
+    private static final SerializableString TEASER_TEXT = new SerializedString("teaserText");
+    private static final SerializableString MAIN_TEXT = new SerializedString("mainText");
+    private static final SerializableString PUBLISHED_ON = new SerializedString("publishedOn");
+    private static final SerializableString AUTHORS = new SerializedString("authors");
+    private static final SerializableString KEYWORDS = new SerializedString("keywords");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString FIRSTNAME = new SerializedString("firstname");
+    private static final SerializableString LASTNAME = new SerializedString("lastname");
+    private static final SerializableString NAME = new SerializedString("name");
+
+    private static final Set<ArticleField> ALL_FIELDS = Collections.unmodifiableSet(EnumSet.allOf(ArticleField.class));
+
+    public ModelJsonModule() {
+        super("ModelJsonModule");
+        addSerializer(RsArticle.class, new RsArticleSerializer());
+        addSerializer(RsAuthor.class, new RsAuthorSerializer());
+        addSerializer(RsKeyword.class, new RsKeywordSerializer());
+    }
+
+    /**
+     * Limits the serialized {@link RsArticle}s to the given fields; pass it
+     * as the filters of an {@link com.fasterxml.jackson.databind.ObjectWriter}
+     * or a {@link org.springframework.http.converter.json.MappingJacksonValue}.
+     */
+    public static class ArticleFieldFilter extends SimpleFilterProvider {
+
+        private static final long serialVersionUID = -6407396427218771870L;
+
+        private final Set<ArticleField> fields;
+
+        public ArticleFieldFilter(final Set<ArticleField> fields) {
+            this.fields = Collections.unmodifiableSet(EnumSet.copyOf(fields));
+        }
+
+        public Set<ArticleField> getFields() {
+            return fields;
+        }
+    }
+
+    static class RsArticleSerializer extends StdSerializer<RsArticle> {
+
+        private static final long serialVersionUID = -3390244917150574069L;
+
+        RsArticleSerializer() {
+            super(RsArticle.class);
+        }
+
+        @Override
+        public void serialize(final RsArticle article, final JsonGenerator gen, final SerializerProvider provider)
+                throws IOException {
+            final FilterProvider filters = provider.getConfig().getFilterProvider();
+            final Set<ArticleField> fields = filters instanceof ArticleFieldFilter
+                    ? ((ArticleFieldFilter) filters).getFields() : ALL_FIELDS;
+            gen.writeStartObject();
+            if (fields.contains(ArticleField.ID)) {
+                gen.writeFieldName(ID);
+                writeNumber(gen, article.getId());
+            }
+            if (fields.contains(ArticleField.HEADLINE)) {
+                gen.writeFieldName(HEADLINE);
+                gen.writeString(article.getHeadline());
+            }
+            if (fields.contains(ArticleField.TEASER_TEXT)) {
+                gen.writeFieldName(TEASER_TEXT);
+                gen.writeString(article.getTeaserText());
+            }
+            if (fields.contains(ArticleField.MAIN_TEXT)) {
+                gen.writeFieldName(MAIN_TEXT);
+                gen.writeString(article.getMainText());
+            }
+            if (fields.contains(ArticleField.PUBLISHED_ON)) {
+                gen.writeFieldName(PUBLISHED_ON);
+                writeDate(gen, article.getPublishedOn());
+            }
+            if (fields.contains(ArticleField.AUTHORS)) {
+                gen.writeFieldName(AUTHORS);
+                writeAuthors(gen, article.getAuthors());
+            }
+            if (fields.contains(ArticleField.KEYWORDS)) {
+                gen.writeFieldName(KEYWORDS);
+                writeKeywords(gen, article.getKeywords());
+            }
+            if (fields.contains(ArticleField.VERSION)) {
+                gen.writeFieldName(VERSION);
+                writeNumber(gen, article.getVersion());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class RsAuthorSerializer extends StdSerializer<RsAuthor> {
+
+        private static final long serialVersionUID = 4931809012279453802L;
+
+        RsAuthorSerializer() {
+            super(RsAuthor.class);
+        }
+
+        @Override
+        public void serialize(final RsAuthor author, final JsonGenerator gen, final SerializerProvider provider)
+                throws IOException {
+            writeAuthor(gen, author);
+        }
+    }
+
+    static class RsKeywordSerializer extends StdSerializer<RsKeyword> {
+
+        private static final long serialVersionUID = -1120434690725936818L;
+
+        RsKeywordSerializer() {
+            super(RsKeyword.class);
+        }
+
+        @Override
+        public void serialize(final RsKeyword keyword, final JsonGenerator gen, final SerializerProvider provider)
+                throws IOException {
+            writeKeyword(gen, keyword);
+        }
+    }
+
+    private static void writeAuthors(final JsonGenerator gen, final List<RsAuthor> authors) throws IOException {
+        if (authors == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        for (RsAuthor author : authors) {
+            writeAuthor(gen, author);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeAuthor(final JsonGenerator gen, final RsAuthor author) throws IOException {
+        if (author == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        writeNumber(gen, author.getId());
+        gen.writeFieldName(FIRSTNAME);
+        gen.writeString(author.getFirstname());
+        gen.writeFieldName(LASTNAME);
+        gen.writeString(author.getLastname());
+        gen.writeEndObject();
+    }
+
+    private static void writeKeywords(final JsonGenerator gen, final List<RsKeyword> keywords) throws IOException {
+        if (keywords == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        for (RsKeyword keyword : keywords) {
+            writeKeyword(gen, keyword);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeKeyword(final JsonGenerator gen, final RsKeyword keyword) throws IOException {
+        if (keyword == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        writeNumber(gen, keyword.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(keyword.getName());
+        gen.writeEndObject();
+    }
+
+    private static void writeNumber(final JsonGenerator gen, final Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    /**
+     * yyyy-MM-dd, digit by digit; years outside 0..9999 as {@link LocalDate#toString()} does.
+     */
+    static void writeDate(final JsonGenerator gen, final LocalDate date) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+            return;
+        }
+        final int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            gen.writeString(date.toString());
+            return;
+        }
+        final char[] chars = new char[10];
+        chars[0] = (char) ('0' + year / 1000);
+        chars[1] = (char) ('0' + year / 100 % 10);
+        chars[2] = (char) ('0' + year / 10 % 10);
+        chars[3] = (char) ('0' + year % 10);
+        chars[4] = '-';
+        chars[5] = (char) ('0' + date.getMonthValue() / 10);
+        chars[6] = (char) ('0' + date.getMonthValue() % 10);
+        chars[7] = '-';
+        chars[8] = (char) ('0' + date.getDayOfMonth() / 10);
+        chars[9] = (char) ('0' + date.getDayOfMonth() % 10);
+        gen.writeString(chars, 0, chars.length);
+    }
+}
@@ -0,0 +1,148 @@
+package com.twitzer.newsapi.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+/**
+ * Opt-in with <code>virtual-threads.enabled = true</code>: Tomcat handles the
+ * requests, the service calls included, on a new virtual thread each instead
+ * of its pool of 200, and the {@link BulkheadConfig bulkheads} create virtual
+ * threads. Needs a Java 21+ runtime; on older ones the platform threads stay.
+ * Tomcat 8.5 handles a request in a block <code>synchronized</code> on its
+ * socket, which pins the virtual thread to its carrier before Java 24
+ * (JEP 491): blocking calls don't unmount, and the requests run one per
+ * carrier, 8-16 times slower than on the pool, see VirtualThreadsBenchmarkTest.
+ * So Tomcat keeps its pool on Java 21 to 23, only the bulkheads switch.
+ * <p>
+ * A second opt-in, <code>virtual-threads.cap-jdbc-pool = true</code>, caps
+ * the connection pool at the number of carriers, for an embedded H2 only.
+ * H2 runs every JDBC call in a <code>synchronized</code> block, which pins
+ * the virtual thread to its carrier while it waits for the monitor; with the
+ * cap no more threads than carriers are inside JDBC code at a time, the
+ * others wait for a connection in the lock-based queue of the pool, where
+ * they unmount. A database server is waited for on the socket, which
+ * unmounts; capping its pool would only queue the requests.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public EmbeddedServletContainerCustomizer virtualThreadsCustomizer() {
+        return (container) -> {
+            if (!VirtualThreads.isAvailable()) {
+                log.info("----------------- virtual threads need Java 21+, running on {}; Tomcat keeps its thread pool",
+                        System.getProperty("java.version"));
+                return;
+            }
+            if (!VirtualThreads.unmountsInSynchronized()) {
+                log.info("----------------- Tomcat 8.5 would pin virtual threads on Java {}, needs 24+; Tomcat keeps its thread pool",
+                        System.getProperty("java.version"));
+                return;
+            }
+            if (container instanceof TomcatEmbeddedServletContainerFactory) {
+                ((TomcatEmbeddedServletContainerFactory) container)
+                        .addConnectorCustomizers(VirtualThreadConfig::useVirtualThreads);
+            }
+        };
+    }
+
+    /**
+     * Static, as it has to be registered before the data source is created.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "virtual-threads.cap-jdbc-pool", havingValue = "true")
+    public static BeanPostProcessor jdbcPoolLimiter() {
+        return new JdbcPoolLimiter(VirtualThreads.isAvailable() ? VirtualThreads.carrierThreads() : 0);
+    }
+
+    /**
+     * The executor is never shut down; there are no idle threads to stop.
+     */
+    static void useVirtualThreads(final Connector connector) {
+        final ProtocolHandler handler = connector.getProtocolHandler();
+        if (handler instanceof AbstractProtocol) {
+            ((AbstractProtocol<?>) handler).setExecutor(
+                    VirtualThreads.newThreadPerTaskExecutor("http-" + connector.getPort() + "-virtual-"));
+            log.info("----------------- connector on port {} handles requests on virtual threads", connector.getPort());
+        }
+    }
+
+    /**
+     * Caps the tomcat-jdbc pool of an embedded H2 at <code>maxActive</code>
+     * connections, after the <code>spring.datasource.tomcat.*</code>
+     * properties are bound and before the pool is created.
+     */
+    static class JdbcPoolLimiter implements BeanPostProcessor, PriorityOrdered {
+
+        private final int maxActive;
+
+        /**
+         * @param maxActive     max. number of connections, 0 to leave the pool as it is
+         */
+        JdbcPoolLimiter(final int maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (maxActive > 0 && bean instanceof DataSource) {
+                final DataSource dataSource = (DataSource) bean;
+                if (!isEmbeddedH2(dataSource.getUrl())) {
+                    log.info("----------------- {}: {} is no embedded H2, the pool stays as it is",
+                            beanName, dataSource.getUrl());
+                    return bean;
+                }
+                if (dataSource.getMaxActive() > maxActive) {
+                    log.info("----------------- {}: max. {} connections instead of {}, one per carrier thread",
+                            beanName, maxActive, dataSource.getMaxActive());
+                    dataSource.setMaxActive(maxActive);
+                    dataSource.setMaxIdle(Math.min(dataSource.getMaxIdle(), maxActive));
+                    dataSource.setMinIdle(Math.min(dataSource.getMinIdle(), maxActive));
+                    dataSource.setInitialSize(Math.min(dataSource.getInitialSize(), maxActive));
+                }
+                // waiting for a connection must unmount, not pin
+                dataSource.setFairQueue(true);
+            }
+            return bean;
+        }
+
+        /**
+         * @return  whether H2 runs in this JVM, i.e. the URL is no <code>tcp:</code> or <code>ssl:</code> one
+         */
+        static boolean isEmbeddedH2(final String url) {
+            return url != null && url.startsWith("jdbc:h2:")
+                    && !url.startsWith("jdbc:h2:tcp:") && !url.startsWith("jdbc:h2:ssl:");
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            return bean;
+        }
+
+        /**
+         * After the binding of the configuration properties, which is
+         * <code>HIGHEST_PRECEDENCE + 1</code>.
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.twitzer.newsapi.configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads (JDK 21+) by reflection, the code is built for Java 8.
+ * On older runtimes {@link #isAvailable()} is <code>false</code> and the
+ * factory methods throw.
+ *
+ * @author jschulz
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method NAME;
+
+    private static final Method FACTORY;
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return  whether the runtime has virtual threads
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return  whether a virtual thread blocking in a <code>synchronized</code>
+     *          block unmounts from its carrier (JEP 491, Java 24+) instead of pinning it
+     */
+    public static boolean unmountsInSynchronized() {
+        return isAvailable() && featureVersion(System.getProperty("java.specification.version")) >= 24;
+    }
+
+    /**
+     * @param   specificationVersion    <code>1.8</code>, <code>21</code>, ...
+     * @return  the feature version, 8, 21, ...
+     */
+    static int featureVersion(final String specificationVersion) {
+        return Integer.parseInt(specificationVersion.startsWith("1.")
+                ? specificationVersion.substring(2) : specificationVersion);
+    }
+
+    /**
+     * @param   prefix  the thread names, numbered from 0
+     * @return  a factory of virtual threads
+     * @throws  UnsupportedOperationException   if the runtime has no virtual threads
+     */
+    public static ThreadFactory factory(final String prefix) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("virtual threads need Java 21+, running on " + System.getProperty("java.version"));
+        }
+        try {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("virtual threads couldn't be set up", e);
+        }
+    }
+
+    /**
+     * @param   prefix  the thread names, numbered from 0
+     * @return  an unbounded executor starting a new virtual thread per task
+     * @throws  UnsupportedOperationException   if the runtime has no virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final String prefix) {
+        final ThreadFactory factory = factory(prefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("virtual threads couldn't be set up", e);
+        }
+    }
+
+    /**
+     * @return  the number of carrier threads virtual threads are scheduled on
+     */
+    public static int carrierThreads() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    }
+}
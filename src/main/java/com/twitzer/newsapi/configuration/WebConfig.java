@@ -1,10 +1,16 @@
 package com.twitzer.newsapi.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.twitzer.newsapi.controller.ArticlesController;
 
 import java.util.List;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -24,11 +30,35 @@ public class WebConfig extends WebMvcConfigurerAdapter {
         configurer.enable();
     }
     
+    /**
+     * JSON first, it stays the default; Smile and CBOR for clients asking
+     * for them by Accept or sending them as Content-Type.
+     */
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
+        converters.add(new BinaryJackson2HttpMessageConverter(configure(new ObjectMapper(new SmileFactory())),
+                MediaType.valueOf(ArticlesController.APPLICATION_SMILE_VALUE)));
+        converters.add(new BinaryJackson2HttpMessageConverter(configure(new ObjectMapper(new CBORFactory())),
+                MediaType.valueOf(ArticlesController.APPLICATION_CBOR_VALUE)));
+    }
+
+    /**
+     * the JSON {@link ObjectMapper}, for the message converter and for the
+     * controllers writing JSON themselves (e.g. streamed responses). The
+     * response types are written by the {@link ModelJsonModule}.
+     */
+    @Bean
+    public ObjectMapper objectMapper() {
+        return configure(new ObjectMapper());
+    }
+
+    private static ObjectMapper configure(final ObjectMapper objectMapper) {
         Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
         builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        converters.add(new MappingJackson2HttpMessageConverter(builder.build()));
+        builder.modulesToInstall(new ModelJsonModule());
+        builder.configure(objectMapper);
+        return objectMapper;
     }
 
 }
@@ -0,0 +1,150 @@
+package com.twitzer.newsapi.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.twitzer.newsapi.service.ExportRow;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the rows of an article export, field by field without
+ * intermediate objects: as newline delimited JSON in the shape of
+ * {@link com.twitzer.newsapi.model.RsArticle}, or as CSV with one line per
+ * article. A deleted article is written as its id and deletedOn only.
+ *
+ * @author jschulz
+ */
+abstract class ArticleExportWriter implements Closeable {
+
+    static final String CSV_HEADER = "id,headline,teaserText,mainText,publishedOn,updatedOn,deletedOn,authors,keywords";
+
+    /** separates the names of several authors or keywords in a CSV field. */
+    static final String CSV_LIST_SEPARATOR = "|";
+
+    /**
+     * @param   row     the article
+     * @throws  IOException     if the client went away
+     */
+    abstract void write(ExportRow row) throws IOException;
+
+    static ArticleExportWriter ndjson(final JsonFactory factory, final Writer out) throws IOException {
+        final JsonGenerator generator = factory.createGenerator(out);
+        generator.setRootValueSeparator(null);
+        return new ArticleExportWriter() {
+
+            @Override
+            void write(final ExportRow row) throws IOException {
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.getId());
+                if (row.getDeletedOn() != null) {
+                    generator.writeStringField("deletedOn", row.getDeletedOn().toString());
+                } else {
+                    generator.writeStringField("headline", row.getHeadline());
+                    generator.writeStringField("teaserText", row.getDescription());
+                    generator.writeStringField("mainText", row.getMainText());
+                    writeStringField("publishedOn", row.getPublishedOn());
+                    writeStringField("updatedOn", row.getUpdatedOn());
+                    generator.writeArrayFieldStart("authors");
+                    for (int i = 0; i < row.getAuthorCount(); i++) {
+                        generator.writeStartObject();
+                        generator.writeNumberField("id", row.getAuthorId(i));
+                        generator.writeStringField("firstname", row.getAuthorFirstname(i));
+                        generator.writeStringField("lastname", row.getAuthorLastname(i));
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                    generator.writeArrayFieldStart("keywords");
+                    for (int i = 0; i < row.getKeywordCount(); i++) {
+                        generator.writeStartObject();
+                        generator.writeNumberField("id", row.getKeywordId(i));
+                        generator.writeStringField("name", row.getKeywordName(i));
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+
+            private void writeStringField(final String name, final Object value) throws IOException {
+                if (value == null) {
+                    generator.writeNullField(name);
+                } else {
+                    generator.writeStringField(name, value.toString());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                generator.close();
+            }
+        };
+    }
+
+    static ArticleExportWriter csv(final Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write("\r\n");
+        return new ArticleExportWriter() {
+
+            private final StringBuilder names = new StringBuilder();
+
+            @Override
+            void write(final ExportRow row) throws IOException {
+                out.write(Long.toString(row.getId()));
+                if (row.getDeletedOn() != null) {
+                    out.write(",,,,,,");
+                    field(row.getDeletedOn());
+                    out.write(",,");
+                } else {
+                    out.write(',');
+                    field(row.getHeadline());
+                    out.write(',');
+                    field(row.getDescription());
+                    out.write(',');
+                    field(row.getMainText());
+                    out.write(',');
+                    field(row.getPublishedOn());
+                    out.write(',');
+                    field(row.getUpdatedOn());
+                    out.write(",,");
+                    names.setLength(0);
+                    for (int i = 0; i < row.getAuthorCount(); i++) {
+                        names.append(i == 0 ? "" : CSV_LIST_SEPARATOR)
+                                .append(row.getAuthorFirstname(i)).append(' ').append(row.getAuthorLastname(i));
+                    }
+                    field(names);
+                    out.write(',');
+                    names.setLength(0);
+                    for (int i = 0; i < row.getKeywordCount(); i++) {
+                        names.append(i == 0 ? "" : CSV_LIST_SEPARATOR).append(row.getKeywordName(i));
+                    }
+                    field(names);
+                }
+                out.write("\r\n");
+            }
+
+            /**
+             * RFC 4180: quoted if it contains a separator, quote or line break.
+             */
+            private void field(final Object value) throws IOException {
+                if (value == null) {
+                    return;
+                }
+                final String text = value.toString();
+                if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                    out.write(text);
+                    return;
+                }
+                out.write('"');
+                out.write(text.replace("\"", "\"\""));
+                out.write('"');
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.twitzer.newsapi.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
+import com.twitzer.newsapi.service.ArticleService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the final UTF-8 JSON of single {@link RsArticle}s, plain and
+ * gzipped, so hot article GETs skip conversion and serialization.
+ * Entries are evicted by the write methods of {@link ArticleService}; an
+ * entry put while a write commits is checked against the current version,
+ * see {@link #put(RsArticle, ArticleVersion, Supplier)}.
+ *
+ * @author jschulz
+ */
+@Component
+public class ArticleResponseCache {
+
+    private final Cache cache;
+
+    private final ObjectWriter writer;
+
+    @Autowired
+    public ArticleResponseCache(final CacheManager cacheManager, final ObjectMapper objectMapper) {
+        this.cache = cacheManager.getCache(ArticleService.ARTICLE_RESPONSE_CACHE);
+        this.writer = objectMapper.writerFor(RsArticle.class);
+    }
+
+    /**
+     * @param   articleId   article.id
+     * @return  the cached response or <code>null</code>
+     */
+    public SerializedArticle get(final Long articleId) {
+        return cache.get(articleId, SerializedArticle.class);
+    }
+
+    /**
+     * Serializes and caches the given article.
+     *
+     * @param   article     the article to cache, keyed by its id; not cached without an id
+     * @param   version     the version of the article, may be <code>null</code>
+     * @return  the serialized article
+     */
+    public SerializedArticle put(final RsArticle article, final ArticleVersion version) {
+        final SerializedArticle serialized;
+        try {
+            serialized = new SerializedArticle(writer.writeValueAsBytes(article), version);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("article couldn't be serialized: " + article, e);
+        }
+        if (article.getId() != null) {
+            cache.put(article.getId(), serialized);
+        }
+        return serialized;
+    }
+
+    /**
+     * Serializes and caches the given article, unless it has been changed
+     * since it was loaded. The version is checked after the put: a write
+     * committing before the check is seen by it, one committing after it
+     * evicts the entry itself.
+     *
+     * @param   article         the article to cache, keyed by its id
+     * @param   version         the version of the article as loaded
+     * @param   currentVersion  looks up the version in the database
+     * @return  the serialized article
+     */
+    public SerializedArticle put(final RsArticle article, final ArticleVersion version,
+            final Supplier<ArticleVersion> currentVersion) {
+        final SerializedArticle serialized = put(article, version);
+        if (article.getId() != null && !Objects.equals(version, currentVersion.get())) {
+            cache.evict(article.getId());
+        }
+        return serialized;
+    }
+
+    /**
+     * JSON bytes of one {@link RsArticle} plus the precompressed gzip variant
+     * and the version they were serialized from.
+     */
+    public static final class SerializedArticle implements Serializable {
+
+        private static final long serialVersionUID = -3581947614387296027L;
+
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        private final ArticleVersion version;
+
+        SerializedArticle(final byte[] json, final ArticleVersion version) {
+            this.json = json;
+            this.gzippedJson = gzip(json);
+            this.version = version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+
+        public ArticleVersion getVersion() {
+            return version;
+        }
+
+        private static byte[] gzip(final byte[] bytes) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
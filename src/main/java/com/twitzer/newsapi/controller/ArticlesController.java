@@ -1,34 +1,92 @@
 package com.twitzer.newsapi.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.twitzer.newsapi.configuration.ModelJsonModule.ArticleFieldFilter;
+import com.twitzer.newsapi.controller.ArticleResponseCache.SerializedArticle;
+import com.twitzer.newsapi.ingest.IngestQueue;
+import com.twitzer.newsapi.ingest.IngestRejectedException;
 import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.PatchArticle;
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
 import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.model.RsArticleSummary;
+import com.twitzer.newsapi.model.RsBatchItemResult;
+import com.twitzer.newsapi.model.RsDeleteResult;
+import com.twitzer.newsapi.model.RsIngestStatus;
+import com.twitzer.newsapi.model.RsArticlePage;
 import com.twitzer.newsapi.model.UpdateArticle;
 import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.search.IndexNotReadyException;
+import com.twitzer.newsapi.service.ArticleCursor;
+import com.twitzer.newsapi.service.ArticleExporter;
+import com.twitzer.newsapi.service.ArticleField;
 import com.twitzer.newsapi.service.ArticleService;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * Handles Requests for the News-Article Service.
@@ -39,40 +97,168 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @RestController
 @RequestMapping(
         value = "/articles",
-        produces = { "application/json" },
-        consumes = { "application/json" }
+        produces = { "application/json", ArticlesController.APPLICATION_SMILE_VALUE, ArticlesController.APPLICATION_CBOR_VALUE },
+        consumes = { "application/json", ArticlesController.APPLICATION_SMILE_VALUE, ArticlesController.APPLICATION_CBOR_VALUE }
 )
 public class ArticlesController {
 
+    /** upper bound for the <code>limit</code> of paginated requests. */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static final int DEFAULT_FULLTEXT_LIMIT = 20;
+
+    /** request parameter selecting the {@link RsArticleSummary} representation of listings. */
+    public static final String SUMMARY_VIEW = "view=summary";
+
+    /** request parameter selecting a sparse fieldset of {@link RsArticle}s, see {@link ArticleField}. */
+    public static final String FIELDS_PARAM = "fields";
+
+    /** client supplied key making {@link #createArticle(CreateArticle, BindingResult, String, String)} safe to retry. */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /** set on responses replayed for a known {@link #IDEMPOTENCY_KEY_HEADER}. */
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /** RFC 7240 header, see {@link #RESPOND_ASYNC}. */
+    public static final String PREFER_HEADER = "Prefer";
+
+    /** RFC 7240 preference selecting {@link #createArticleAsync(CreateArticle, BindingResult)}. */
+    public static final String RESPOND_ASYNC = "respond-async";
+
+    /** seconds a client should wait after a 503 of the {@link IngestQueue}. */
+    static final int INGEST_RETRY_AFTER_SECONDS = 1;
+
+    /** seconds a client should wait after a 503 of an index being built. */
+    static final int INDEX_RETRY_AFTER_SECONDS = 5;
+
+    /** bean-validation of the single items of a batch. */
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    /** newline delimited JSON, one {@link RsArticle} per line. */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /** binary JSON for service-to-service clients, see {@link com.twitzer.newsapi.configuration.WebConfig}. */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /** RFC 7049 binary JSON, see {@link com.twitzer.newsapi.configuration.WebConfig}. */
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+    /** CSV, one article per line, see {@link ArticleExportWriter#CSV_HEADER}. */
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    /** streamed responses are flushed every n articles. */
+    private static final int NDJSON_FLUSH_INTERVAL = 100;
+
+    /** buffer of the export stream, and of its compression. */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /** the generators of {@link #getArticle}, by media type. */
+    private static final Map<String, JsonFactory> BINARY_FACTORIES = new LinkedHashMap<>();
+
+    static {
+        BINARY_FACTORIES.put(APPLICATION_SMILE_VALUE, new SmileFactory());
+        BINARY_FACTORIES.put(APPLICATION_CBOR_VALUE, new CBORFactory());
+    }
+
     private final ArticleService articleService;
 
+    private final ObjectMapper objectMapper;
+
+    private final ArticleResponseCache responseCache;
+
+    private final IngestQueue ingestQueue;
+
+    private final ArticleExporter articleExporter;
+
     @Autowired
-    public ArticlesController(final ArticleService articleService) {
+    public ArticlesController(final ArticleService articleService, final ObjectMapper objectMapper,
+            final ArticleResponseCache responseCache, final IngestQueue ingestQueue,
+            final ArticleExporter articleExporter) {
         this.articleService = articleService;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.ingestQueue = ingestQueue;
+        this.articleExporter = articleExporter;
     }
 
 
     /**
      * Create a new Article, and if needed also new Authors and Keywords from
      * the given {@link CreateArticle}.
+     * <p>
+     * With an <code>Idempotency-Key</code> header a retry of the request is
+     * answered with the response to the first one, without creating the
+     * article again; a key reused for another request is answered with 422.
+     * Keys are kept for <code>purge.idempotency-retention</code> ms, see
+     * {@link com.twitzer.newsapi.service.ArticlePurger}. With
+     * <code>Prefer: respond-async</code> among the preferences the article is
+     * queued instead, see {@link #createArticleAsync(CreateArticle, BindingResult)}.
      *
      * @param   newArticle  the input
      * @param   validationResult    result from bean-validation
+     * @param   idempotencyKey      optional, unique per logical request
+     * @param   prefer              optional RFC 7240 preferences, e.g. 'respond-async, wait=10'
      * @return  new created {@link RsArticle} and HttpStatusCode
      */
     @PutMapping( value = "/")
-    public ResponseEntity<RsArticle> createArticle(final @RequestBody @Valid CreateArticle newArticle,
-            final BindingResult validationResult ) {
+    public ResponseEntity<?> createArticle(final @RequestBody @Valid CreateArticle newArticle,
+            final BindingResult validationResult,
+            final @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            final @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        if (prefersAsync(prefer)) {
+            return createArticleAsync(newArticle, validationResult);
+        }
         if (validationResult.hasErrors()) {
             log.error("There are invalid arguments in 'newArticle': {}", validationResult.getAllErrors());
             throw new IllegalArgumentException("There are invalid arguments in 'newArticle': " + validationResult.getAllErrors());
         }
+        if (idempotencyKey == null) {
+            return create(newArticle, null, null);
+        }
+        if (!StringUtils.hasText(idempotencyKey) || idempotencyKey.length() > IdempotencyKey.MAX_LENGTH) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " has to have 1 - " + IdempotencyKey.MAX_LENGTH + " characters");
+        }
+
+        final String requestHash = requestHash(newArticle);
+        final IdempotencyKey known = articleService.findIdempotencyKey(idempotencyKey);
+        if (known != null) {
+            return replay(known, requestHash);
+        }
+        return create(newArticle, idempotencyKey, requestHash);
+    }
 
+    /**
+     * @param   prefer  the Prefer header(s), comma separated preferences with optional values and parameters
+     * @return  whether {@link #RESPOND_ASYNC} is one of the preferences
+     */
+    static boolean prefersAsync(final String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            final String token = preference.split("[;=]", 2)[0].trim();
+            if (RESPOND_ASYNC.equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity<RsArticle> create(final CreateArticle newArticle, final String idempotencyKey,
+            final String requestHash) {
         ResponseEntity<RsArticle> response;
         try {
-            final Article article = articleService.createArticle(ModelConverter.convertToJpaArticle(newArticle));
+            final Article jpaArticle = ModelConverter.convertToJpaArticle(newArticle);
+            final Article article = idempotencyKey == null ? articleService.createArticle(jpaArticle)
+                    : articleService.createArticle(jpaArticle, new IdempotencyKey(idempotencyKey, requestHash),
+                            (created) -> serialize(ModelConverter.convert(created)));
             response = new ResponseEntity<>(ModelConverter.convert(article), HttpStatus.OK);
         } catch (DataIntegrityViolationException dive) {
+            // a concurrent retry may have won the race for the key
+            final IdempotencyKey known = idempotencyKey == null ? null : articleService.findIdempotencyKey(idempotencyKey);
+            if (known != null) {
+                return replay(known, requestHash);
+            }
             log.error("article couldn't be saved: " + dive);
             response = new ResponseEntity<>(HttpStatus.CONFLICT);
         }
@@ -80,6 +266,164 @@ public class ArticlesController {
         return response;
     }
 
+    /**
+     * The response to a retry: the one to the first request, 422 if the key
+     * came with another request. A key stored without the response is
+     * answered from the current article, 410 if it is deleted.
+     */
+    private ResponseEntity<RsArticle> replay(final IdempotencyKey known, final String requestHash) {
+        if (!known.getRequestHash().equals(requestHash)) {
+            log.error("{} {} was used for another request", IDEMPOTENCY_KEY_HEADER, known.getId());
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (known.getResponse() != null) {
+            try {
+                return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                        .body(objectMapper.readValue(known.getResponse(), RsArticle.class));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        final Article article = articleService.findOne(known.getArticleId());
+        if (article == null) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+        return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, "true").body(ModelConverter.convert(article));
+    }
+
+    private byte[] serialize(final RsArticle article) {
+        try {
+            return objectMapper.writeValueAsBytes(article);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String requestHash(final CreateArticle newArticle) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(newArticle));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Accept a new Article for asynchronous creation by the
+     * {@link IngestQueue}, requested by the header
+     * <code>Prefer: respond-async</code>, see
+     * {@link #createArticle(CreateArticle, BindingResult, String, String)}.
+     *
+     * @param   newArticle  the input
+     * @param   validationResult    result from bean-validation
+     * @return  202 with the {@link RsIngestStatus} and its location, 503 if
+     *          the queue is full
+     */
+    public ResponseEntity<RsIngestStatus> createArticleAsync(final @RequestBody @Valid CreateArticle newArticle,
+            final BindingResult validationResult ) {
+        if (validationResult.hasErrors()) {
+            log.error("There are invalid arguments in 'newArticle': {}", validationResult.getAllErrors());
+            throw new IllegalArgumentException("There are invalid arguments in 'newArticle': " + validationResult.getAllErrors());
+        }
+
+        final RsIngestStatus status = ingestQueue.submit(newArticle);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/articles/ingest/{ticket}").buildAndExpand(status.getTicket()).toUri())
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(status);
+    }
+
+    /**
+     * Get the state of an Article accepted by
+     * {@link #createArticleAsync(CreateArticle, BindingResult)}.
+     *
+     * @param   ticket  the ticket from the 202 response
+     * @return  the {@link RsIngestStatus}, 404 if unknown or expired
+     */
+    @GetMapping( value = "/ingest/{ticket}" )
+    public ResponseEntity<RsIngestStatus> getIngestStatus(final @PathVariable("ticket") String ticket) {
+        final RsIngestStatus status = ingestQueue.getStatus(ticket);
+        if (status == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+
+    /**
+     * Create up to {@value ArticleService#MAX_BATCH_SIZE} Articles at once,
+     * see {@link #createArticle(CreateArticle, BindingResult, String, String)}. Invalid items
+     * are skipped, all valid ones are created in one transaction. If that
+     * violates a constraint, the valid items are retried in halves, see
+     * {@link #createValid(List, List, RsBatchItemResult[])}.
+     *
+     * @param   newArticles the input
+     * @return  one {@link RsBatchItemResult} per item, in input order: 201
+     *          with the new id, 400 if invalid, 409 if the item couldn't be saved
+     */
+    @PutMapping( value = "/batch" )
+    public ResponseEntity<List<RsBatchItemResult>> createArticles(final @RequestBody List<CreateArticle> newArticles) {
+        if (newArticles.isEmpty() || newArticles.size() > ArticleService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("a batch has to contain 1 - " + ArticleService.MAX_BATCH_SIZE + " articles");
+        }
+
+        final RsBatchItemResult[] results = new RsBatchItemResult[newArticles.size()];
+        final List<Integer> validIndices = new ArrayList<>();
+        final List<CreateArticle> valid = new ArrayList<>();
+        for (int i = 0; i < newArticles.size(); i++) {
+            final CreateArticle newArticle = newArticles.get(i);
+            final Set<ConstraintViolation<CreateArticle>> violations = newArticle == null
+                    ? Collections.emptySet() : VALIDATOR.validate(newArticle);
+            if (newArticle == null || !violations.isEmpty()) {
+                results[i] = new RsBatchItemResult(i, HttpStatus.BAD_REQUEST.value(), null,
+                        "There are invalid arguments: " + violations.stream()
+                                .map((violation) -> violation.getPropertyPath() + " " + violation.getMessage())
+                                .sorted().collect(Collectors.joining(", ")));
+            } else {
+                validIndices.add(i);
+                valid.add(newArticle);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            createValid(validIndices, valid, results);
+        }
+        return new ResponseEntity<>(Arrays.asList(results), HttpStatus.OK);
+    }
+
+    /**
+     * Creates the items in one transaction; if that violates a constraint,
+     * each half in one of its own, down to the single items spoiling it,
+     * which get a 409. A few bad items among 1000 cost about 10 transactions
+     * each instead of 1000. The items are converted anew per attempt, a
+     * rolled back one keeps the state of its failed save.
+     *
+     * @param   indices the positions of the items in the batch
+     * @param   items   valid items
+     * @param   results the results by position, filled in
+     */
+    private void createValid(final List<Integer> indices, final List<CreateArticle> items,
+            final RsBatchItemResult[] results) {
+        try {
+            final List<Article> created = articleService.createArticles(items.stream()
+                    .map(ModelConverter::convertToJpaArticle).collect(Collectors.toList()));
+            for (int i = 0; i < created.size(); i++) {
+                results[indices.get(i)] = new RsBatchItemResult(indices.get(i),
+                        HttpStatus.CREATED.value(), created.get(i).getId(), null);
+            }
+        } catch (DataIntegrityViolationException dive) {
+            if (items.size() == 1) {
+                log.error("article {} of the batch couldn't be saved: {}", indices.get(0), dive.toString());
+                results[indices.get(0)] = new RsBatchItemResult(indices.get(0), HttpStatus.CONFLICT.value(), null,
+                        "article couldn't be saved");
+                return;
+            }
+            // isolate the item(s) spoiling the batch
+            final int half = items.size() / 2;
+            createValid(indices.subList(0, half), items.subList(0, half), results);
+            createValid(indices.subList(half, items.size()), items.subList(half, items.size()), results);
+        }
+    }
+
     /**
      * Updates an Article by given article.id from the data
      * {@link UpdateArticle}.
@@ -109,6 +453,32 @@ public class ArticlesController {
         return response;
     }
 
+    /**
+     * Changes only the fields sent in the {@link PatchArticle}. With its
+     * version set, the patch is rejected with 409 if the article was changed
+     * since that version.
+     *
+     * @param articleId         id of the article to change.
+     * @param patchArticle      the fields to change
+     * @param validationResult  result from bean-validation
+     * @return the patched {@link RsArticle}, 404 if there is no such article
+     */
+    @PatchMapping( value = "/{articleId}" )
+    public ResponseEntity<RsArticle> patchArticle(final @PathVariable("articleId") Long articleId,
+            @RequestBody @Valid PatchArticle patchArticle, final BindingResult validationResult) {
+        if (validationResult.hasErrors()) {
+            log.error("There are invalid arguments in 'patchArticle': {}", validationResult.getAllErrors());
+            throw new IllegalArgumentException("There are invalid arguments in 'patchArticle': " + validationResult.getAllErrors());
+        }
+
+        final Article article = articleService.patchArticle(articleId,
+                ModelConverter.convertToJpaArticle(patchArticle, articleId));
+        if (article == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(ModelConverter.convert(article), HttpStatus.OK);
+    }
+
     /**
      * Delete an article by id-parameter.
      *
@@ -126,36 +496,231 @@ public class ArticlesController {
     }
 
     /**
-     * Get an {@link RsArticle} by a given id.
+     * Deletes the articles with the given ids, at most
+     * {@value ArticleService#MAX_BATCH_SIZE}; unknown ids are ignored.
+     *
+     * @param articleIds    article ids
+     * @return the number of deleted articles
+     */
+    @DeleteMapping( value = "/", params = "ids" )
+    public ResponseEntity<RsDeleteResult> deleteArticles(final @RequestParam("ids") List<Long> articleIds) {
+        if (articleIds.size() > ArticleService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + ArticleService.MAX_BATCH_SIZE + " ids per request!");
+        }
+        return new ResponseEntity<>(new RsDeleteResult(articleService.deleteArticles(articleIds)), HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Deletes all articles published in the date range.
      *
-     * @param   articleId     article.id
-     * @return  the {@link RsArticle}
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @return the number of deleted articles
+     */
+    @DeleteMapping( value = "/date/{from}/{to}" )
+    public ResponseEntity<RsDeleteResult> deleteArticlesByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate) {
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        return new ResponseEntity<>(new RsDeleteResult(articleService.deleteArticlesByDateRange(fromDate, toDate)),
+                HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Get an {@link RsArticle} by a given id. The serialized JSON is served
+     * from the {@link ArticleResponseCache}, gzipped if the client accepts it,
+     * or transcoded token by token for clients preferring Smile or CBOR.
+     * Conditional requests are answered with 304 if the client's copy is
+     * current; on a cache miss this is checked by a version lookup, before the
+     * article is loaded.
+     *
+     * @param   articleId       article.id
+     * @param   accept          the Accept header
+     * @param   acceptEncoding  the Accept-Encoding header
+     * @param   webRequest      the request, for the conditional headers
+     * @param   response        the response to write the JSON to
+     * @throws  IOException     if the client went away
      */
     @GetMapping( value = "/{articleId}" )
-    public ResponseEntity<RsArticle> getArticle(final @PathVariable("articleId") Long articleId) {
+    public void getArticle(final @PathVariable("articleId") Long articleId,
+            final @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            final @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            final WebRequest webRequest, final HttpServletResponse response) throws IOException {
 
-        final Article dbArticle = articleService.findOne(articleId);
+        final String binaryType = binaryTypeOf(accept);
+        final boolean gzip = binaryType == null && acceptsGzip(acceptEncoding);
+        final String variant = variantOf(binaryType, gzip);
+        // a 304 has to name the representation headers, too
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        SerializedArticle serialized = responseCache.get(articleId);
+        if (serialized == null) {
+            if (isConditional(webRequest) && isNotModified(webRequest, articleService.findVersion(articleId), variant)) {
+                return;
+            }
+            final Article dbArticle = articleService.findOne(articleId);
+            if (dbArticle == null) {
+                response.setStatus(HttpStatus.NO_CONTENT.value());
+                return;
+            }
+            serialized = responseCache.put(ModelConverter.convert(dbArticle), ArticleVersion.of(dbArticle),
+                    () -> articleService.findVersion(articleId));
+        }
+        if (isNotModified(webRequest, serialized.getVersion(), variant)) {
+            return;
+        }
 
-        ResponseEntity<RsArticle> response;
-        if (dbArticle == null) {
-            response = new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        if (binaryType != null) {
+            response.setContentType(binaryType);
+            try (JsonParser parser = objectMapper.getFactory().createParser(serialized.getJson());
+                    JsonGenerator generator = BINARY_FACTORIES.get(binaryType).createGenerator(response.getOutputStream())) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        final byte[] body;
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = serialized.getGzippedJson();
         } else {
-            response = new ResponseEntity<>(ModelConverter.convert(dbArticle), HttpStatus.OK);
+            body = serialized.getJson();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Sparse variant of {@link #getArticle(Long, String, String, WebRequest, HttpServletResponse)},
+     * selected by <code>?fields=</code>: only the requested columns and
+     * associations are loaded and serialized. Neither cached nor gzipped.
+     *
+     * @param   articleId   article.id
+     * @param   fields      comma separated property names, e.g. <code>id,headline</code>
+     * @param   accept      the Accept header
+     * @param   webRequest  the request, for the conditional headers
+     * @param   response    the response to write the JSON to
+     * @throws  IOException if the client went away
+     */
+    @GetMapping( value = "/{articleId}", params = FIELDS_PARAM )
+    public void getArticleFields(final @PathVariable("articleId") Long articleId,
+            final @RequestParam(FIELDS_PARAM) String fields,
+            final @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            final WebRequest webRequest, final HttpServletResponse response) throws IOException {
+
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (isConditional(webRequest) && isNotModified(webRequest, articleService.findVersion(articleId))) {
+            return;
+        }
+        final Article dbArticle = articleService.findOne(articleId, articleFields);
+        if (dbArticle == null) {
+            response.setStatus(HttpStatus.NO_CONTENT.value());
+            return;
+        }
+        if (isNotModified(webRequest, ArticleVersion.of(dbArticle))) {
+            return;
+        }
+
+        final String binaryType = binaryTypeOf(accept);
+        response.setContentType(binaryType != null ? binaryType : MediaType.APPLICATION_JSON_UTF8_VALUE);
+        final JsonFactory factory = binaryType != null ? BINARY_FACTORIES.get(binaryType) : objectMapper.getFactory();
+        try (JsonGenerator generator = factory.createGenerator(response.getOutputStream())) {
+            objectMapper.writer(new ArticleFieldFilter(articleFields)).writeValue(generator, ModelConverter.convert(dbArticle));
         }
-        return response;
     }
 
     /**
      * Get a List of {@link RsArticle}s by a given authorId.
      *
      * @param   authorId    an author.id
-     * @return  an {@link RsArticle} List
+     * @param   webRequest  the request, for the conditional headers
+     * @return  an {@link RsArticle} List, <code>null</code> if not modified
      */
     @GetMapping( value = "/author/{authorId}" )
-    public @ResponseBody List<RsArticle> getArticlesByAuthor(final @PathVariable("authorId") Long authorId) {
+    public @ResponseBody List<RsArticle> getArticlesByAuthor(final @PathVariable("authorId") Long authorId,
+            final WebRequest webRequest) {
 
+        if (isConditional(webRequest) && isNotModified(webRequest, articleService.findVersionByAuthorId(authorId))) {
+            return null;
+        }
         final List<Article> articles = articleService.findByAuthorId(authorId);
-        return ModelConverter.convertArticles(articles);
+        return convertIfModified(webRequest, articles);
+    }
+
+    /**
+     * Sparse variant of {@link #getArticlesByAuthor(Long, WebRequest)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param   authorId    an author.id
+     * @param   fields      comma separated property names, e.g. <code>id,headline</code>
+     * @param   webRequest  the request, for the conditional headers
+     * @return  the {@link RsArticle} List limited to the fields, <code>null</code> if not modified
+     */
+    @GetMapping( value = "/author/{authorId}", params = { FIELDS_PARAM, "!view" } )
+    public @ResponseBody MappingJacksonValue getArticleFieldsByAuthor(final @PathVariable("authorId") Long authorId,
+            final @RequestParam(FIELDS_PARAM) String fields, final WebRequest webRequest) {
+
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        if (isConditional(webRequest) && isNotModified(webRequest, articleService.findVersionByAuthorId(authorId))) {
+            return null;
+        }
+        return withFields(convertIfModified(webRequest, articleService.findByAuthorId(authorId, articleFields)),
+                articleFields);
+    }
+
+    /**
+     * Summary variant of {@link #getArticlesByAuthor(Long, WebRequest)},
+     * selected by <code>?view=summary</code>: no mainText.
+     *
+     * @param   authorId    an author.id
+     * @param   webRequest  the request, for the conditional headers
+     * @return  an {@link RsArticleSummary} List, <code>null</code> if not modified
+     */
+    @GetMapping( value = "/author/{authorId}", params = SUMMARY_VIEW )
+    public @ResponseBody List<RsArticleSummary> getArticleSummariesByAuthor(final @PathVariable("authorId") Long authorId,
+            final WebRequest webRequest) {
+
+        if (isConditional(webRequest) && isNotModified(webRequest, articleService.findVersionByAuthorId(authorId))) {
+            return null;
+        }
+        return convertSummariesIfModified(webRequest, articleService.findSummariesByAuthorId(authorId));
+    }
+
+    /**
+     * Streams the {@link RsArticle}s of the given author as newline delimited
+     * JSON, see {@link #getArticlesByAuthor(Long, WebRequest)}.
+     *
+     * @param   authorId    an author.id
+     * @param   response    the response to stream into
+     * @throws  IOException if the client went away
+     */
+    @GetMapping( value = "/author/{authorId}", produces = APPLICATION_NDJSON_VALUE )
+    public void streamArticlesByAuthor(final @PathVariable("authorId") Long authorId,
+            final HttpServletResponse response) throws IOException {
+
+        writeNdjson(response, (consumer) -> articleService.streamByAuthorId(authorId, consumer));
+    }
+
+    /**
+     * Sparse variant of {@link #streamArticlesByAuthor(Long, HttpServletResponse)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param   authorId    an author.id
+     * @param   fields      comma separated property names, e.g. <code>id,headline</code>
+     * @param   response    the response to stream into
+     * @throws  IOException if the client went away
+     */
+    @GetMapping( value = "/author/{authorId}", params = FIELDS_PARAM, produces = APPLICATION_NDJSON_VALUE )
+    public void streamArticleFieldsByAuthor(final @PathVariable("authorId") Long authorId,
+            final @RequestParam(FIELDS_PARAM) String fields, final HttpServletResponse response) throws IOException {
+
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        writeNdjson(response, articleFields,
+                (consumer) -> articleService.streamByAuthorId(authorId, articleFields, consumer));
     }
 
     /**
@@ -164,39 +729,588 @@ public class ArticlesController {
      *
      * @param fromDate  start-Date, mandatory parameter
      * @param toDate    end-Date, mandatory parameter
+     * @param webRequest    the request, for the conditional headers
      *
-     * @return  an {@link RsArticle} List
+     * @return  an {@link RsArticle} List, <code>null</code> if not modified
      */
     @GetMapping( value = "/date/{from}/{to}" )
     public @ResponseBody List<RsArticle> getArticlesByDateRange(
             final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
-            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate) {
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final WebRequest webRequest) {
 
         List<RsArticle> result;
 
         if (fromDate.isBefore(toDate)) {
-
+            if (isConditional(webRequest)
+                    && isNotModified(webRequest, articleService.findVersionByDateRange(fromDate, toDate))) {
+                return null;
+            }
             final List<Article> articles = articleService.findByDateRange(fromDate, toDate);
-            result = ModelConverter.convertArticles(articles);
+            result = convertIfModified(webRequest, articles);
         } else {
             throw new IllegalArgumentException("First Date has to be before the second one!");
         }
         return result;
     }
 
+    /**
+     * Sparse variant of {@link #getArticlesByDateRange(LocalDate, LocalDate, WebRequest)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @param fields    comma separated property names, e.g. <code>id,headline</code>
+     * @param webRequest    the request, for the conditional headers
+     * @return  the {@link RsArticle} List limited to the fields, <code>null</code> if not modified
+     */
+    @GetMapping( value = "/date/{from}/{to}", params = { FIELDS_PARAM, "!limit", "!view" } )
+    public @ResponseBody MappingJacksonValue getArticleFieldsByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final @RequestParam(FIELDS_PARAM) String fields, final WebRequest webRequest) {
+
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        if (isConditional(webRequest)
+                && isNotModified(webRequest, articleService.findVersionByDateRange(fromDate, toDate))) {
+            return null;
+        }
+        return withFields(convertIfModified(webRequest, articleService.findByDateRange(fromDate, toDate, articleFields)),
+                articleFields);
+    }
+
+    /**
+     * Summary variant of {@link #getArticlesByDateRange(LocalDate, LocalDate, WebRequest)},
+     * selected by <code>?view=summary</code>: no mainText. Paged requests
+     * keep the full representation.
+     *
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @param webRequest    the request, for the conditional headers
+     * @return  an {@link RsArticleSummary} List, <code>null</code> if not modified
+     */
+    @GetMapping( value = "/date/{from}/{to}", params = { SUMMARY_VIEW, "!limit" } )
+    public @ResponseBody List<RsArticleSummary> getArticleSummariesByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final WebRequest webRequest) {
+
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        if (isConditional(webRequest)
+                && isNotModified(webRequest, articleService.findVersionByDateRange(fromDate, toDate))) {
+            return null;
+        }
+        return convertSummariesIfModified(webRequest, articleService.findSummariesByDateRange(fromDate, toDate));
+    }
+
+    /**
+     * Streams the {@link RsArticle}s of the date range as newline delimited
+     * JSON, see {@link #getArticlesByDateRange(LocalDate, LocalDate, WebRequest)}.
+     *
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @param response  the response to stream into
+     * @throws IOException if the client went away
+     */
+    @GetMapping( value = "/date/{from}/{to}", produces = APPLICATION_NDJSON_VALUE )
+    public void streamArticlesByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final HttpServletResponse response) throws IOException {
+
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        writeNdjson(response, (consumer) -> articleService.streamByDateRange(fromDate, toDate, consumer));
+    }
+
+    /**
+     * Sparse variant of {@link #streamArticlesByDateRange(LocalDate, LocalDate, HttpServletResponse)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @param fields    comma separated property names, e.g. <code>id,headline</code>
+     * @param response  the response to stream into
+     * @throws IOException if the client went away
+     */
+    @GetMapping( value = "/date/{from}/{to}", params = FIELDS_PARAM, produces = APPLICATION_NDJSON_VALUE )
+    public void streamArticleFieldsByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final @RequestParam(FIELDS_PARAM) String fields, final HttpServletResponse response) throws IOException {
+
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        writeNdjson(response, articleFields,
+                (consumer) -> articleService.streamByDateRange(fromDate, toDate, articleFields, consumer));
+    }
+
+    /**
+     * Keyset-paginated variant of the date-range listing, ordered by
+     * publishedOn and id. Every page costs the same, no matter how deep the
+     * client pages.
+     *
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @param limit     page size, 1 - {@value #MAX_PAGE_SIZE}
+     * @param next      the <code>next</code> token of the previous page, omit for the first page
+     *
+     * @return  an {@link RsArticlePage}
+     */
+    @GetMapping( value = "/date/{from}/{to}", params = "limit" )
+    public @ResponseBody RsArticlePage getArticlePageByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final @RequestParam("limit") int limit,
+            final @RequestParam(value = "next", required = false) String next) {
+
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit has to be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        final ArticleCursor after = next == null ? null : ArticleCursor.decode(next);
+        // fetch one more than requested to know whether there is a next page
+        return pageOf(articleService.findByDateRange(fromDate, toDate, after, limit + 1), limit);
+    }
+
+    /**
+     * Sparse variant of {@link #getArticlePageByDateRange(LocalDate, LocalDate, int, String)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param fromDate  start-Date, mandatory parameter
+     * @param toDate    end-Date, mandatory parameter
+     * @param limit     page size, 1 - {@value #MAX_PAGE_SIZE}
+     * @param next      the <code>next</code> token of the previous page, omit for the first page
+     * @param fields    comma separated property names, e.g. <code>id,headline</code>
+     *
+     * @return  an {@link RsArticlePage}, the articles limited to the fields
+     */
+    @GetMapping( value = "/date/{from}/{to}", params = { "limit", FIELDS_PARAM } )
+    public @ResponseBody MappingJacksonValue getArticleFieldsPageByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final @RequestParam("limit") int limit,
+            final @RequestParam(value = "next", required = false) String next,
+            final @RequestParam(FIELDS_PARAM) String fields) {
+
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit has to be between 1 and " + MAX_PAGE_SIZE);
+        }
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+
+        final ArticleCursor after = next == null ? null : ArticleCursor.decode(next);
+        return withFields(pageOf(articleService.findByDateRange(fromDate, toDate, after, limit + 1, articleFields), limit),
+                articleFields);
+    }
+
     /**
      * Search the {@link Keyword}.name attribute, return the suitable Articles.
      *
      * @param searchKeyword     the keyword.name
-     * @return  an {@link RsArticle} List
+     * @param webRequest        the request, for the conditional headers
+     * @return  an {@link RsArticle} List, <code>null</code> if not modified
      */
     @GetMapping( value = "/search/{searchKeyword}" )
-    public @ResponseBody List<RsArticle> getArticlesByKeyword(final @PathVariable("searchKeyword") String searchKeyword) {
+    public @ResponseBody List<RsArticle> getArticlesByKeyword(final @PathVariable("searchKeyword") String searchKeyword,
+            final WebRequest webRequest) {
 
+        if (isConditional(webRequest)
+                && isNotModified(webRequest, articleService.findVersionByKeywordName(searchKeyword))) {
+            return null;
+        }
         final List<Article> articles = articleService.findByKeywordName(searchKeyword);
+        return convertIfModified(webRequest, articles);
+    }
+
+    /**
+     * Sparse variant of {@link #getArticlesByKeyword(String, WebRequest)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param searchKeyword     the keyword.name
+     * @param fields            comma separated property names, e.g. <code>id,headline</code>
+     * @param webRequest        the request, for the conditional headers
+     * @return  the {@link RsArticle} List limited to the fields, <code>null</code> if not modified
+     */
+    @GetMapping( value = "/search/{searchKeyword}", params = { FIELDS_PARAM, "!view" } )
+    public @ResponseBody MappingJacksonValue getArticleFieldsByKeyword(
+            final @PathVariable("searchKeyword") String searchKeyword,
+            final @RequestParam(FIELDS_PARAM) String fields, final WebRequest webRequest) {
+
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        if (isConditional(webRequest)
+                && isNotModified(webRequest, articleService.findVersionByKeywordName(searchKeyword))) {
+            return null;
+        }
+        return withFields(convertIfModified(webRequest, articleService.findByKeywordName(searchKeyword, articleFields)),
+                articleFields);
+    }
+
+    /**
+     * Summary variant of {@link #getArticlesByKeyword(String, WebRequest)},
+     * selected by <code>?view=summary</code>: no mainText.
+     *
+     * @param searchKeyword     the keyword.name
+     * @param webRequest        the request, for the conditional headers
+     * @return  an {@link RsArticleSummary} List, <code>null</code> if not modified
+     */
+    @GetMapping( value = "/search/{searchKeyword}", params = SUMMARY_VIEW )
+    public @ResponseBody List<RsArticleSummary> getArticleSummariesByKeyword(
+            final @PathVariable("searchKeyword") String searchKeyword, final WebRequest webRequest) {
+
+        if (isConditional(webRequest)
+                && isNotModified(webRequest, articleService.findVersionByKeywordName(searchKeyword))) {
+            return null;
+        }
+        return convertSummariesIfModified(webRequest, articleService.findSummariesByKeywordName(searchKeyword));
+    }
+
+    /**
+     * Streams the {@link RsArticle}s with the given keyword as newline
+     * delimited JSON, see {@link #getArticlesByKeyword(String, WebRequest)}.
+     *
+     * @param searchKeyword     the keyword.name
+     * @param response          the response to stream into
+     * @throws IOException      if the client went away
+     */
+    @GetMapping( value = "/search/{searchKeyword}", produces = APPLICATION_NDJSON_VALUE )
+    public void streamArticlesByKeyword(final @PathVariable("searchKeyword") String searchKeyword,
+            final HttpServletResponse response) throws IOException {
+
+        writeNdjson(response, (consumer) -> articleService.streamByKeywordName(searchKeyword, consumer));
+    }
+
+    /**
+     * Sparse variant of {@link #streamArticlesByKeyword(String, HttpServletResponse)},
+     * selected by <code>?fields=</code>.
+     *
+     * @param searchKeyword     the keyword.name
+     * @param fields            comma separated property names, e.g. <code>id,headline</code>
+     * @param response          the response to stream into
+     * @throws IOException      if the client went away
+     */
+    @GetMapping( value = "/search/{searchKeyword}", params = FIELDS_PARAM, produces = APPLICATION_NDJSON_VALUE )
+    public void streamArticleFieldsByKeyword(final @PathVariable("searchKeyword") String searchKeyword,
+            final @RequestParam(FIELDS_PARAM) String fields, final HttpServletResponse response) throws IOException {
+
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        writeNdjson(response, articleFields,
+                (consumer) -> articleService.streamByKeywordName(searchKeyword, articleFields, consumer));
+    }
+
+    /**
+     * Full-text search over headline, description and mainText, ranked by
+     * relevance.
+     *
+     * @param query     free text, e.g. <code>nahverkehr berlin</code>
+     * @param limit     max. number of results, 1 - {@value #MAX_PAGE_SIZE}
+     * @return  an {@link RsArticle} List, best match first; 503 while the
+     *          index is built, after a start
+     */
+    @GetMapping( value = "/fulltext" )
+    public @ResponseBody List<RsArticle> searchFulltext(final @RequestParam("q") String query,
+            final @RequestParam(value = "limit", defaultValue = "" + DEFAULT_FULLTEXT_LIMIT) int limit) {
+
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("q must not be empty");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit has to be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ModelConverter.convertArticles(articleService.findByFulltext(query, limit));
+    }
+
+    /**
+     * Sparse variant of {@link #searchFulltext(String, int)}, selected by
+     * <code>?fields=</code>.
+     *
+     * @param query     free text, e.g. <code>nahverkehr berlin</code>
+     * @param limit     max. number of results, 1 - {@value #MAX_PAGE_SIZE}
+     * @param fields    comma separated property names, e.g. <code>id,headline</code>
+     * @return  the {@link RsArticle} List limited to the fields, best match first
+     */
+    @GetMapping( value = "/fulltext", params = FIELDS_PARAM )
+    public @ResponseBody MappingJacksonValue searchFulltextFields(final @RequestParam("q") String query,
+            final @RequestParam(value = "limit", defaultValue = "" + DEFAULT_FULLTEXT_LIMIT) int limit,
+            final @RequestParam(FIELDS_PARAM) String fields) {
+
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("q must not be empty");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit has to be between 1 and " + MAX_PAGE_SIZE);
+        }
+        final Set<ArticleField> articleFields = ArticleField.parse(fields);
+        return withFields(ModelConverter.convertArticles(articleService.findByFulltext(query, limit, articleFields)),
+                articleFields);
+    }
+
+    /**
+     * Exports all articles, ordered by id, straight from the database, see
+     * {@link ArticleExporter}; gzipped if the client accepts it. With
+     * <code>since</code> only the articles updated or deleted after it are
+     * exported, the deleted ones as their id and deletedOn only; deletes are
+     * kept <code>purge.retention</code> ms, an older <code>since</code> is a 400.
+     *
+     * @param format            <code>ndjson</code> (default) or <code>csv</code>
+     * @param since             optional, ISO-8601 date-time, e.g. '2016-12-12T10:15:30'
+     * @param acceptEncoding    the Accept-Encoding header
+     * @param response          the response to stream into
+     * @throws IOException if the client went away
+     */
+    @GetMapping( value = "/export", produces = { APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE } )
+    public void exportArticles(final @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            final @RequestParam(value = "since", required = false) @DateTimeFormat(iso=ISO.DATE_TIME) LocalDateTime since,
+            final @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            final HttpServletResponse response) throws IOException {
+
+        final boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("format has to be ndjson or csv");
+        }
+        articleExporter.checkSince(since);
+        response.setContentType(csv ? TEXT_CSV_VALUE : APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=articles." + (csv ? "csv" : "ndjson"));
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+                ArticleExportWriter rows = csv ? ArticleExportWriter.csv(writer)
+                        : ArticleExportWriter.ndjson(objectMapper.getFactory(), writer)) {
+            articleExporter.export(since, (row) -> {
+                try {
+                    rows.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Converts and writes every {@link Article} the source hands out as one
+     * line of JSON. Nothing but the current article is held in memory; the
+     * first article is flushed right away to get the first byte out fast.
+     */
+    private void writeNdjson(final HttpServletResponse response, final Consumer<Consumer<Article>> source)
+            throws IOException {
+        writeNdjson(response, null, source);
+    }
+
+    /**
+     * @param fields    the fields to write, <code>null</code> for all
+     * @see #writeNdjson(HttpServletResponse, Consumer)
+     */
+    private void writeNdjson(final HttpServletResponse response, final Set<ArticleField> fields,
+            final Consumer<Consumer<Article>> source) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        final ObjectWriter unfiltered = objectMapper.writerFor(RsArticle.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final ObjectWriter writer = fields == null ? unfiltered : unfiltered.with(new ArticleFieldFilter(fields));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            final int[] written = { 0 };
+            source.accept((article) -> {
+                try {
+                    writer.writeValue(generator, ModelConverter.convert(article));
+                    generator.writeRaw('\n');
+                    if (written[0]++ % NDJSON_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sets ETag and Last-Modified of the loaded articles and converts them,
+     * unless the client's copy is still current. The version is computed
+     * the same way as the version lookups of the {@link ArticleService} do.
+     */
+    private static List<RsArticle> convertIfModified(final WebRequest webRequest, final List<Article> articles) {
+        if (isNotModified(webRequest, versionOf(articles, Article::getUpdatedOn))) {
+            return null;
+        }
         return ModelConverter.convertArticles(articles);
     }
 
+    /**
+     * @see #convertIfModified(WebRequest, List)
+     */
+    private static List<RsArticleSummary> convertSummariesIfModified(final WebRequest webRequest,
+            final List<ArticleSummary> summaries) {
+        if (isNotModified(webRequest, versionOf(summaries, ArticleSummary::getUpdatedOn))) {
+            return null;
+        }
+        return ModelConverter.convertSummaries(summaries);
+    }
+
+    static <T> ArticleVersion versionOf(final List<T> articles, final Function<T, LocalDateTime> updatedOn) {
+        LocalDateTime lastModified = null;
+        for (T article : articles) {
+            final LocalDateTime articleUpdatedOn = updatedOn.apply(article);
+            if (lastModified == null || (articleUpdatedOn != null && articleUpdatedOn.isAfter(lastModified))) {
+                lastModified = articleUpdatedOn;
+            }
+        }
+        return new ArticleVersion(lastModified, (long) articles.size());
+    }
+
+    /**
+     * Cuts the one article fetched beyond the limit and turns it into the
+     * <code>next</code> token.
+     */
+    private static RsArticlePage pageOf(final List<Article> articles, final int limit) {
+        List<Article> page = articles;
+        String nextToken = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            nextToken = ArticleCursor.after(page.get(limit - 1)).encode();
+        }
+        return new RsArticlePage(ModelConverter.convertArticles(page), nextToken);
+    }
+
+    /**
+     * @return  the value, serialized with only the given fields of its articles; <code>null</code> if it is
+     */
+    private static MappingJacksonValue withFields(final Object value, final Set<ArticleField> fields) {
+        if (value == null) {
+            return null;
+        }
+        final MappingJacksonValue filtered = new MappingJacksonValue(value);
+        filtered.setFilters(new ArticleFieldFilter(fields));
+        return filtered;
+    }
+
+    private static boolean isConditional(final WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * @see #isNotModified(WebRequest, ArticleVersion, String)
+     */
+    private static boolean isNotModified(final WebRequest webRequest, final ArticleVersion version) {
+        return isNotModified(webRequest, version, variantOf(webRequest.getHeader(HttpHeaders.ACCEPT)));
+    }
+
+    /**
+     * Sets ETag and Last-Modified from the version and checks the
+     * conditional headers against it; a 304 status is set if not modified.
+     *
+     * @param variant   the representation, see {@link #variantOf(String, boolean)}
+     */
+    private static boolean isNotModified(final WebRequest webRequest, final ArticleVersion version,
+            final String variant) {
+        return version != null
+                && webRequest.checkNotModified(version.getETag(variant), version.getLastModifiedMillis());
+    }
+
+    /**
+     * @param accept    the Accept header
+     * @return  the ETag variant of the representation the message converters select
+     */
+    static String variantOf(final String accept) {
+        return variantOf(binaryTypeOf(accept), false);
+    }
+
+    /**
+     * @param binaryType    Smile or CBOR, <code>null</code> for JSON
+     * @param gzip          whether the JSON is gzipped
+     * @return  <code>smile</code>, <code>cbor</code>, <code>gz</code> or <code>null</code> for plain JSON
+     */
+    static String variantOf(final String binaryType, final boolean gzip) {
+        if (binaryType != null) {
+            return APPLICATION_SMILE_VALUE.equals(binaryType) ? "smile" : "cbor";
+        }
+        return gzip ? "gz" : null;
+    }
+
+    /**
+     * @return  Smile or CBOR if the client prefers one of them to JSON, else <code>null</code>
+     */
+    private static String binaryTypeOf(final String accept) {
+        if (accept == null) {
+            return null;
+        }
+        final List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (String binaryType : BINARY_FACTORIES.keySet()) {
+                if (type.isCompatibleWith(MediaType.valueOf(binaryType))) {
+                    return binaryType;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @ExceptionHandler(IngestRejectedException.class)
+    public ResponseEntity<String> handleIngestRejectedException(IngestRejectedException e) {
+        log.info("----------------- " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(INGEST_RETRY_AFTER_SECONDS))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(IndexNotReadyException.class)
+    public ResponseEntity<String> handleIndexNotReadyException(IndexNotReadyException e) {
+        log.info("----------------- " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(INDEX_RETRY_AFTER_SECONDS))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.info("----------------- " + e.getMessage());
+        return new ResponseEntity<>("The article was changed meanwhile, reload it and try again.", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) throws Exception {
 	return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
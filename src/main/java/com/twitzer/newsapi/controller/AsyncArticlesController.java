@@ -0,0 +1,226 @@
+package com.twitzer.newsapi.controller;
+
+import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.PatchArticle;
+import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.model.UpdateArticle;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
+import com.twitzer.newsapi.service.ArticleService;
+
+import java.time.LocalDate;
+import java.util.List;
+import javax.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Non-blocking variants of the {@link ArticlesController} endpoints: the
+ * Tomcat thread is released right away, the work is done by the
+ * {@link Bulkhead} of the endpoint's class, so slow date-range scans can't
+ * starve point lookups or writes. A saturated or timed out pool is answered
+ * with 503 and a Retry-After.
+ * <p>
+ * The tasks don't touch request or response; conditional GETs are answered
+ * from the ETag and Last-Modified of the returned entity.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@RestController
+@RequestMapping(
+        value = "/async/articles",
+        produces = { "application/json", ArticlesController.APPLICATION_SMILE_VALUE, ArticlesController.APPLICATION_CBOR_VALUE },
+        consumes = { "application/json", ArticlesController.APPLICATION_SMILE_VALUE, ArticlesController.APPLICATION_CBOR_VALUE }
+)
+public class AsyncArticlesController {
+
+    /** seconds a client should wait after a 503 of a {@link Bulkhead}. */
+    static final int RETRY_AFTER_SECONDS = 1;
+
+    private final ArticlesController articlesController;
+
+    private final ArticleService articleService;
+
+    private final Bulkhead lookup;
+
+    private final Bulkhead query;
+
+    private final Bulkhead write;
+
+    @Autowired
+    public AsyncArticlesController(final ArticlesController articlesController, final ArticleService articleService,
+            final @Qualifier("lookupBulkhead") Bulkhead lookup, final @Qualifier("queryBulkhead") Bulkhead query,
+            final @Qualifier("writeBulkhead") Bulkhead write) {
+        this.articlesController = articlesController;
+        this.articleService = articleService;
+        this.lookup = lookup;
+        this.query = query;
+        this.write = write;
+    }
+
+    /**
+     * @see ArticlesController#getArticle
+     */
+    @GetMapping( value = "/{articleId}" )
+    public DeferredResult<ResponseEntity<?>> getArticle(final @PathVariable("articleId") Long articleId,
+            final @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final String variant = ArticlesController.variantOf(accept);
+        return lookup.submit(() -> {
+            final Article article = articleService.findOne(articleId);
+            if (article == null) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return versioned(ArticleVersion.of(article), variant, ModelConverter.convert(article));
+        });
+    }
+
+    /**
+     * @see ArticlesController#getArticlesByAuthor
+     */
+    @GetMapping( value = "/author/{authorId}" )
+    public DeferredResult<ResponseEntity<?>> getArticlesByAuthor(final @PathVariable("authorId") Long authorId,
+            final @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final String variant = ArticlesController.variantOf(accept);
+        return query.submit(() -> versioned(articleService.findByAuthorId(authorId), variant));
+    }
+
+    /**
+     * @see ArticlesController#getArticlesByDateRange
+     */
+    @GetMapping( value = "/date/{from}/{to}" )
+    public DeferredResult<ResponseEntity<?>> getArticlesByDateRange(
+            final @PathVariable("from") @DateTimeFormat(iso=ISO.DATE) LocalDate fromDate,
+            final @PathVariable("to") @DateTimeFormat(iso=ISO.DATE) LocalDate toDate,
+            final @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (!fromDate.isBefore(toDate)) {
+            throw new IllegalArgumentException("First Date has to be before the second one!");
+        }
+        final String variant = ArticlesController.variantOf(accept);
+        return query.submit(() -> versioned(articleService.findByDateRange(fromDate, toDate), variant));
+    }
+
+    /**
+     * @see ArticlesController#getArticlesByKeyword
+     */
+    @GetMapping( value = "/search/{searchKeyword}" )
+    public DeferredResult<ResponseEntity<?>> getArticlesByKeyword(
+            final @PathVariable("searchKeyword") String searchKeyword,
+            final @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final String variant = ArticlesController.variantOf(accept);
+        return query.submit(() -> versioned(articleService.findByKeywordName(searchKeyword), variant));
+    }
+
+    /**
+     * @see ArticlesController#searchFulltext
+     */
+    @GetMapping( value = "/fulltext" )
+    public DeferredResult<ResponseEntity<?>> searchFulltext(final @RequestParam("q") String query,
+            final @RequestParam(value = "limit", defaultValue = "" + ArticlesController.DEFAULT_FULLTEXT_LIMIT) int limit) {
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("q must not be empty");
+        }
+        if (limit < 1 || limit > ArticlesController.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit has to be between 1 and " + ArticlesController.MAX_PAGE_SIZE);
+        }
+        return this.query.submit(() -> ResponseEntity.ok(
+                ModelConverter.convertArticles(articleService.findByFulltext(query, limit))));
+    }
+
+    /**
+     * @see ArticlesController#createArticle
+     */
+    @PutMapping( value = "/")
+    public DeferredResult<ResponseEntity<?>> createArticle(final @RequestBody @Valid CreateArticle newArticle,
+            final BindingResult validationResult,
+            final @RequestHeader(value = ArticlesController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return write.submit(() -> articlesController.createArticle(newArticle, validationResult, idempotencyKey, null));
+    }
+
+    /**
+     * @see ArticlesController#updateArticle
+     */
+    @PostMapping( value = "/{articleId}" )
+    public DeferredResult<ResponseEntity<?>> updateArticle(final @PathVariable("articleId") Long articleId,
+            @RequestBody @Valid UpdateArticle updateArticle, final BindingResult validationResult) {
+        return write.submit(() -> articlesController.updateArticle(articleId, updateArticle, validationResult));
+    }
+
+    /**
+     * @see ArticlesController#patchArticle
+     */
+    @PatchMapping( value = "/{articleId}" )
+    public DeferredResult<ResponseEntity<?>> patchArticle(final @PathVariable("articleId") Long articleId,
+            @RequestBody @Valid PatchArticle patchArticle, final BindingResult validationResult) {
+        return write.submit(() -> articlesController.patchArticle(articleId, patchArticle, validationResult));
+    }
+
+    /**
+     * @see ArticlesController#deleteArticle
+     */
+    @DeleteMapping( value = "/{articleId}" )
+    public DeferredResult<ResponseEntity<?>> deleteArticle(final @PathVariable("articleId") Long articleId) {
+        return write.submit(() -> articlesController.deleteArticle(articleId));
+    }
+
+    private static ResponseEntity<List<RsArticle>> versioned(final List<Article> articles, final String variant) {
+        return versioned(ArticlesController.versionOf(articles, Article::getUpdatedOn), variant,
+                ModelConverter.convertArticles(articles));
+    }
+
+    /**
+     * A 200 with ETag and Last-Modified, turned into a 304 by Spring MVC if
+     * the client's copy is current.
+     *
+     * @param variant   the representation, see {@link ArticlesController#variantOf(String)}
+     */
+    private static <T> ResponseEntity<T> versioned(final ArticleVersion version, final String variant, final T body) {
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(version.getETag(variant));
+        if (version.getLastModifiedMillis() >= 0) {
+            builder.lastModified(version.getLastModifiedMillis());
+        }
+        return builder.body(body);
+    }
+
+    @ExceptionHandler(BulkheadRejectedException.class)
+    public ResponseEntity<String> handleBulkheadRejectedException(BulkheadRejectedException e) {
+        log.info("----------------- " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return articlesController.handleOptimisticLockingFailureException(e);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) throws Exception {
+        return articlesController.handleIllegalArgumentException(e);
+    }
+
+}
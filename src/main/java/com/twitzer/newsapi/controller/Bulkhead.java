@@ -0,0 +1,149 @@
+package com.twitzer.newsapi.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * A bounded pool of its own for one class of requests, so a burst of slow
+ * requests of one class can't take the threads of the others. At most
+ * <code>threads</code> tasks run and <code>queueCapacity</code> wait; further
+ * ones are rejected right away with a {@link BulkheadRejectedException}, and
+ * a task not done within <code>timeoutMillis</code> fails with one.
+ * <p>
+ * The tasks must not touch the request or the response: a task outliving
+ * its timeout would write to a response that has been completed already.
+ *
+ * @author jschulz
+ */
+@Slf4j
+public class Bulkhead {
+
+    private final String name;
+
+    private final int threads;
+
+    private final int queueCapacity;
+
+    private final long timeoutMillis;
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param name              the name, used for the threads and the metrics
+     * @param threads           max. number of tasks running at the same time
+     * @param queueCapacity     max. number of tasks waiting, 0 for none
+     * @param timeoutMillis     max. time from submit to result
+     */
+    public Bulkhead(final String name, final int threads, final int queueCapacity, final long timeoutMillis) {
+        this(name, threads, queueCapacity, timeoutMillis, new CustomizableThreadFactory("bulkhead-" + name + "-"));
+    }
+
+    /**
+     * @param name              the name, used for the metrics
+     * @param threads           max. number of tasks running at the same time
+     * @param queueCapacity     max. number of tasks waiting, 0 for none
+     * @param timeoutMillis     max. time from submit to result
+     * @param threadFactory     creates the threads, e.g. virtual ones
+     */
+    public Bulkhead(final String name, final int threads, final int queueCapacity, final long timeoutMillis,
+            final ThreadFactory threadFactory) {
+        this.name = name;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        final BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the task in the pool.
+     *
+     * @param task  computes the result, off the request thread
+     * @return  the result for Spring MVC to complete the request with
+     * @throws BulkheadRejectedException if all threads are busy and the queue is full
+     */
+    public <T> DeferredResult<T> submit(final Callable<T> task) {
+        final DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        final Future<?> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    result.setResult(task.call());
+                } catch (Exception e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BulkheadRejectedException("the " + name + " pool is saturated, " + threads + " running, "
+                    + queueCapacity + " waiting");
+        }
+        result.onTimeout(() -> {
+            timeouts.increment();
+            // a task that didn't start yet frees its place; a running one isn't interrupted
+            future.cancel(false);
+            log.info("----------------- {} task timed out after {} ms", name, timeoutMillis);
+            result.setErrorResult(new BulkheadRejectedException("the " + name + " pool didn't answer within "
+                    + timeoutMillis + " ms"));
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return  the occupied share of threads and queue in percent; 100 means new tasks are rejected
+     */
+    public int getSaturation() {
+        return (int) ((executor.getActiveCount() + executor.getQueue().size()) * 100L / (threads + queueCapacity));
+    }
+
+    /**
+     * Metrics for the actuator <code>/metrics</code> endpoint, e.g.
+     * <code>bulkhead.lookup.saturation</code>.
+     */
+    public Collection<Metric<?>> metrics() {
+        final Collection<Metric<?>> metrics = new ArrayList<>();
+        final String prefix = "bulkhead." + name + ".";
+        metrics.add(new Metric<>(prefix + "threads", threads));
+        metrics.add(new Metric<>(prefix + "active", executor.getActiveCount()));
+        metrics.add(new Metric<>(prefix + "queue-capacity", queueCapacity));
+        metrics.add(new Metric<>(prefix + "queued", executor.getQueue().size()));
+        metrics.add(new Metric<>(prefix + "saturation", getSaturation()));
+        metrics.add(new Metric<>(prefix + "completed", executor.getCompletedTaskCount()));
+        metrics.add(new Metric<>(prefix + "rejected", rejected.sum()));
+        metrics.add(new Metric<>(prefix + "timeouts", timeouts.sum()));
+        return metrics;
+    }
+
+    /**
+     * Stops the threads, waiting shortly for the running tasks.
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
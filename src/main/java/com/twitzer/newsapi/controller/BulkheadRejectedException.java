@@ -0,0 +1,16 @@
+package com.twitzer.newsapi.controller;
+
+/**
+ * Thrown if a {@link Bulkhead} can't take more tasks right now, or didn't
+ * answer in time; the client should retry later.
+ *
+ * @author jschulz
+ */
+public class BulkheadRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = -2093573829184719467L;
+
+    public BulkheadRejectedException(final String message) {
+        super(message);
+    }
+}
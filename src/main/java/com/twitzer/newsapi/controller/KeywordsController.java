@@ -0,0 +1,66 @@
+package com.twitzer.newsapi.controller;
+
+import com.twitzer.newsapi.search.KeywordSuggestIndex;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Handles Requests for Keywords.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@RestController
+@RequestMapping(
+        value = "/keywords",
+        produces = { "application/json" }
+)
+public class KeywordsController {
+
+    /** upper bound for the <code>limit</code> of suggestions. */
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final KeywordSuggestIndex suggestIndex;
+
+    @Autowired
+    public KeywordsController(final KeywordSuggestIndex suggestIndex) {
+        this.suggestIndex = suggestIndex;
+    }
+
+    /**
+     * Autocompletion of keyword names.
+     *
+     * @param prefix    start of the keyword name, case is ignored
+     * @param limit     max. number of suggestions, 1 - {@value #MAX_SUGGESTIONS}
+     * @return  the matching keyword names, the ones used by most articles first
+     */
+    @GetMapping( value = "/suggest" )
+    public @ResponseBody List<String> suggest(final @RequestParam("prefix") String prefix,
+            final @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        if (!StringUtils.hasText(prefix)) {
+            throw new IllegalArgumentException("prefix must not be empty");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit has to be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) throws Exception {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+}
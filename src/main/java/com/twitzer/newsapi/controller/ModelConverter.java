@@ -1,11 +1,14 @@
 package com.twitzer.newsapi.controller;
 
 import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.PatchArticle;
 import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.model.RsArticleSummary;
 import com.twitzer.newsapi.model.RsAuthor;
 import com.twitzer.newsapi.model.RsKeyword;
 import com.twitzer.newsapi.model.UpdateArticle;
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
 import com.twitzer.newsapi.repository.domain.Author;
 import com.twitzer.newsapi.repository.domain.Keyword;
 
@@ -29,6 +32,7 @@ public final class ModelConverter {
             article.setTeaserText(dbArticle.getDescription());
             article.setMainText(dbArticle.getMainText());
             article.setPublishedOn(dbArticle.getPublishedOn());
+            article.setVersion(dbArticle.getVersion());
 
             if (!CollectionUtils.isEmpty(dbArticle.getAuthors())) {
                 article.setAuthors(convertAuthors(dbArticle.getAuthors()));
@@ -76,6 +80,30 @@ public final class ModelConverter {
         return rsArticles;
     }
 
+    protected static RsArticleSummary convert(final ArticleSummary dbSummary) {
+        final RsArticleSummary summary = new RsArticleSummary();
+        summary.setId(dbSummary.getId());
+        summary.setHeadline(dbSummary.getHeadline());
+        summary.setTeaserText(dbSummary.getDescription());
+        summary.setPublishedOn(dbSummary.getPublishedOn());
+
+        if (!CollectionUtils.isEmpty(dbSummary.getAuthors())) {
+            summary.setAuthors(convertAuthors(dbSummary.getAuthors()));
+        }
+        if (!CollectionUtils.isEmpty(dbSummary.getKeywords())) {
+            summary.setKeywords(convertKeywords(dbSummary.getKeywords()));
+        }
+        return summary;
+    }
+
+    protected static List<RsArticleSummary> convertSummaries(final List<ArticleSummary> dbSummaries) {
+        final List<RsArticleSummary> rsSummaries = new ArrayList<>();
+        for (ArticleSummary summary : dbSummaries) {
+            rsSummaries.add(convert(summary));
+        }
+        return rsSummaries;
+    }
+
     /* Rest-Model to JPAs: */
     protected static Article convertToJpaArticle(final RsArticle article) {
         final Article dbArticle = new Article();
@@ -100,7 +128,10 @@ public final class ModelConverter {
         return dbArticle;
     }
 
-    protected static Article convertToJpaArticle(final CreateArticle article) {
+    /**
+     * also used by the {@link com.twitzer.newsapi.ingest.IngestQueue} workers.
+     */
+    public static Article convertToJpaArticle(final CreateArticle article) {
         final Article dbArticle = new Article();
 
         dbArticle.setDescription(article.getTeaserText());
@@ -145,6 +176,34 @@ public final class ModelConverter {
         return dbArticle;
     }
 
+    /**
+     * only the fields set in the patch are set, lists of authors or keywords
+     * included; see {@link com.twitzer.newsapi.service.ArticleService#patchArticle(Long, Article)}.
+     */
+    protected static Article convertToJpaArticle(final PatchArticle article, final Long id) {
+        final Article dbArticle = new Article();
+
+        dbArticle.setId(id);
+        dbArticle.setDescription(article.getTeaserText());
+        dbArticle.setHeadline(article.getHeadline());
+        dbArticle.setMainText(article.getMainText());
+        dbArticle.setPublishedOn(article.publishedOnAsLocalDate());
+        dbArticle.setVersion(article.getVersion());
+
+        if (article.getAuthors() != null) {
+            final List<Author> authors = new ArrayList<>();
+            article.getAuthors().forEach((author) -> authors.add(convertToJpaAuthor(author)));
+            dbArticle.setAuthors(authors);
+        }
+
+        if (article.getKeywords() != null) {
+            final List<Keyword> keywords = new ArrayList<>();
+            article.getKeywords().forEach((keyword) -> keywords.add(convertToJpaKeyword(keyword)));
+            dbArticle.setKeywords(keywords);
+        }
+        return dbArticle;
+    }
+
     protected static Author convertToJpaAuthor(final RsAuthor author) {
         final Author dbAuthor = new Author(author.getFirstname(), author.getLastname());
         dbAuthor.setId(author.getId());
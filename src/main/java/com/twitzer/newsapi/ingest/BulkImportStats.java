@@ -0,0 +1,84 @@
+package com.twitzer.newsapi.ingest;
+
+/**
+ * The outcome of a {@link BulkImporter} run.
+ *
+ * @author jschulz
+ */
+public class BulkImportStats {
+
+    private final long imported;
+
+    private final long rejected;
+
+    private final long tombstones;
+
+    private final long authors;
+
+    private final long keywords;
+
+    private final long elapsedMillis;
+
+    public BulkImportStats(long imported, long rejected, long tombstones, long authors, long keywords,
+            long elapsedMillis) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.tombstones = tombstones;
+        this.authors = authors;
+        this.keywords = keywords;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return  the number of created articles
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @return  the number of records that were invalid or failed to insert
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return  the number of skipped tombstones, records of deleted articles
+     */
+    public long getTombstones() {
+        return tombstones;
+    }
+
+    /**
+     * @return  the number of author references resolved, summed up over the chunks
+     */
+    public long getAuthors() {
+        return authors;
+    }
+
+    /**
+     * @return  the number of keyword references resolved, summed up over the chunks
+     */
+    public long getKeywords() {
+        return keywords;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return  created articles per second
+     */
+    public double getThroughput() {
+        return imported * 1000.0 / Math.max(1, elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("imported %d articles in %.1f s (%.0f articles/s), rejected %d, skipped %d tombstones, "
+                + "resolved %d authors and %d keywords",
+                imported, elapsedMillis / 1000.0, getThroughput(), rejected, tombstones, authors, keywords);
+    }
+}
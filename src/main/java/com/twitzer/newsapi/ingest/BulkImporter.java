@@ -0,0 +1,449 @@
+package com.twitzer.newsapi.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.RsAuthor;
+import com.twitzer.newsapi.model.RsKeyword;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.NaturalKeyResolver;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Loads a backfill of articles from a file, for the headless import mode of
+ * the {@link com.twitzer.newsapi.Application}.
+ * <p>
+ * The file is NDJSON with one {@link CreateArticle} per line, or CSV with a
+ * header line, both as written by <code>GET /articles/export</code>; a
+ * <code>.gz</code> suffix is decompressed on the fly. One thread reads the
+ * records and hands them out in chunks of <code>import.chunk-size</code> to
+ * <code>import.threads</code> workers. A worker parses and validates its
+ * chunk, resolves all its authors and keywords with one call each to the
+ * {@link NaturalKeyResolver}, takes the article ids from the article
+ * sequence a block at a time and writes articles and join rows with JDBC
+ * batch inserts in a transaction per chunk. Invalid records and chunks that
+ * fail to insert are counted as rejected.
+ * <p>
+ * The articles get new ids, so the tombstones of an incremental export
+ * (records with a <code>deletedOn</code>) have nothing to delete; they are
+ * skipped and counted apart from the rejected records.
+ * <p>
+ * Bypasses the {@link com.twitzer.newsapi.service.ArticleService}: no
+ * events are published and no caches touched.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class BulkImporter {
+
+    /** separates the names of several authors or keywords in a CSV field, as in the export. */
+    static final String CSV_LIST_SEPARATOR = "|";
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    /** what {@link #parse(String, Map)} returns for the tombstone of a deleted article. */
+    static final CreateArticle TOMBSTONE = new CreateArticle();
+
+    private static final String NEXT_ARTICLE_ID = "SELECT NEXT VALUE FOR " + Article.ID_SEQUENCE + " FROM DUAL";
+
+    private static final String INSERT_ARTICLE = "INSERT INTO NEWS_ARTICLE "
+            + "(ID, HEADLINE, DESCRIPTION, TEXT, PUBLISHED_ON, VERSION, CREATED_ON, UPDATED_ON) "
+            + "VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private static final String INSERT_ARTICLE_AUTHOR = "INSERT INTO NEWS_ARTICLE_AUTHOR (ARTICLE_ID, AUTHOR_ID) VALUES (?, ?)";
+
+    private static final String INSERT_ARTICLE_KEYWORD = "INSERT INTO NEWS_ARTICLE_KEYWORD (ARTICLE_ID, KEYWORD_ID) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final NaturalKeyResolver naturalKeyResolver;
+
+    private final ObjectReader articleReader;
+
+    private final int chunkSize;
+
+    private final int threads;
+
+    @Autowired
+    public BulkImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            NaturalKeyResolver naturalKeyResolver, ObjectMapper objectMapper,
+            @Value("${import.chunk-size:1000}") int chunkSize, @Value("${import.threads:0}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.naturalKeyResolver = naturalKeyResolver;
+        this.articleReader = objectMapper.readerFor(ExportedArticle.class);
+        this.chunkSize = chunkSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Imports all articles of the file, see above.
+     *
+     * @param   file    <code>*.csv</code> for CSV, else NDJSON, optionally <code>*.gz</code>
+     * @return  the numbers of the run
+     * @throws  IOException     if the file can't be read
+     */
+    public BulkImportStats importFile(final Path file) throws IOException {
+        final String name = file.getFileName().toString().toLowerCase();
+        final boolean gzip = name.endsWith(".gz");
+        final boolean csv = name.endsWith(gzip ? ".csv.gz" : ".csv");
+        log.info("----------------- import " + (csv ? "CSV" : "NDJSON") + " from: " + file);
+
+        try (InputStream in = gzip ? new GZIPInputStream(Files.newInputStream(file), 64 * 1024) : Files.newInputStream(file);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            return importRecords(reader, csv);
+        }
+    }
+
+    BulkImportStats importRecords(final BufferedReader reader, final boolean csv) throws IOException {
+        final long start = System.currentTimeMillis();
+        final Counters counters = new Counters();
+        final Map<String, Integer> columns = csv ? columnsOf(reader.readLine()) : null;
+
+        // a full queue makes the reader parse a chunk itself, so it can't run ahead of the inserts
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), new CustomizableThreadFactory("import-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String record;
+            while ((record = csv ? readCsvRecord(reader) : reader.readLine()) != null) {
+                if (record.trim().isEmpty()) {
+                    continue;
+                }
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    final List<String> records = chunk;
+                    executor.execute(() -> importChunk(records, columns, counters));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                final List<String> records = chunk;
+                executor.execute(() -> importChunk(records, columns, counters));
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        final BulkImportStats stats = new BulkImportStats(counters.imported.get(), counters.rejected.get(),
+                counters.tombstones.get(), counters.authors.get(), counters.keywords.get(),
+                System.currentTimeMillis() - start);
+        log.info("----------------- " + stats);
+        return stats;
+    }
+
+    private void importChunk(final List<String> records, final Map<String, Integer> columns, final Counters counters) {
+        final List<CreateArticle> articles = new ArrayList<>(records.size());
+        for (String record : records) {
+            final CreateArticle article = parse(record, columns);
+            if (article == null) {
+                counters.rejected.incrementAndGet();
+            } else if (article == TOMBSTONE) {
+                counters.tombstones.incrementAndGet();
+            } else {
+                articles.add(article);
+            }
+        }
+        if (articles.isEmpty()) {
+            return;
+        }
+
+        try {
+            final Set<List<String>> authorNames = new LinkedHashSet<>();
+            final Set<String> keywordNames = new LinkedHashSet<>();
+            for (CreateArticle article : articles) {
+                authorNames.addAll(authorNamesOf(article));
+                keywordNames.addAll(keywordNamesOf(article));
+            }
+            final Map<List<String>, Long> authorIds = authorNames.isEmpty() ? new HashMap<>()
+                    : naturalKeyResolver.resolveAuthors(authorNames);
+            final Map<String, Long> keywordIds = keywordNames.isEmpty() ? new HashMap<>()
+                    : naturalKeyResolver.resolveKeywords(keywordNames);
+
+            final long[] ids = allocateIds(articles.size());
+            transactionTemplate.execute((status) -> {
+                insert(articles, ids, authorIds, keywordIds);
+                return null;
+            });
+            counters.imported.addAndGet(articles.size());
+            counters.authors.addAndGet(authorNames.size());
+            counters.keywords.addAndGet(keywordNames.size());
+        } catch (RuntimeException e) {
+            log.error("----------------- import of " + articles.size() + " articles failed", e);
+            counters.rejected.addAndGet(articles.size());
+        }
+    }
+
+    private void insert(final List<CreateArticle> articles, final long[] ids,
+            final Map<List<String>, Long> authorIds, final Map<String, Long> keywordIds) {
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        final List<Object[]> articleRows = new ArrayList<>(articles.size());
+        final List<Object[]> authorRows = new ArrayList<>();
+        final List<Object[]> keywordRows = new ArrayList<>();
+        for (int i = 0; i < articles.size(); i++) {
+            final CreateArticle article = articles.get(i);
+            articleRows.add(new Object[] { ids[i], article.getHeadline(), article.getTeaserText(),
+                article.getMainText(), Date.valueOf(article.publishedOnAsLocalDate()), now, now });
+            // the join tables are unique per article
+            for (List<String> author : authorNamesOf(article)) {
+                authorRows.add(new Object[] { ids[i], authorIds.get(author) });
+            }
+            for (String keyword : keywordNamesOf(article)) {
+                keywordRows.add(new Object[] { ids[i], keywordIds.get(keyword) });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ARTICLE, articleRows);
+        if (!authorRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ARTICLE_AUTHOR, authorRows);
+        }
+        if (!keywordRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ARTICLE_KEYWORD, keywordRows);
+        }
+    }
+
+    /**
+     * Takes whole blocks from the article sequence, the way Hibernate's pooled
+     * optimizer does: a sequence value v stands for the ids
+     * (v - {@value Article#ID_ALLOCATION_SIZE}, v]. Blocks below the initial
+     * value are skipped, they belong to the seed data.
+     */
+    private long[] allocateIds(final int count) {
+        final long[] ids = new long[count];
+        int allocated = 0;
+        while (allocated < count) {
+            final long hi = jdbcTemplate.queryForObject(NEXT_ARTICLE_ID, Long.class);
+            for (long id = hi - Article.ID_ALLOCATION_SIZE + 1; id <= hi && allocated < count; id++) {
+                if (id >= Article.ID_INITIAL_VALUE) {
+                    ids[allocated++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return  the valid article, {@link #TOMBSTONE} for a deleted one, <code>null</code> if the record is
+     *          unreadable or invalid
+     */
+    CreateArticle parse(final String record, final Map<String, Integer> columns) {
+        final CreateArticle article;
+        try {
+            article = columns == null ? articleReader.readValue(record) : parseCsv(record, columns);
+        } catch (IOException | IllegalArgumentException e) {
+            log.info("----------------- import: unreadable record: " + e.getMessage());
+            return null;
+        }
+        if (article == TOMBSTONE
+                || (article instanceof ExportedArticle && ((ExportedArticle) article).getDeletedOn() != null)) {
+            return TOMBSTONE;
+        }
+        if (article == null || !VALIDATOR.validate(article).isEmpty()) {
+            log.info("----------------- import: invalid record: " + article);
+            return null;
+        }
+        return article;
+    }
+
+    private static CreateArticle parseCsv(final String record, final Map<String, Integer> columns) {
+        final List<String> fields = splitCsv(record);
+        if (StringUtils.hasText(field(fields, columns, "deletedOn"))) {
+            return TOMBSTONE;
+        }
+        final String publishedOn = field(fields, columns, "publishedOn");
+        final CreateArticle article = new CreateArticle(field(fields, columns, "headline"),
+                field(fields, columns, "teaserText"), field(fields, columns, "mainText"),
+                StringUtils.hasText(publishedOn) ? new java.util.Date(Date.valueOf(publishedOn).getTime()) : null);
+
+        final List<RsAuthor> authors = new ArrayList<>();
+        for (String author : StringUtils.delimitedListToStringArray(field(fields, columns, "authors"), CSV_LIST_SEPARATOR)) {
+            if (StringUtils.hasText(author)) {
+                // "firstname lastname", the last word is the lastname
+                final int space = author.trim().lastIndexOf(' ');
+                authors.add(new RsAuthor(null, space < 0 ? "" : author.trim().substring(0, space),
+                        author.trim().substring(space + 1)));
+            }
+        }
+        article.setAuthors(authors);
+        final List<RsKeyword> keywords = new ArrayList<>();
+        for (String keyword : StringUtils.delimitedListToStringArray(field(fields, columns, "keywords"), CSV_LIST_SEPARATOR)) {
+            if (StringUtils.hasText(keyword)) {
+                keywords.add(new RsKeyword(null, keyword.trim()));
+            }
+        }
+        article.setKeywords(keywords);
+        return article;
+    }
+
+    private static String field(final List<String> fields, final Map<String, Integer> columns, final String name) {
+        final Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static Map<String, Integer> columnsOf(final String header) throws IOException {
+        if (header == null) {
+            throw new IOException("the CSV header line is missing");
+        }
+        final Map<String, Integer> columns = new HashMap<>();
+        final List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        if (!columns.containsKey("headline")) {
+            throw new IOException("not an article CSV, header: " + header);
+        }
+        return columns;
+    }
+
+    /**
+     * Reads up to the end of the next record: a line break inside quotes
+     * belongs to the field.
+     */
+    private static String readCsvRecord(final BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        final StringBuilder record = new StringBuilder(line);
+        int quotes = count(line, '"');
+        while (quotes % 2 != 0 && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quotes += count(line, '"');
+        }
+        return record.toString();
+    }
+
+    private static int count(final String line, final char c) {
+        int count = 0;
+        for (int i = line.indexOf(c); i >= 0; i = line.indexOf(c, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * RFC 4180: fields separated by commas, quoted ones may contain commas,
+     * line breaks and doubled quotes.
+     */
+    static List<String> splitCsv(final String record) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            final char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Set<List<String>> authorNamesOf(final CreateArticle article) {
+        final Set<List<String>> names = new LinkedHashSet<>();
+        if (article.getAuthors() != null) {
+            for (RsAuthor author : article.getAuthors()) {
+                if (author == null || author.getFirstname() == null || author.getLastname() == null) {
+                    continue;
+                }
+                names.add(Arrays.asList(author.getFirstname(), author.getLastname()));
+            }
+        }
+        return names;
+    }
+
+    private static Set<String> keywordNamesOf(final CreateArticle article) {
+        final Set<String> names = new LinkedHashSet<>();
+        if (article.getKeywords() != null) {
+            for (RsKeyword keyword : article.getKeywords()) {
+                if (keyword != null && StringUtils.hasText(keyword.getName())) {
+                    names.add(keyword.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * An NDJSON record of the export, a tombstone has a <code>deletedOn</code>.
+     */
+    static class ExportedArticle extends CreateArticle {
+
+        private static final long serialVersionUID = 4160723012857326791L;
+
+        private String deletedOn;
+
+        public String getDeletedOn() {
+            return deletedOn;
+        }
+
+        public void setDeletedOn(String deletedOn) {
+            this.deletedOn = deletedOn;
+        }
+    }
+
+    private static class Counters {
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong tombstones = new AtomicLong();
+        private final AtomicLong authors = new AtomicLong();
+        private final AtomicLong keywords = new AtomicLong();
+    }
+}
@@ -0,0 +1,216 @@
+package com.twitzer.newsapi.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the items accepted by the {@link IngestQueue}, on a
+ * memory-mapped file: an accepted item is in the page cache once
+ * {@link #append(UUID, byte[])} returns, so it survives a crash of the
+ * process and is handed out again by {@link #pending()} on the next start.
+ * <p>
+ * A record is <code>length, type, ticket, payload</code>; its length is
+ * written last, a torn record reads as the end of the journal. When the file
+ * is full, the pending records are copied to a new file that atomically
+ * replaces the old one. The mapping of the old file is released right away,
+ * not when the garbage collector gets to it.
+ *
+ * @author jschulz
+ */
+@Slf4j
+class IngestJournal implements Closeable {
+
+    private static final byte ACCEPTED = 1;
+
+    private static final byte COMPLETED = 2;
+
+    /** type and ticket, following the length of each record. */
+    private static final int HEADER_SIZE = 1 + 2 * Long.BYTES;
+
+    private final Path path;
+
+    private final int size;
+
+    /** payloads of the accepted, not yet completed items, in journal order. */
+    private final Map<UUID, byte[]> pending = new LinkedHashMap<>();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    private int position;
+
+    IngestJournal(final Path path, final int size) throws IOException {
+        this.path = path;
+        this.size = size;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        open();
+        log.info("----------------- ingest journal {}: {} pending items", path, pending.size());
+    }
+
+    /**
+     * @return the payloads of the accepted, not yet completed items by ticket, in journal order
+     */
+    synchronized Map<UUID, byte[]> pending() {
+        return new LinkedHashMap<>(pending);
+    }
+
+    /**
+     * Records an accepted item.
+     *
+     * @param ticket  the ticket of the item
+     * @param payload the item
+     * @throws IngestRejectedException if the journal is full of pending items
+     */
+    synchronized void append(final UUID ticket, final byte[] payload) throws IOException {
+        if (!fits(payload.length)) {
+            compact();
+            if (!fits(payload.length)) {
+                throw new IngestRejectedException("the ingest journal is full");
+            }
+        }
+        write(ACCEPTED, ticket, payload);
+        pending.put(ticket, payload);
+    }
+
+    /**
+     * Records that an item was processed, it is not handed out again.
+     *
+     * @param ticket the ticket of the item
+     */
+    synchronized void complete(final UUID ticket) throws IOException {
+        if (pending.remove(ticket) == null) {
+            return;
+        }
+        if (fits(0)) {
+            write(COMPLETED, ticket, new byte[0]);
+        } else {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        buffer.force();
+        unmap(buffer);
+        channel.close();
+    }
+
+    /**
+     * Releases the mapping without waiting for the garbage collector, through
+     * <code>Unsafe.invokeCleaner</code> (Java 9+) or the cleaner of the buffer
+     * (Java 8). The buffer must not be used afterwards.
+     *
+     * @return  whether the mapping was released, else it is left to the garbage collector
+     */
+    static boolean unmap(final MappedByteBuffer mapped) {
+        try {
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), mapped);
+            } catch (NoSuchMethodException e) {
+                final Method cleanerMethod = mapped.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(mapped);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("----------------- couldn't unmap the ingest journal, left to the GC: " + e);
+            return false;
+        }
+    }
+
+
+    private boolean fits(final int payloadLength) {
+        return position + 2 * Integer.BYTES + HEADER_SIZE + payloadLength <= buffer.capacity();
+    }
+
+    private void write(final byte type, final UUID ticket, final byte[] payload) {
+        final ByteBuffer record = buffer.duplicate();
+        record.position(position + Integer.BYTES);
+        record.put(type).putLong(ticket.getMostSignificantBits()).putLong(ticket.getLeastSignificantBits()).put(payload);
+        buffer.putInt(position, HEADER_SIZE + payload.length);
+        position += Integer.BYTES + HEADER_SIZE + payload.length;
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        pending.clear();
+        position = 0;
+        while (position + Integer.BYTES <= buffer.capacity()) {
+            final int length = buffer.getInt(position);
+            if (length < HEADER_SIZE || position + Integer.BYTES + length > buffer.capacity()) {
+                break;
+            }
+            final ByteBuffer record = buffer.duplicate();
+            record.position(position + Integer.BYTES);
+            final byte type = record.get();
+            final UUID ticket = new UUID(record.getLong(), record.getLong());
+            if (type == ACCEPTED) {
+                final byte[] payload = new byte[length - HEADER_SIZE];
+                record.get(payload);
+                pending.put(ticket, payload);
+            } else {
+                pending.remove(ticket);
+            }
+            position += Integer.BYTES + length;
+        }
+    }
+
+    /**
+     * Copies the pending records to a new file and replaces the journal by it.
+     */
+    private void compact() throws IOException {
+        final Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<UUID, byte[]> entry : pending.entrySet()) {
+                final ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + HEADER_SIZE + entry.getValue().length);
+                record.putInt(HEADER_SIZE + entry.getValue().length).put(ACCEPTED)
+                        .putLong(entry.getKey().getMostSignificantBits())
+                        .putLong(entry.getKey().getLeastSignificantBits())
+                        .put(entry.getValue());
+                record.flip();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            out.force(true);
+        }
+        buffer.force();
+        unmap(buffer);
+        channel.close();
+        try {
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // the old journal if the move failed; the unmapped buffer is never touched again
+            open();
+        }
+        log.info("----------------- compacted ingest journal {}: {} pending items", path, pending.size());
+    }
+}
@@ -0,0 +1,346 @@
+package com.twitzer.newsapi.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twitzer.newsapi.controller.ModelConverter;
+import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.RsIngestStatus;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.ArticleService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Write-behind creation of articles: {@link #submit(CreateArticle)} returns a
+ * ticket right away, a dedicated pool of workers takes the queued items in
+ * batches of up to <code>ingest.batch-size</code> and creates them with
+ * {@link ArticleService#createArticles(List)}.
+ * <p>
+ * At most <code>ingest.queue-capacity</code> items are pending, further ones
+ * are rejected until the workers catch up. With
+ * <code>ingest.journal.path</code> set, accepted items are recorded in an
+ * {@link IngestJournal} and the ones not yet created are queued again on the
+ * next start, so they are created at least once. The status of an item is
+ * kept for {@value #STATUS_RETENTION_HOURS} hour(s).
+ * <p>
+ * Only items the database or the validation refuses fail for good. On other
+ * errors, e.g. a lost connection or a lock timeout, the items stay in the
+ * journal and are queued again after <code>ingest.retry-delay</code> ms,
+ * doubled on every further attempt up to {@value #MAX_RETRY_DELAY_MILLIS} ms.
+ * A retried item is created on its own, so one that fails deterministically,
+ * e.g. with a NullPointerException, doesn't take a batch along; after
+ * <code>ingest.max-attempts</code> it fails for good and leaves the journal.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class IngestQueue {
+
+    static final int STATUS_RETENTION_HOURS = 1;
+
+    private static final int MAX_STATUSES = 1_000_000;
+
+    static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private final ArticleService articleService;
+
+    private final ObjectMapper objectMapper;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final int workers;
+
+    private final String journalPath;
+
+    private final int journalSize;
+
+    private final long retryDelayMillis;
+
+    private final int maxAttempts;
+
+    private final BlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+
+    /** accepted, not yet processed items, including the ones taken by a worker. */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Cache<String, RsIngestStatus> statuses = Caffeine.newBuilder()
+            .maximumSize(MAX_STATUSES).expireAfterWrite(STATUS_RETENTION_HOURS, TimeUnit.HOURS).build();
+
+    private IngestJournal journal;
+
+    private ExecutorService executor;
+
+    private ScheduledExecutorService retries;
+
+    private volatile boolean stopped;
+
+    @Autowired
+    public IngestQueue(final ArticleService articleService, final ObjectMapper objectMapper,
+            @Value("${ingest.queue-capacity:10000}") final int capacity,
+            @Value("${ingest.batch-size:100}") final int batchSize,
+            @Value("${ingest.workers:2}") final int workers,
+            @Value("${ingest.journal.path:}") final String journalPath,
+            @Value("${ingest.journal.size:67108864}") final int journalSize,
+            @Value("${ingest.retry-delay:1000}") final long retryDelayMillis,
+            @Value("${ingest.max-attempts:10}") final int maxAttempts) {
+        this.articleService = articleService;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.batchSize = Math.min(batchSize, ArticleService.MAX_BATCH_SIZE);
+        this.workers = workers;
+        this.journalPath = journalPath;
+        this.journalSize = journalSize;
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Opens the journal and queues the items it has pending.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!StringUtils.hasText(journalPath)) {
+            log.info("----------------- no ingest.journal.path, queued articles are lost on a crash");
+            return;
+        }
+        journal = new IngestJournal(Paths.get(journalPath), journalSize);
+        for (Map.Entry<UUID, byte[]> item : journal.pending().entrySet()) {
+            try {
+                final CreateArticle newArticle = objectMapper.readValue(item.getValue(), CreateArticle.class);
+                pending.incrementAndGet();
+                enqueue(item.getKey(), newArticle);
+            } catch (IOException e) {
+                log.error("----------------- unreadable journal entry {}: {}", item.getKey(), e.getMessage());
+                journal.complete(item.getKey());
+            }
+        }
+    }
+
+    /**
+     * Starts the workers, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("ingest-"));
+        retries = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ingest-retry-"));
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        log.info("----------------- started {} ingest workers, {} items pending", workers, pending.get());
+    }
+
+    /**
+     * Stops the workers; items they didn't finish stay in the journal.
+     */
+    @PreDestroy
+    public synchronized void stop() throws IOException, InterruptedException {
+        stopped = true;
+        if (executor != null) {
+            retries.shutdownNow();
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Accepts a (valid) article for creation.
+     *
+     * @param newArticle the article
+     * @return its status, with the ticket to look it up by
+     * @throws IngestRejectedException if too many items are pending
+     */
+    public RsIngestStatus submit(final CreateArticle newArticle) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            throw new IngestRejectedException("the ingest queue is full, " + capacity + " articles pending");
+        }
+        final UUID ticket = UUID.randomUUID();
+        if (journal != null) {
+            try {
+                journal.append(ticket, objectMapper.writeValueAsBytes(newArticle));
+            } catch (IOException e) {
+                pending.decrementAndGet();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                pending.decrementAndGet();
+                throw e;
+            }
+        }
+        return enqueue(ticket, newArticle);
+    }
+
+    /**
+     * @param ticket a ticket from {@link #submit(CreateArticle)}
+     * @return the status of the item, null if unknown or expired
+     */
+    public RsIngestStatus getStatus(final String ticket) {
+        return statuses.getIfPresent(ticket);
+    }
+
+    /**
+     * @return the number of accepted, not yet processed items
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+
+    /** the item has to be counted in {@link #pending} already. */
+    private RsIngestStatus enqueue(final UUID ticket, final CreateArticle newArticle) {
+        final RsIngestStatus status = new RsIngestStatus(ticket.toString(), RsIngestStatus.QUEUED, null, null);
+        statuses.put(status.getTicket(), status);
+        queue.add(new Item(ticket, newArticle));
+        return status;
+    }
+
+    private void work() {
+        final List<Item> batch = new ArrayList<>(batchSize);
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            // retried items one by one, they may spoil any batch
+            batch.removeIf((item) -> {
+                if (item.attempts > 0) {
+                    persist(Collections.singletonList(item));
+                    return true;
+                }
+                return false;
+            });
+            if (!batch.isEmpty()) {
+                persist(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void persist(final List<Item> batch) {
+        try {
+            final List<Article> created = articleService.createArticles(batch.stream()
+                    .map((item) -> ModelConverter.convertToJpaArticle(item.article)).collect(Collectors.toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), RsIngestStatus.DONE, created.get(i).getId(), null);
+            }
+        } catch (RuntimeException e) {
+            if (stopped) {
+                // shutting down: the items stay in the journal
+                return;
+            }
+            if (!isRefused(e)) {
+                log.warn("----------------- queued articles couldn't be saved, retrying: " + e);
+                batch.forEach((item) -> retry(item, e));
+            } else if (batch.size() == 1) {
+                log.error("----------------- queued article couldn't be saved: " + e);
+                complete(batch.get(0), RsIngestStatus.FAILED, null, "article couldn't be saved");
+            } else {
+                // isolate the item(s) spoiling the batch
+                batch.forEach((item) -> persist(Collections.singletonList(item)));
+            }
+        }
+    }
+
+    /**
+     * @return  whether the items themselves are refused, by a constraint or the validation
+     */
+    private static boolean isRefused(final RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ValidationException
+                    || cause instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues the item again after the backoff; it stays pending and in the
+     * journal. Fails it after the last attempt.
+     */
+    private void retry(final Item item, final RuntimeException cause) {
+        item.attempts++;
+        if (item.attempts >= maxAttempts) {
+            log.error("----------------- queued article couldn't be saved in " + item.attempts + " attempts: " + cause);
+            complete(item, RsIngestStatus.FAILED, null,
+                    "article couldn't be saved in " + item.attempts + " attempts: " + cause.getMessage());
+            return;
+        }
+        final long delay = Math.min(retryDelayMillis << Math.min(item.attempts - 1, 20), MAX_RETRY_DELAY_MILLIS);
+        statuses.put(item.ticket.toString(), new RsIngestStatus(item.ticket.toString(), RsIngestStatus.QUEUED, null,
+                "attempt " + item.attempts + " failed, retrying in " + delay + " ms: " + cause.getMessage()));
+        try {
+            retries.schedule(() -> queue.add(item), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down: the item stays in the journal
+        }
+    }
+
+    private void complete(final Item item, final String state, final Long id, final String message) {
+        statuses.put(item.ticket.toString(), new RsIngestStatus(item.ticket.toString(), state, id, message));
+        if (journal != null) {
+            try {
+                journal.complete(item.ticket);
+            } catch (IOException e) {
+                log.error("----------------- couldn't journal completion of {}: {}", item.ticket, e.getMessage());
+            }
+        }
+        pending.decrementAndGet();
+    }
+
+
+    private static final class Item {
+
+        private final UUID ticket;
+
+        private final CreateArticle article;
+
+        /** failed attempts so far. */
+        private int attempts;
+
+        private Item(final UUID ticket, final CreateArticle article) {
+            this.ticket = ticket;
+            this.article = article;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.twitzer.newsapi.ingest;
+
+/**
+ * Thrown if the {@link IngestQueue} can't take more items right now; the
+ * client should retry later.
+ *
+ * @author jschulz
+ */
+public class IngestRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 6358235403771519874L;
+
+    public IngestRejectedException(final String message) {
+        super(message);
+    }
+}
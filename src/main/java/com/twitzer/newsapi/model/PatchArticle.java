@@ -0,0 +1,112 @@
+package com.twitzer.newsapi.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import javax.validation.constraints.Pattern;
+
+/**
+ * Partial update of an article: only the fields sent (not null) are changed,
+ * an empty list of authors or keywords removes all of them. With a
+ * <code>version</code> the update only succeeds on that version of the article.
+ *
+ * @author jschulz
+ */
+public class PatchArticle implements Serializable {
+
+    private static final long serialVersionUID = 3957280372040215786L;
+
+    private static final String NOT_BLANK = "(?s).*\\S.*";
+
+    @Pattern(regexp = NOT_BLANK, message = "may not be blank")
+    private String headline;
+
+    @Pattern(regexp = NOT_BLANK, message = "may not be blank")
+    private String teaserText;
+
+    @Pattern(regexp = NOT_BLANK, message = "may not be blank")
+    private String mainText;
+
+    private Date publishedOn;
+
+    private List<RsAuthor> authors;
+    private List<RsKeyword> keywords;
+
+    private Long version;
+
+    public PatchArticle() {
+        // default
+    }
+
+    public String getHeadline() {
+        return headline;
+    }
+
+    public void setHeadline(String headline) {
+        this.headline = headline;
+    }
+
+    public String getTeaserText() {
+        return teaserText;
+    }
+
+    public void setTeaserText(String teaserText) {
+        this.teaserText = teaserText;
+    }
+
+    public String getMainText() {
+        return mainText;
+    }
+
+    public void setMainText(String mainText) {
+        this.mainText = mainText;
+    }
+
+    public LocalDate publishedOnAsLocalDate() {
+        return this.publishedOn == null ? null
+                : LocalDateTime.ofInstant(this.publishedOn.toInstant(), ZoneId.systemDefault()).toLocalDate();
+    }
+
+    public Date getPublishedOn() {
+        return publishedOn;
+    }
+
+    public void setPublishedOn(Date publishedOn) {
+        this.publishedOn = publishedOn;
+    }
+
+    public List<RsAuthor> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<RsAuthor> authors) {
+        this.authors = authors;
+    }
+
+    public List<RsKeyword> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<RsKeyword> keywords) {
+        this.keywords = keywords;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "PatchArticle{ headline=" + headline + ", teaserText="
+                + teaserText + ", mainText=" + mainText + ", publishedOn=" + publishedOn
+                + ", authors=" + authors + ", keywords=" + keywords + ", version=" + version + '}';
+    }
+
+}
@@ -25,6 +25,9 @@ public class RsArticle implements Serializable {
     private List<RsAuthor> authors;
     private List<RsKeyword> keywords;
 
+    /** the version to send with a PATCH, see {@link PatchArticle}. */
+    private Long version;
+
     public List<RsAuthor> getAuthors() {
         return authors;
     }
@@ -81,11 +84,19 @@ public class RsArticle implements Serializable {
         this.teaserText = teaserText;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "RsArticle{" + "id=" + id + ", header=" + headline + ", shortDescription=" 
                 + teaserText + ", mainText=" + mainText + ", publishedOn=" + publishedOn 
-                + ", authors=" + authors + ", keywords=" + keywords + '}';
+                + ", authors=" + authors + ", keywords=" + keywords + ", version=" + version + '}';
     }
 
     @Override
@@ -98,6 +109,7 @@ public class RsArticle implements Serializable {
         hash = 71 * hash + Objects.hashCode(this.publishedOn);
         hash = 71 * hash + Objects.hashCode(this.authors);
         hash = 71 * hash + Objects.hashCode(this.keywords);
+        hash = 71 * hash + Objects.hashCode(this.version);
         return hash;
     }
 
@@ -131,6 +143,9 @@ public class RsArticle implements Serializable {
         if (!Objects.equals(this.keywords, other.keywords)) {
             return false;
         }
+        if (!Objects.equals(this.version, other.version)) {
+            return false;
+        }
         return true;
     }
 }
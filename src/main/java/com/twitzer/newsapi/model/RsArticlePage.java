@@ -0,0 +1,76 @@
+package com.twitzer.newsapi.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * one page of a keyset-paginated {@link RsArticle} listing.
+ * <code>next</code> is the opaque token for the following page, or
+ * <code>null</code> on the last page.
+ *
+ * @author jschulz
+ */
+public class RsArticlePage implements Serializable {
+
+    private static final long serialVersionUID = 3127405166918357764L;
+
+    private List<RsArticle> articles;
+    private String next;
+
+    public RsArticlePage() {
+        // default constructor
+    }
+
+    public RsArticlePage(List<RsArticle> articles, String next) {
+        this.articles = articles;
+        this.next = next;
+    }
+
+    public List<RsArticle> getArticles() {
+        return articles;
+    }
+
+    public void setArticles(List<RsArticle> articles) {
+        this.articles = articles;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "RsArticlePage{" + "articles=" + articles + ", next=" + next + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + Objects.hashCode(this.articles);
+        hash = 41 * hash + Objects.hashCode(this.next);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final RsArticlePage other = (RsArticlePage) obj;
+        if (!Objects.equals(this.articles, other.articles)) {
+            return false;
+        }
+        if (!Objects.equals(this.next, other.next)) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+package com.twitzer.newsapi.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * the result of one item of a batch request: its position in the request,
+ * an HTTP status code, the id of the created article and an error message.
+ *
+ * @author jschulz
+ */
+public class RsBatchItemResult implements Serializable {
+
+    private static final long serialVersionUID = -1942650143127388515L;
+
+    private int index;
+    private int status;
+    private Long id;
+    private String message;
+
+    public RsBatchItemResult() {
+        // default constructor
+    }
+
+    public RsBatchItemResult(int index, int status, Long id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "RsBatchItemResult{" + "index=" + index + ", status=" + status + ", id=" + id + ", message=" + message + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 83 * hash + this.index;
+        hash = 83 * hash + this.status;
+        hash = 83 * hash + Objects.hashCode(this.id);
+        hash = 83 * hash + Objects.hashCode(this.message);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final RsBatchItemResult other = (RsBatchItemResult) obj;
+        if (this.index != other.index || this.status != other.status) {
+            return false;
+        }
+        if (!Objects.equals(this.id, other.id)) {
+            return false;
+        }
+        if (!Objects.equals(this.message, other.message)) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package com.twitzer.newsapi.model;
+
+import java.io.Serializable;
+
+/**
+ * the result of a bulk delete: the number of articles deleted.
+ *
+ * @author jschulz
+ */
+public class RsDeleteResult implements Serializable {
+
+    private static final long serialVersionUID = 6213395727019184172L;
+
+    private int deleted;
+
+    public RsDeleteResult() {
+        // default constructor
+    }
+
+    public RsDeleteResult(int deleted) {
+        this.deleted = deleted;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+
+    @Override
+    public int hashCode() {
+        return 67 * 7 + this.deleted;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return this.deleted == ((RsDeleteResult) obj).deleted;
+    }
+
+    @Override
+    public String toString() {
+        return "RsDeleteResult{" + "deleted=" + deleted + '}';
+    }
+}
@@ -0,0 +1,104 @@
+package com.twitzer.newsapi.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * the state of an article submitted for asynchronous creation: its ticket,
+ * one of {@link #QUEUED}, {@link #DONE} or {@link #FAILED}, the id of the
+ * created article and an error message.
+ *
+ * @author jschulz
+ */
+public class RsIngestStatus implements Serializable {
+
+    private static final long serialVersionUID = 2804716536512950317L;
+
+    public static final String QUEUED = "queued";
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+
+    private String ticket;
+    private String status;
+    private Long id;
+    private String message;
+
+    public RsIngestStatus() {
+        // default constructor
+    }
+
+    public RsIngestStatus(String ticket, String status, Long id, String message) {
+        this.ticket = ticket;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "RsIngestStatus{" + "ticket=" + ticket + ", status=" + status + ", id=" + id + ", message=" + message + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 71 * hash + Objects.hashCode(this.ticket);
+        hash = 71 * hash + Objects.hashCode(this.status);
+        hash = 71 * hash + Objects.hashCode(this.id);
+        hash = 71 * hash + Objects.hashCode(this.message);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final RsIngestStatus other = (RsIngestStatus) obj;
+        if (!Objects.equals(this.ticket, other.ticket) || !Objects.equals(this.status, other.status)) {
+            return false;
+        }
+        if (!Objects.equals(this.id, other.id)) {
+            return false;
+        }
+        if (!Objects.equals(this.message, other.message)) {
+            return false;
+        }
+        return true;
+    }
+}
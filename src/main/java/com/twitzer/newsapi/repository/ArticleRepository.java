@@ -1,10 +1,21 @@
 package com.twitzer.newsapi.repository;
 
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +27,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ArticleRepository extends PagingAndSortingRepository<Article, Long> {
 
+    /** JDBC fetch size for the streaming queries. */
+    String STREAM_FETCH_SIZE = "500";
+
     List<Article> findByAuthorsId(Long authorId);
 
     List<Article> findByKeywordsNameIgnoreCase(String keywordName);
@@ -24,4 +38,153 @@ public interface ArticleRepository extends PagingAndSortingRepository<Article, L
 
     List<Article> findByPublishedOnBetween(LocalDate from, LocalDate to);
 
+    List<Article> findByIdInOrderById(Collection<Long> ids);
+
+    List<Article> findByIdInOrderByPublishedOnAscIdAsc(Collection<Long> ids);
+
+    /*
+     * Keyset pagination selects the ids of a page only; the articles are
+     * loaded by id afterwards. Loading them right away would make the
+     * subselect fetch of authors and keywords ignore the page size.
+     */
+
+    /**
+     * First page of a keyset-paginated date range, ordered by (publishedOn, id).
+     * Only the page size of the given {@link Pageable} is meant to be used.
+     */
+    @Query("select a.id from Article a where a.publishedOn between :from and :to "
+            + "order by a.publishedOn, a.id")
+    List<Long> findPageIdsByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+            Pageable page);
+
+    /**
+     * Next page of a keyset-paginated date range: all articles ordered after
+     * the given (publishedOn, id) position.
+     */
+    @Query("select a.id from Article a where a.publishedOn between :from and :to "
+            + "and (a.publishedOn > :afterPublishedOn or (a.publishedOn = :afterPublishedOn and a.id > :afterId)) "
+            + "order by a.publishedOn, a.id")
+    List<Long> findPageIdsByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+            @Param("afterPublishedOn") LocalDate afterPublishedOn, @Param("afterId") Long afterId,
+            Pageable page);
+
+    /*
+     * Streaming variants of the list queries. The returned Streams are backed
+     * by an open JDBC cursor: they have to be consumed inside a transaction
+     * and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select a from Article a where a.publishedOn between :from and :to")
+    Stream<Article> streamByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select a from Article a join a.authors au where au.id = :authorId")
+    Stream<Article> streamByAuthorsId(@Param("authorId") Long authorId);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select a from Article a join a.keywords k where upper(k.name) = upper(:keywordName)")
+    Stream<Article> streamByKeywordsNameIgnoreCase(@Param("keywordName") String keywordName);
+
+    /**
+     * All (keyword.name, article.id) pairs, to build the in-memory keyword index.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select k.name, a.id from Article a join a.keywords k")
+    Stream<Object[]> streamKeywordNamesAndArticleIds();
+
+    /**
+     * Feeds the full-text index without loading entities.
+     *
+     * @return  rows of (article.id, headline, description, mainText), to be closed after use
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select a.id, a.headline, a.description, a.mainText from Article a")
+    Stream<Object[]> streamFulltextFields();
+
+    /*
+     * Summary projections for listings: no mainText, no managed entities.
+     * Authors and keywords are added by the association queries below.
+     */
+    String SUMMARY_PROJECTION = "select new com.twitzer.newsapi.repository.domain.ArticleSummary("
+            + "a.id, a.headline, a.description, a.publishedOn, a.updatedOn) ";
+
+    @Query(SUMMARY_PROJECTION + "from Article a where a.publishedOn between :from and :to")
+    List<ArticleSummary> findSummariesByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(SUMMARY_PROJECTION + "from Article a join a.authors au where au.id = :authorId")
+    List<ArticleSummary> findSummariesByAuthorsId(@Param("authorId") Long authorId);
+
+    @Query(SUMMARY_PROJECTION + "from Article a join a.keywords k where upper(k.name) = upper(:name)")
+    List<ArticleSummary> findSummariesByKeywordsNameIgnoreCase(@Param("name") String keywordName);
+
+    @Query(SUMMARY_PROJECTION + "from Article a where a.id in :ids order by a.id")
+    List<ArticleSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return  rows of (article.id, author.id, firstname, lastname)
+     */
+    @Query("select a.id, au.id, au.firstname, au.lastname from Article a join a.authors au where a.id in :ids")
+    List<Object[]> findAuthorNamesByArticleIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return  rows of (article.id, keyword.id, name)
+     */
+    @Query("select a.id, k.id, k.name from Article a join a.keywords k where a.id in :ids")
+    List<Object[]> findKeywordNamesByArticleIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     * Deletes only mark a tombstone, which hides the article from all queries
+     * right away; the ArticlePurger removes the rows later. The version is
+     * incremented, so concurrent updates of a deleted article fail.
+     */
+    @Modifying
+    @Query("update Article a set a.deletedOn = :now, a.version = a.version + 1 "
+            + "where a.id in :ids and a.deletedOn is null")
+    int markDeletedByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Article a set a.deletedOn = :now, a.version = a.version + 1 "
+            + "where a.publishedOn between :from and :to and a.deletedOn is null")
+    int markDeletedByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Native, the entity hides the deleted articles. The ids are BigIntegers.
+     */
+    @Query(value = "select ID from NEWS_ARTICLE where DELETED_ON = :deletedOn and PUBLISHED_ON between :from and :to",
+            nativeQuery = true)
+    List<Number> findIdsByDeletedOnAndPublishedOnBetween(@Param("deletedOn") LocalDateTime deletedOn,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select a.id from Article a where a.publishedOn between :from and :to")
+    List<Long> findIdsByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /*
+     * Id lookups for sparse fieldsets, the requested columns are loaded by id.
+     */
+    @Query("select a.id from Article a join a.authors au where au.id = :authorId order by a.id")
+    List<Long> findIdsByAuthorsId(@Param("authorId") Long authorId);
+
+    @Query("select a.id from Article a join a.keywords k where upper(k.name) = upper(:keywordName) order by a.id")
+    List<Long> findIdsByKeywordsNameIgnoreCase(@Param("keywordName") String keywordName);
+
+    /*
+     * Version lookups for conditional requests; none of them loads an entity.
+     */
+    @Query("select new com.twitzer.newsapi.repository.domain.ArticleVersion(a.updatedOn, 1L, a.version) "
+            + "from Article a where a.id = :id")
+    ArticleVersion findVersionById(@Param("id") Long id);
+
+    @Query("select new com.twitzer.newsapi.repository.domain.ArticleVersion(max(a.updatedOn), count(a)) "
+            + "from Article a where a.publishedOn between :from and :to")
+    ArticleVersion findVersionByPublishedOnBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.twitzer.newsapi.repository.domain.ArticleVersion(max(a.updatedOn), count(a)) "
+            + "from Article a join a.authors au where au.id = :authorId")
+    ArticleVersion findVersionByAuthorsId(@Param("authorId") Long authorId);
+
+    @Query("select new com.twitzer.newsapi.repository.domain.ArticleVersion(max(a.updatedOn), count(a)) "
+            + "from Article a join a.keywords k where upper(k.name) = upper(:keywordName)")
+    ArticleVersion findVersionByKeywordsNameIgnoreCase(@Param("keywordName") String keywordName);
+
 }
@@ -0,0 +1,19 @@
+package com.twitzer.newsapi.repository;
+
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository to manage {@link IdempotencyKey} entities; a
+ * {@link #saveAndFlush(Object)} of a known key fails with a
+ * {@link org.springframework.dao.DataIntegrityViolationException}.
+ *
+ * @author jschulz
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+
+}
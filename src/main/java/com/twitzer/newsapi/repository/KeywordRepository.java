@@ -1,6 +1,12 @@
 package com.twitzer.newsapi.repository;
 
 import com.twitzer.newsapi.repository.domain.Keyword;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import org.springframework.stereotype.Repository;
@@ -13,5 +19,15 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface KeywordRepository extends PagingAndSortingRepository<Keyword, Long> {
 
+    /**
+     * Feeds the keyword suggestions without loading entities.
+     *
+     * @return  all keyword names, to be closed after use
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = ArticleRepository.STREAM_FETCH_SIZE))
+    @Query("select k.name from Keyword k")
+    Stream<String> streamNames();
+
+    List<Keyword> findByNameIn(Collection<String> names);
 
 }
@@ -11,35 +11,69 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.LazyCollection;
 import org.hibernate.annotations.LazyCollectionOption;
 
 import org.hibernate.annotations.Type;
+import org.hibernate.annotations.Where;
 import org.springframework.data.domain.Persistable;
 import org.springframework.util.CollectionUtils;
 
 /**
+ * Versioned for optimistic locking; updates only write the changed columns.
+ * A deleted article keeps a tombstone (deletedOn) until the
+ * {@link com.twitzer.newsapi.service.ArticlePurger} removes it; queries
+ * never return it. Authors and keywords are shared, removing an article
+ * doesn't cascade to them.
  *
  * @author jschulz
  */
 @Data
 @Entity
-@Table(name = "NEWS_ARTICLE")
+@DynamicUpdate
+@Where(clause = "DELETED_ON IS NULL")
+@Table(name = "NEWS_ARTICLE",
+        indexes = {
+            @Index(name = "IDX_ARTICLE_PUBLISHED_ON", columnList = "PUBLISHED_ON, ID"),
+            @Index(name = "IDX_ARTICLE_DELETED_ON", columnList = "DELETED_ON")
+        }
+)
 public class Article implements Persistable<Long> {
 
     private static final long serialVersionUID = 1651369642672635031L;
 
+    /**
+     * Ids of articles, authors and keywords come from pooled sequences: one
+     * round trip per {@value #ID_ALLOCATION_SIZE} ids, and unlike identity
+     * columns they leave Hibernate's insert batching enabled. The first id
+     * is above the ids of the seed data.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    public static final int ID_INITIAL_VALUE = 100;
+
+    /** id sequence, shared with {@link com.twitzer.newsapi.ingest.BulkImporter}. */
+    public static final String ID_SEQUENCE = "ARTICLE_SEQ";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "articleSequence")
+    @SequenceGenerator(name = "articleSequence", sequenceName = ID_SEQUENCE,
+            initialValue = ID_INITIAL_VALUE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "HEADLINE", nullable = false, length = 300)
@@ -51,6 +85,10 @@ public class Article implements Persistable<Long> {
     @Column(name = "TEXT", length = 3000)
     private String mainText;
 
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
     @Column(name = "CREATED_ON", nullable = false)
     @Type(type="org.hibernate.type.LocalDateTimeType")
     private LocalDateTime createdOn;
@@ -64,7 +102,11 @@ public class Article implements Persistable<Long> {
     @Type(type="org.hibernate.type.LocalDateType")
     private LocalDate publishedOn;
 
-    @ManyToMany(cascade = CascadeType.ALL)
+    @Column(name = "DELETED_ON")
+    @Type(type="org.hibernate.type.LocalDateTimeType")
+    private LocalDateTime deletedOn;
+
+    @ManyToMany(cascade = { CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH })
     @JoinTable(
         name="NEWS_ARTICLE_AUTHOR",
         uniqueConstraints = {
@@ -78,9 +120,10 @@ public class Article implements Persistable<Long> {
         }
     )
     @LazyCollection(LazyCollectionOption.FALSE)
+    @Fetch(FetchMode.SUBSELECT)
     private List<Author> authors;
 
-    @ManyToMany(cascade = CascadeType.ALL)
+    @ManyToMany(cascade = { CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH })
     @JoinTable(
         name="NEWS_ARTICLE_KEYWORD",
         uniqueConstraints = {
@@ -94,6 +137,7 @@ public class Article implements Persistable<Long> {
         }
     )
     @LazyCollection(LazyCollectionOption.FALSE)
+    @Fetch(FetchMode.SUBSELECT)
     private List<Keyword> keywords;
 
 
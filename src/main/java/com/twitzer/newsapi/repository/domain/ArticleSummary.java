@@ -0,0 +1,103 @@
+package com.twitzer.newsapi.repository.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link Article} without its mainText, selected by constructor
+ * projection. Authors and keywords are plain, unmanaged copies holding id
+ * and names only; they are added after the projection query.
+ *
+ * @author jschulz
+ */
+public final class ArticleSummary implements Serializable {
+
+    private static final long serialVersionUID = 2816734502176374617L;
+
+    private final Long id;
+    private final String headline;
+    private final String description;
+    private final LocalDate publishedOn;
+    private final LocalDateTime updatedOn;
+
+    private final List<Author> authors = new ArrayList<>();
+    private final List<Keyword> keywords = new ArrayList<>();
+
+    public ArticleSummary(Long id, String headline, String description, LocalDate publishedOn,
+            LocalDateTime updatedOn) {
+        this.id = id;
+        this.headline = headline;
+        this.description = description;
+        this.publishedOn = publishedOn;
+        this.updatedOn = updatedOn;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getHeadline() {
+        return headline;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDate getPublishedOn() {
+        return publishedOn;
+    }
+
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public List<Author> getAuthors() {
+        return authors;
+    }
+
+    public List<Keyword> getKeywords() {
+        return keywords;
+    }
+
+    public void addAuthor(final Long authorId, final String firstname, final String lastname) {
+        final Author author = new Author(firstname, lastname);
+        author.setId(authorId);
+        authors.add(author);
+    }
+
+    public void addKeyword(final Long keywordId, final String name) {
+        final Keyword keyword = new Keyword(name);
+        keyword.setId(keywordId);
+        keywords.add(keyword);
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleSummary{" + "id=" + id + ", headline=" + headline + ", publishedOn=" + publishedOn + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 67 * hash + Objects.hashCode(this.id);
+        hash = 67 * hash + Objects.hashCode(this.updatedOn);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final ArticleSummary other = (ArticleSummary) obj;
+        return Objects.equals(this.id, other.id) && Objects.equals(this.updatedOn, other.updatedOn);
+    }
+}
@@ -0,0 +1,111 @@
+package com.twitzer.newsapi.repository.domain;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Cheap version stamp of one article or of a set of articles: the latest
+ * {@link Article#getUpdatedOn()} and the number of articles, for one article
+ * its {@link Article#getVersion()} too. Loaded by projection, without the
+ * entity graph.
+ *
+ * @author jschulz
+ */
+public final class ArticleVersion implements Serializable {
+
+    private static final long serialVersionUID = -6320474163285190519L;
+
+    private final LocalDateTime lastModified;
+    private final long count;
+    private final Long version;
+
+    public ArticleVersion(LocalDateTime lastModified, Long count) {
+        this(lastModified, count, null);
+    }
+
+    /**
+     * @param   version     article.version of a single article, <code>null</code> for a set
+     */
+    public ArticleVersion(LocalDateTime lastModified, Long count, Long version) {
+        this.lastModified = lastModified;
+        this.count = count == null ? 0 : count;
+        this.version = version;
+    }
+
+    /**
+     * @param   article     a single article, may be <code>null</code>
+     * @return  the version of the article, <code>null</code> if there is no such article
+     */
+    public static ArticleVersion of(final Article article) {
+        return article == null ? null : new ArticleVersion(article.getUpdatedOn(), 1L, article.getVersion());
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return  the last modification in epoch millis, -1 for an empty set
+     */
+    public long getLastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return  the entity-tag of the JSON representation
+     * @see #getETag(String)
+     */
+    public String getETag() {
+        return getETag(null);
+    }
+
+    /**
+     * A strong entity-tag: the article's version for a single one, else
+     * derived from count and last modification. A strong tag promises
+     * identical bytes, so every representation has a tag of its own.
+     *
+     * @param   variant     the representation, e.g. <code>gz</code> or <code>smile</code>; <code>null</code> for JSON
+     * @return  e.g. <code>"v3-gz"</code> or <code>"12-1451639730000"</code>
+     */
+    public String getETag(final String variant) {
+        final String tag = version != null ? "v" + version : count + "-" + Math.max(0, getLastModifiedMillis());
+        return "\"" + tag + (variant != null ? "-" + variant : "") + "\"";
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleVersion{" + "lastModified=" + lastModified + ", count=" + count + ", version=" + version + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 59 * hash + Objects.hashCode(this.lastModified);
+        hash = 59 * hash + (int) (this.count ^ (this.count >>> 32));
+        hash = 59 * hash + Objects.hashCode(this.version);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final ArticleVersion other = (ArticleVersion) obj;
+        return this.count == other.count && Objects.equals(this.lastModified, other.lastModified)
+                && Objects.equals(this.version, other.version);
+    }
+}
@@ -13,8 +13,10 @@ import javax.persistence.Id;
 import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Type;
@@ -29,13 +31,20 @@ import org.springframework.util.CollectionUtils;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "NEWS_AUTHOR")
+@Table(name = "NEWS_AUTHOR",
+        uniqueConstraints = { @UniqueConstraint(name = "unique_author_name", columnNames = {"FIRSTNAME", "LASTNAME"}) }
+)
 public class Author implements Persistable<Long> {
 
     private static final long serialVersionUID = 9180485233031144474L;
 
+    /** id sequence, shared with {@link com.twitzer.newsapi.service.NaturalKeyResolver}. */
+    public static final String ID_SEQUENCE = "AUTHOR_SEQ";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authorSequence")
+    @SequenceGenerator(name = "authorSequence", sequenceName = ID_SEQUENCE,
+            initialValue = Article.ID_INITIAL_VALUE, allocationSize = Article.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "FIRSTNAME", nullable = false, length = 300)
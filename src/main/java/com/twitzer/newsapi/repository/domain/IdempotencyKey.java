@@ -0,0 +1,80 @@
+package com.twitzer.newsapi.repository.domain;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A client supplied <code>Idempotency-Key</code> of an article creation: the
+ * hash of the request it came with, the id of the article created and the
+ * response to the request, replayed to its retries.
+ *
+ * @author jschulz
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "NEWS_IDEMPOTENCY_KEY")
+public class IdempotencyKey implements Persistable<String> {
+
+    private static final long serialVersionUID = -5171139407012795302L;
+
+    public static final int MAX_LENGTH = 255;
+
+    @Id
+    @Column(name = "IDEMPOTENCY_KEY", length = MAX_LENGTH)
+    private String idempotencyKey;
+
+    @Column(name = "REQUEST_HASH", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "ARTICLE_ID", nullable = false)
+    private Long articleId;
+
+    /** the JSON body of the first response. */
+    @Lob
+    @Column(name = "RESPONSE")
+    private byte[] response;
+
+    @Column(name = "CREATED_ON", nullable = false)
+    @Type(type = "org.jadira.usertype.dateandtime.threeten.PersistentLocalDateTime")
+    private LocalDateTime createdOn;
+
+
+    public IdempotencyKey(String idempotencyKey, String requestHash) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+    }
+
+    @Override
+    @Transient
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    /**
+     * the id is assigned, a key is new until it was persisted.
+     */
+    @Override
+    @Transient
+    public boolean isNew() {
+        return null == createdOn;
+    }
+
+    @PrePersist
+    public void setDefaultDates() {
+        this.createdOn = LocalDateTime.now();
+    }
+
+}
@@ -13,6 +13,7 @@ import javax.persistence.Id;
 import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.persistence.UniqueConstraint;
@@ -37,8 +38,13 @@ public class Keyword implements Persistable<Long> {
 
     private static final long serialVersionUID = 4192010154194539491L;
 
+    /** id sequence, shared with {@link com.twitzer.newsapi.service.NaturalKeyResolver}. */
+    public static final String ID_SEQUENCE = "KEYWORD_SEQ";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "keywordSequence")
+    @SequenceGenerator(name = "keywordSequence", sequenceName = ID_SEQUENCE,
+            initialValue = Article.ID_INITIAL_VALUE, allocationSize = Article.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "NAME", nullable = false, length = 300)
@@ -0,0 +1,356 @@
+package com.twitzer.newsapi.search;
+
+import com.twitzer.newsapi.repository.ArticleRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.ArticleChangedEvent;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory full-text index over headline, description and mainText of all
+ * articles, ranked by BM25. Headline and description terms count
+ * {@value #HEADLINE_WEIGHT} and {@value #DESCRIPTION_WEIGHT} times.
+ *
+ * Documents are numbered by ordinals in insertion order, so posting lists
+ * stay sorted by appending. An update deletes the old ordinal and appends a
+ * new one; deleted ordinals are skipped while scoring and dropped by a
+ * compaction once they outnumber the live documents.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class FulltextIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+
+    static final int HEADLINE_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 2;
+    static final int TEXT_WEIGHT = 1;
+
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+
+    private final ArticleRepository articleRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /** readers share the current state, writers mutate it exclusively. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Segment segment = new Segment();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public FulltextIndex(final ArticleRepository articleRepository, final PlatformTransactionManager transactionManager) {
+        this.articleRepository = articleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * (Re-)builds the whole index from the database, without loading entities.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        final long start = System.currentTimeMillis();
+        final Segment built = new Segment();
+        transactionTemplate.execute((status) -> {
+            try (Stream<Object[]> rows = articleRepository.streamFulltextFields()) {
+                rows.forEach((row) -> built.add((Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+            }
+            return null;
+        });
+        swap(built);
+        ready = true;
+        log.info("fulltext index built: {} articles, {} terms in {} ms", built.liveDocs, built.postings.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-indexes the changed article. Runs after commit, or right away
+     * outside of a transaction.
+     *
+     * @param   event   the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArticleChanged(final ArticleChangedEvent event) {
+        final Article article = event.getArticle();
+        lock.writeLock().lock();
+        try {
+            if (article == null) {
+                segment.remove(event.getArticleId());
+            } else {
+                segment.add(article.getId(), article.getHeadline(), article.getDescription(), article.getMainText());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (segment.needsCompaction()) {
+            swap(segment.compact());
+        }
+    }
+
+    /**
+     * @param   query   free text, tokenized like the indexed text
+     * @param   limit   max. number of results
+     * @return  the ids of the best matching articles, best first
+     * @throws  IndexNotReadyException  while the index is built; there is no
+     *          ranking without it
+     */
+    public long[] search(final String query, final int limit) {
+        if (!ready) {
+            throw new IndexNotReadyException("the fulltext index is being built, try again shortly");
+        }
+        final Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        lock.readLock().lock();
+        try {
+            return segment.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void swap(final Segment replacement) {
+        lock.writeLock().lock();
+        try {
+            this.segment = replacement;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The index data. Not thread-safe, see the lock of the outer class.
+     */
+    private static final class Segment {
+
+        private final Map<String, Postings> postings = new HashMap<>();
+
+        /** article.id -> live ordinal. */
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+
+        private long[] articleIds = new long[1024];
+        private int[] lengths = new int[1024];
+        private final BitSet deleted = new BitSet();
+
+        private int maxDoc;
+        private int liveDocs;
+        private long totalLength;
+
+        void add(final long articleId, final String headline, final String description, final String text) {
+            remove(articleId);
+
+            final Map<String, int[]> frequencies = new HashMap<>();
+            final int length = count(frequencies, headline, HEADLINE_WEIGHT)
+                    + count(frequencies, description, DESCRIPTION_WEIGHT)
+                    + count(frequencies, text, TEXT_WEIGHT);
+
+            final int doc = maxDoc++;
+            if (doc == articleIds.length) {
+                articleIds = Arrays.copyOf(articleIds, doc * 2);
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            articleIds[doc] = articleId;
+            lengths[doc] = length;
+            ordinals.put(articleId, doc);
+            liveDocs++;
+            totalLength += length;
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, (key) -> new Postings())
+                    .add(doc, frequency[0]));
+        }
+
+        void remove(final long articleId) {
+            final Integer doc = ordinals.remove(articleId);
+            if (doc != null) {
+                deleted.set(doc);
+                liveDocs--;
+                totalLength -= lengths[doc];
+            }
+        }
+
+        boolean needsCompaction() {
+            final int deletedDocs = maxDoc - liveDocs;
+            return deletedDocs >= MIN_DELETED_FOR_COMPACTION && deletedDocs > liveDocs;
+        }
+
+        /**
+         * @return  a copy without the deleted ordinals
+         */
+        Segment compact() {
+            final Segment compacted = new Segment();
+            final int[] remapped = new int[maxDoc];
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (deleted.get(doc)) {
+                    remapped[doc] = -1;
+                } else {
+                    final int newDoc = compacted.maxDoc++;
+                    remapped[doc] = newDoc;
+                    if (newDoc == compacted.articleIds.length) {
+                        compacted.articleIds = Arrays.copyOf(compacted.articleIds, newDoc * 2);
+                        compacted.lengths = Arrays.copyOf(compacted.lengths, newDoc * 2);
+                    }
+                    compacted.articleIds[newDoc] = articleIds[doc];
+                    compacted.lengths[newDoc] = lengths[doc];
+                    compacted.ordinals.put(articleIds[doc], newDoc);
+                }
+            }
+            compacted.liveDocs = compacted.maxDoc;
+            compacted.totalLength = totalLength;
+            postings.forEach((term, list) -> {
+                final Postings live = new Postings();
+                for (int i = 0; i < list.size; i++) {
+                    if (remapped[list.docs[i]] >= 0) {
+                        live.add(remapped[list.docs[i]], list.frequencies[i]);
+                    }
+                }
+                if (live.size > 0) {
+                    compacted.postings.put(term, live);
+                }
+            });
+            return compacted;
+        }
+
+        long[] search(final Set<String> terms, final int limit) {
+            if (terms.isEmpty() || liveDocs == 0 || limit < 1) {
+                return new long[0];
+            }
+            final float averageLength = Math.max(1f, (float) totalLength / liveDocs);
+            int hits = 0;
+            for (String term : terms) {
+                final Postings list = postings.get(term);
+                hits += list == null ? 0 : list.size;
+            }
+            if (hits == 0) {
+                return new long[0];
+            }
+            final Scores scores = new Scores(hits);
+
+            for (String term : terms) {
+                final Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                // deleted ordinals may still be counted until the next compaction
+                final int documentFrequency = Math.min(list.size, liveDocs);
+                final float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    final int doc = list.docs[i];
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    final int frequency = list.frequencies[i];
+                    final float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores.add(doc, idf * frequency * (K1 + 1) / (frequency + norm));
+                }
+            }
+
+            // bounded min-heap of match indices: the root is the worst of the best 'limit' matches
+            final PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, Math.max(1, scores.size)),
+                    (a, b) -> Float.compare(scores.values[a], scores.values[b]));
+            for (int match = 0; match < scores.size; match++) {
+                if (best.size() < limit) {
+                    best.add(match);
+                } else if (scores.values[match] > scores.values[best.peek()]) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+            final long[] ranked = new long[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = articleIds[scores.docs[best.poll()]];
+            }
+            return ranked;
+        }
+
+        private static int count(final Map<String, int[]> frequencies, final String text, final int weight) {
+            int length = 0;
+            for (String token : Tokenizer.tokenize(text)) {
+                frequencies.computeIfAbsent(token, (key) -> new int[1])[0] += weight;
+                length += weight;
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Ordinals and term frequencies of one term, sorted by ordinal.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        void add(final int doc, final int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+        }
+    }
+
+    /**
+     * The scores of one query by ordinal, an open addressing hash table
+     * sized by the posting hits instead of an array over all ordinals.
+     */
+    private static final class Scores {
+
+        /** match index + 1 per slot, 0 if free. */
+        private final int[] slots;
+        private final int[] docs;
+        private final float[] values;
+        private int size;
+
+        /**
+         * @param   hits    the sum of the posting list sizes, the max. number of matches
+         */
+        Scores(final int hits) {
+            slots = new int[Integer.highestOneBit(Math.max(1, hits * 2 - 1)) << 1];
+            docs = new int[hits];
+            values = new float[hits];
+        }
+
+        void add(final int doc, final float score) {
+            final int mask = slots.length - 1;
+            for (int slot = doc * 0x9E3779B9 & mask;; slot = (slot + 1) & mask) {
+                final int match = slots[slot] - 1;
+                if (match < 0) {
+                    docs[size] = doc;
+                    values[size] = score;
+                    slots[slot] = ++size;
+                    return;
+                }
+                if (docs[match] == doc) {
+                    values[match] += score;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.twitzer.newsapi.search;
+
+/**
+ * Thrown by a search on an index that is still being built; the client
+ * should retry later.
+ *
+ * @author jschulz
+ */
+public class IndexNotReadyException extends RuntimeException {
+
+    private static final long serialVersionUID = -2871064581937320764L;
+
+    public IndexNotReadyException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,199 @@
+package com.twitzer.newsapi.search;
+
+import com.twitzer.newsapi.repository.ArticleRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.service.ArticleChangedEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * In-memory inverted index from case-folded {@link Keyword} names to the
+ * sorted ids of the articles using them. Built once the application is
+ * ready and kept up to date from {@link ArticleChangedEvent}s, so a keyword
+ * search is a map lookup instead of a three-table join.
+ *
+ * Readers never lock: posting arrays are replaced, never modified in place.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class KeywordIndex {
+
+    private static final long[] NO_ARTICLES = new long[0];
+
+    private final ArticleRepository articleRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /** folded keyword name -> sorted article ids. */
+    private volatile Map<String, long[]> postings = new ConcurrentHashMap<>();
+
+    /** article id -> folded keyword names, to remove an article again; guarded by this. */
+    private Map<Long, String[]> keywordsByArticle = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public KeywordIndex(final ArticleRepository articleRepository, final PlatformTransactionManager transactionManager) {
+        this.articleRepository = articleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * (Re-)builds the whole index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        final long start = System.currentTimeMillis();
+        final Map<String, LongList> build = new HashMap<>();
+        final Map<Long, String[]> reverse = new HashMap<>();
+
+        transactionTemplate.execute((status) -> {
+            try (Stream<Object[]> rows = articleRepository.streamKeywordNamesAndArticleIds()) {
+                rows.forEach((row) -> {
+                    final String name = fold((String) row[0]);
+                    final Long articleId = (Long) row[1];
+                    build.computeIfAbsent(name, (key) -> new LongList()).add(articleId);
+                    reverse.merge(articleId, new String[] { name }, KeywordIndex::concat);
+                });
+            }
+            return null;
+        });
+
+        final Map<String, long[]> built = new ConcurrentHashMap<>(build.size() * 4 / 3 + 1);
+        build.forEach((name, ids) -> built.put(name, ids.toSortedArray()));
+        this.postings = built;
+        this.keywordsByArticle = reverse;
+        this.ready = true;
+        log.info("keyword index built: {} keywords, {} articles in {} ms", built.size(), reverse.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return  <code>false</code> until the index was built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @param   keywordName     a keyword name, case is ignored
+     * @return  the ascending ids of the articles with that keyword; must not be modified
+     */
+    public long[] lookup(final String keywordName) {
+        return postings.getOrDefault(fold(keywordName), NO_ARTICLES);
+    }
+
+    /**
+     * @param   keywordName     a keyword name, case is ignored
+     * @return  the number of articles with that keyword
+     */
+    public int frequency(final String keywordName) {
+        return lookup(keywordName).length;
+    }
+
+    /**
+     * Moves the changed article to its current keywords. Runs after commit,
+     * or right away outside of a transaction.
+     *
+     * @param   event   the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArticleChanged(final ArticleChangedEvent event) {
+        final Long articleId = event.getArticleId();
+        final String[] previous = keywordsByArticle.remove(articleId);
+        if (previous != null) {
+            for (String name : previous) {
+                postings.computeIfPresent(name, (key, ids) -> remove(ids, articleId));
+            }
+        }
+
+        final Article article = event.getArticle();
+        if (article != null && !CollectionUtils.isEmpty(article.getKeywords())) {
+            final String[] names = article.getKeywords().stream()
+                    .map((keyword) -> fold(keyword.getName())).distinct().toArray(String[]::new);
+            for (String name : names) {
+                postings.merge(name, new long[] { articleId }, (ids, added) -> insert(ids, articleId));
+            }
+            keywordsByArticle.put(articleId, names);
+        }
+    }
+
+    static String fold(final String keywordName) {
+        return keywordName.toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] insert(final long[] ids, final long id) {
+        final int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        final int insertAt = -position - 1;
+        final long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    /** @return  the ids without the given one, <code>null</code> (= drop the keyword) if none is left */
+    private static long[] remove(final long[] ids, final long id) {
+        final int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        final long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+
+    private static String[] concat(final String[] names, final String[] more) {
+        final String[] result = Arrays.copyOf(names, names.length + more.length);
+        System.arraycopy(more, 0, result, names.length, more.length);
+        return result;
+    }
+
+    /**
+     * Growable list of primitive longs, only used while building.
+     */
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(final long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            final long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.twitzer.newsapi.search;
+
+import com.twitzer.newsapi.repository.KeywordRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.service.ArticleChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Prefix index over all {@link Keyword} names for autocompletion. The names
+ * are kept in a sorted array of their case-folded form, so all names with a
+ * given prefix are one contiguous range found by binary search. Matches are
+ * ranked by the number of articles using them, see {@link KeywordIndex}.
+ * Names no article uses any more, deleted or orphaned, are left out; the
+ * arrays keep them until the next rebuild.
+ *
+ * Readers never lock: new keywords are merged into a copy of the arrays.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class KeywordSuggestIndex {
+
+    private final KeywordRepository keywordRepository;
+
+    private final KeywordIndex keywordIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Entries entries = new Entries(new String[0], new String[0]);
+
+    @Autowired
+    public KeywordSuggestIndex(final KeywordRepository keywordRepository, final KeywordIndex keywordIndex,
+            final PlatformTransactionManager transactionManager) {
+        this.keywordRepository = keywordRepository;
+        this.keywordIndex = keywordIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * (Re-)builds the whole index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        final TreeMap<String, String> sorted = new TreeMap<>();
+        transactionTemplate.execute((status) -> {
+            try (Stream<String> names = keywordRepository.streamNames()) {
+                names.forEach((name) -> sorted.putIfAbsent(KeywordIndex.fold(name), name));
+            }
+            return null;
+        });
+        this.entries = new Entries(sorted.keySet().toArray(new String[sorted.size()]),
+                sorted.values().toArray(new String[sorted.size()]));
+        log.info("keyword suggest index built: {} keywords", sorted.size());
+    }
+
+    /**
+     * Adds keywords the changed article introduced. Runs after commit, or
+     * right away outside of a transaction.
+     *
+     * @param   event   the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArticleChanged(final ArticleChangedEvent event) {
+        final Article article = event.getArticle();
+        if (article == null || CollectionUtils.isEmpty(article.getKeywords())) {
+            return;
+        }
+        final Entries current = entries;
+        final TreeMap<String, String> added = new TreeMap<>();
+        for (Keyword keyword : article.getKeywords()) {
+            final String folded = KeywordIndex.fold(keyword.getName());
+            if (Arrays.binarySearch(current.folded, folded) < 0) {
+                added.putIfAbsent(folded, keyword.getName());
+            }
+        }
+        if (!added.isEmpty()) {
+            this.entries = current.merge(added);
+        }
+    }
+
+    /**
+     * @param   prefix  start of the keyword name, case is ignored
+     * @param   limit   max. number of suggestions
+     * @return  the matching keyword names used by an article, most used
+     *          first; all matching names while the keyword index is built
+     */
+    public List<String> suggest(final String prefix, final int limit) {
+        if (limit < 1) {
+            return Collections.emptyList();
+        }
+        final Entries current = entries;
+        final String folded = KeywordIndex.fold(prefix);
+        final int position = Arrays.binarySearch(current.folded, folded);
+        final int from = position >= 0 ? position : -position - 1;
+
+        // bounded min-heap: the root is the worst of the best 'limit' matches
+        final Comparator<Suggestion> ranking = Comparator.comparingInt((Suggestion s) -> s.frequency)
+                .thenComparing((Suggestion s) -> s.folded, Comparator.reverseOrder());
+        final PriorityQueue<Suggestion> best = new PriorityQueue<>(limit, ranking);
+        final boolean frequencies = keywordIndex.isReady();
+        for (int i = from; i < current.folded.length && current.folded[i].startsWith(folded); i++) {
+            final Suggestion candidate = new Suggestion(current.folded[i], current.names[i],
+                    keywordIndex.frequency(current.folded[i]));
+            if (frequencies && candidate.frequency == 0) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (ranking.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+        final List<Suggestion> ranked = new ArrayList<>(best);
+        ranked.sort(ranking.reversed());
+        final List<String> names = new ArrayList<>(ranked.size());
+        ranked.forEach((suggestion) -> names.add(suggestion.name));
+        return names;
+    }
+
+    /**
+     * Folded names, sorted, and the original names at the same positions.
+     */
+    private static final class Entries {
+
+        private final String[] folded;
+        private final String[] names;
+
+        Entries(final String[] folded, final String[] names) {
+            this.folded = folded;
+            this.names = names;
+        }
+
+        /** @return  a copy including the added (folded -> name) entries, which must be new */
+        Entries merge(final TreeMap<String, String> added) {
+            final int size = folded.length + added.size();
+            final String[] mergedFolded = new String[size];
+            final String[] mergedNames = new String[size];
+            int i = 0;
+            int j = 0;
+            for (Map.Entry<String, String> entry : added.entrySet()) {
+                while (i < folded.length && folded[i].compareTo(entry.getKey()) < 0) {
+                    mergedFolded[j] = folded[i];
+                    mergedNames[j++] = names[i++];
+                }
+                mergedFolded[j] = entry.getKey();
+                mergedNames[j++] = entry.getValue();
+            }
+            System.arraycopy(folded, i, mergedFolded, j, folded.length - i);
+            System.arraycopy(names, i, mergedNames, j, names.length - i);
+            return new Entries(mergedFolded, mergedNames);
+        }
+    }
+
+    private static final class Suggestion {
+
+        private final String folded;
+        private final String name;
+        private final int frequency;
+
+        Suggestion(final String folded, final String name, final int frequency) {
+            this.folded = folded;
+            this.name = name;
+            this.frequency = frequency;
+        }
+    }
+}
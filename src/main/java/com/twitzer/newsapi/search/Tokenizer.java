@@ -0,0 +1,78 @@
+package com.twitzer.newsapi.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits German and English text into search terms: lower case, 'ß' folded
+ * to "ss", diacritics (umlauts, accents) stripped, split at everything that
+ * is neither letter nor digit. Single characters and common stop words are
+ * dropped. There is no stemming.
+ *
+ * @author jschulz
+ */
+public final class Tokenizer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    /** common German and English stop words, already folded. */
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            // German
+            "aber", "als", "am", "an", "auch", "auf", "aus", "bei", "bin", "bis", "da", "das", "dass", "dem",
+            "den", "der", "des", "die", "doch", "du", "ein", "eine", "einem", "einen", "einer", "eines", "er",
+            "es", "fur", "hat", "hatte", "ich", "ihr", "im", "in", "ist", "ja", "mit", "nach", "nicht", "noch",
+            "nur", "oder", "sich", "sie", "sind", "so", "uber", "um", "und", "uns", "von", "vor", "war", "was",
+            "wie", "wir", "wird", "zu", "zum", "zur",
+            // English
+            "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "he", "if", "into",
+            "is", "it", "its", "no", "not", "of", "on", "or", "she", "such", "that", "the", "their", "then",
+            "there", "these", "they", "this", "to", "was", "were", "will", "with"));
+
+    private Tokenizer() {
+        // static only
+    }
+
+    /**
+     * @param   text    any text, may be <code>null</code>
+     * @return  the terms of the text in order of occurrence, including repetitions
+     */
+    public static List<String> tokenize(final String text) {
+        final List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        final String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            final boolean partOfToken = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (partOfToken && start < 0) {
+                start = i;
+            } else if (!partOfToken && start >= 0) {
+                final String token = folded.substring(start, i);
+                if (token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static String fold(final String text) {
+        final String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT).replace("ß", "ss"),
+                Normalizer.Form.NFD);
+        final StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            final char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+}
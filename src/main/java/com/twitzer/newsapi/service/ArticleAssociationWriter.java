@@ -0,0 +1,79 @@
+package com.twitzer.newsapi.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes changes of the authors and keywords of an existing article as the
+ * difference of the current and the requested ids: the join rows that stay
+ * are not touched, the removed ones are deleted with one statement and the
+ * added ones inserted in one JDBC batch. Hibernate would delete and re-insert
+ * all join rows of a changed association instead.
+ * <p>
+ * Runs in the caller's transaction.
+ *
+ * @author jschulz
+ */
+@Component
+public class ArticleAssociationWriter {
+
+    /** max. number of ids per IN-delete. */
+    private static final int IN_BATCH_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ArticleAssociationWriter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param   articleId   article.id
+     * @param   current     ids of the current authors of the article
+     * @param   requested   ids of the authors the article should have
+     * @return  the number of join rows deleted and inserted
+     */
+    public int replaceAuthors(final Long articleId, final Collection<Long> current, final Collection<Long> requested) {
+        return replace("NEWS_ARTICLE_AUTHOR", "AUTHOR_ID", articleId, current, requested);
+    }
+
+    /**
+     * @param   articleId   article.id
+     * @param   current     ids of the current keywords of the article
+     * @param   requested   ids of the keywords the article should have
+     * @return  the number of join rows deleted and inserted
+     */
+    public int replaceKeywords(final Long articleId, final Collection<Long> current, final Collection<Long> requested) {
+        return replace("NEWS_ARTICLE_KEYWORD", "KEYWORD_ID", articleId, current, requested);
+    }
+
+    private int replace(final String table, final String column, final Long articleId,
+            final Collection<Long> current, final Collection<Long> requested) {
+        final Set<Long> removed = new LinkedHashSet<>(current);
+        removed.removeAll(requested);
+        final Set<Long> added = new LinkedHashSet<>(requested);
+        added.removeAll(current);
+
+        final List<Long> removedIds = new ArrayList<>(removed);
+        for (int from = 0; from < removedIds.size(); from += IN_BATCH_SIZE) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE ARTICLE_ID = :articleId AND " + column + " IN (:ids)",
+                    new MapSqlParameterSource("articleId", articleId)
+                            .addValue("ids", removedIds.subList(from, Math.min(removedIds.size(), from + IN_BATCH_SIZE))));
+        }
+        if (!added.isEmpty()) {
+            final MapSqlParameterSource[] rows = added.stream()
+                    .map((id) -> new MapSqlParameterSource("articleId", articleId).addValue("id", id))
+                    .toArray(MapSqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (ARTICLE_ID, " + column + ") VALUES (:articleId, :id)", rows);
+        }
+        return removed.size() + added.size();
+    }
+}
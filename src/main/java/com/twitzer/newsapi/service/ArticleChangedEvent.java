@@ -0,0 +1,59 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.repository.domain.Article;
+
+/**
+ * Published by the {@link ArticleService} whenever an article was created,
+ * updated or deleted, so in-memory structures derived from articles can
+ * follow incrementally. Listeners should use
+ * <code>@TransactionalEventListener(fallbackExecution = true)</code> to see
+ * committed changes only.
+ *
+ * @author jschulz
+ */
+public class ArticleChangedEvent {
+
+    private final Long articleId;
+    private final Article article;
+
+    private ArticleChangedEvent(final Long articleId, final Article article) {
+        this.articleId = articleId;
+        this.article = article;
+    }
+
+    /**
+     * @param   article     the created or updated article, with its authors and keywords
+     * @return  the event
+     */
+    public static ArticleChangedEvent saved(final Article article) {
+        return new ArticleChangedEvent(article.getId(), article);
+    }
+
+    /**
+     * @param   articleId   id of the deleted article
+     * @return  the event
+     */
+    public static ArticleChangedEvent deleted(final Long articleId) {
+        return new ArticleChangedEvent(articleId, null);
+    }
+
+    public Long getArticleId() {
+        return articleId;
+    }
+
+    /**
+     * @return  the saved article, <code>null</code> if it was deleted
+     */
+    public Article getArticle() {
+        return article;
+    }
+
+    public boolean isDeleted() {
+        return article == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleChangedEvent{" + "articleId=" + articleId + ", deleted=" + isDeleted() + '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.repository.domain.Article;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in a keyset-paginated article listing ordered by (publishedOn, id).
+ * Clients only see the opaque token produced by {@link #encode()}.
+ *
+ * @author jschulz
+ */
+public final class ArticleCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final LocalDate publishedOn;
+    private final Long id;
+
+    public ArticleCursor(final LocalDate publishedOn, final Long id) {
+        this.publishedOn = Objects.requireNonNull(publishedOn, "publishedOn");
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    /**
+     * @param   article     the last article of a page
+     * @return  the cursor pointing behind the given article
+     */
+    public static ArticleCursor after(final Article article) {
+        return new ArticleCursor(article.getPublishedOn(), article.getId());
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param   token   the opaque token
+     * @return  the cursor
+     * @throws  IllegalArgumentException if the token is malformed
+     */
+    public static ArticleCursor decode(final String token) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separator = raw.indexOf(SEPARATOR);
+            return new ArticleCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
+    }
+
+    public String encode() {
+        final String raw = publishedOn.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getPublishedOn() {
+        return publishedOn;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleCursor{" + "publishedOn=" + publishedOn + ", id=" + id + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 53 * hash + Objects.hashCode(this.publishedOn);
+        hash = 53 * hash + Objects.hashCode(this.id);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final ArticleCursor other = (ArticleCursor) obj;
+        return Objects.equals(this.publishedOn, other.publishedOn) && Objects.equals(this.id, other.id);
+    }
+}
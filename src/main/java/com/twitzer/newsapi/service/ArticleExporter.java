@@ -0,0 +1,167 @@
+package com.twitzer.newsapi.service;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Exports articles with their authors and keywords straight from the
+ * database, without entities: three forward-only cursors over the articles,
+ * their authors and their keywords, all ordered by article id, are merged
+ * while reading. Only the current article is held in memory, fetched
+ * <code>export.fetch-size</code> rows per round trip.
+ * <p>
+ * Deletes are exported as tombstones only as long as the
+ * {@link ArticlePurger} keeps them, <code>purge.retention</code>
+ * milliseconds; an incremental export has to start within that window.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class ArticleExporter {
+
+    /** tombstones are kept a week by default. */
+    public static final long DEFAULT_RETENTION_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private static final String ALL = "a.DELETED_ON IS NULL";
+
+    /** changed or deleted since; the deleted ones are exported as tombstones. */
+    private static final String SINCE = "(a.UPDATED_ON > ? OR a.DELETED_ON > ?)";
+
+    private static final String SELECT_ARTICLES = "SELECT a.ID, a.HEADLINE, a.DESCRIPTION, a.TEXT, a.PUBLISHED_ON, "
+            + "a.UPDATED_ON, a.DELETED_ON FROM NEWS_ARTICLE a WHERE %s ORDER BY a.ID";
+
+    private static final String SELECT_AUTHORS = "SELECT aa.ARTICLE_ID, au.ID, au.FIRSTNAME, au.LASTNAME "
+            + "FROM NEWS_ARTICLE a JOIN NEWS_ARTICLE_AUTHOR aa ON aa.ARTICLE_ID = a.ID "
+            + "JOIN NEWS_AUTHOR au ON au.ID = aa.AUTHOR_ID WHERE %s ORDER BY aa.ARTICLE_ID, au.ID";
+
+    private static final String SELECT_KEYWORDS = "SELECT ak.ARTICLE_ID, k.ID, k.NAME "
+            + "FROM NEWS_ARTICLE a JOIN NEWS_ARTICLE_KEYWORD ak ON ak.ARTICLE_ID = a.ID "
+            + "JOIN NEWS_KEYWORD k ON k.ID = ak.KEYWORD_ID WHERE %s ORDER BY ak.ARTICLE_ID, k.ID";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int fetchSize;
+
+    private final long retentionMillis;
+
+    @Autowired
+    public ArticleExporter(JdbcTemplate jdbcTemplate, @Value("${export.fetch-size:1000}") int fetchSize,
+            @Value("${purge.retention:" + DEFAULT_RETENTION_MILLIS + "}") long retentionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * @param   since   the start of an incremental export, <code>null</code> for all articles
+     * @throws  IllegalArgumentException if deletes since then may have been purged already;
+     *                  the client needs a full export
+     */
+    public void checkSince(final LocalDateTime since) {
+        if (since != null && since.isBefore(LocalDateTime.now().minus(retentionMillis, ChronoUnit.MILLIS))) {
+            throw new IllegalArgumentException("since has to be within the last " + retentionMillis
+                    + " ms, older deletes are purged; export all articles instead");
+        }
+    }
+
+    /**
+     * Hands every article to the consumer, ordered by id. The read-only
+     * transaction keeps the cursors open on drivers that stream only then.
+     *
+     * @param   since       <code>null</code> for all articles, else the articles
+     *                      updated or deleted after it
+     * @param   consumer    called for every article, with the same reused {@link ExportRow}
+     * @return  the number of exported articles
+     * @throws  IllegalArgumentException if since is older than the retention, see {@link #checkSince}
+     */
+    @Transactional(readOnly = true)
+    public int export(final LocalDateTime since, final Consumer<ExportRow> consumer) {
+        checkSince(since);
+        log.info("----------------- export articles since: " + since);
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) (connection) -> {
+            PreparedStatement articles = null;
+            PreparedStatement authors = null;
+            PreparedStatement keywords = null;
+            try {
+                articles = open(connection, SELECT_ARTICLES, since);
+                authors = open(connection, SELECT_AUTHORS, since);
+                keywords = open(connection, SELECT_KEYWORDS, since);
+                return merge(articles.executeQuery(), authors.executeQuery(), keywords.executeQuery(), consumer);
+            } finally {
+                JdbcUtils.closeStatement(articles);
+                JdbcUtils.closeStatement(authors);
+                JdbcUtils.closeStatement(keywords);
+            }
+        });
+    }
+
+    private PreparedStatement open(final Connection connection, final String query, final LocalDateTime since)
+            throws SQLException {
+        final PreparedStatement statement = connection.prepareStatement(String.format(query, since == null ? ALL : SINCE),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        if (since != null) {
+            statement.setTimestamp(1, Timestamp.valueOf(since));
+            statement.setTimestamp(2, Timestamp.valueOf(since));
+        }
+        return statement;
+    }
+
+    /**
+     * The association cursors run alongside the article cursor; rows of
+     * articles the article cursor didn't see, e.g. changed meanwhile, are skipped.
+     */
+    private static int merge(final ResultSet articles, final ResultSet authors, final ResultSet keywords,
+            final Consumer<ExportRow> consumer) throws SQLException {
+        final ExportRow row = new ExportRow();
+        boolean moreAuthors = authors.next();
+        boolean moreKeywords = keywords.next();
+        int exported = 0;
+        while (articles.next()) {
+            final long id = articles.getLong(1);
+            final Date publishedOn = articles.getDate(5);
+            final Timestamp updatedOn = articles.getTimestamp(6);
+            final Timestamp deletedOn = articles.getTimestamp(7);
+            row.reset(id, articles.getString(2), articles.getString(3), articles.getString(4),
+                    publishedOn == null ? null : publishedOn.toLocalDate(),
+                    updatedOn == null ? null : updatedOn.toLocalDateTime(),
+                    deletedOn == null ? null : deletedOn.toLocalDateTime());
+
+            while (moreAuthors && authors.getLong(1) < id) {
+                moreAuthors = authors.next();
+            }
+            while (moreAuthors && authors.getLong(1) == id) {
+                row.addAuthor(authors.getLong(2), authors.getString(3), authors.getString(4));
+                moreAuthors = authors.next();
+            }
+            while (moreKeywords && keywords.getLong(1) < id) {
+                moreKeywords = keywords.next();
+            }
+            while (moreKeywords && keywords.getLong(1) == id) {
+                row.addKeyword(keywords.getLong(2), keywords.getString(3));
+                moreKeywords = keywords.next();
+            }
+
+            consumer.accept(row);
+            exported++;
+        }
+        return exported;
+    }
+}
@@ -0,0 +1,87 @@
+package com.twitzer.newsapi.service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * The properties of an article a client can ask for with
+ * <code>?fields=</code>, by their name in the JSON representation, and the
+ * {@link com.twitzer.newsapi.repository.domain.Article} property each one
+ * is loaded from. Authors and keywords come from the join tables.
+ *
+ * @author jschulz
+ */
+public enum ArticleField {
+
+    ID("id", "id"),
+    HEADLINE("headline", "headline"),
+    TEASER_TEXT("teaserText", "description"),
+    MAIN_TEXT("mainText", "mainText"),
+    PUBLISHED_ON("publishedOn", "publishedOn"),
+    AUTHORS("authors", null),
+    KEYWORDS("keywords", null),
+    VERSION("version", "version");
+
+    private final String property;
+
+    private final String attribute;
+
+    ArticleField(final String property, final String attribute) {
+        this.property = property;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return  the name in the JSON representation
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return  the entity attribute, <code>null</code> for the associations
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses a comma separated list of property names, e.g.
+     * <code>id,headline,authors</code>.
+     *
+     * @param   fields  the list, blanks around the names are ignored
+     * @return  the fields, never empty
+     * @throws  IllegalArgumentException    if a name is unknown or the list is empty
+     */
+    public static Set<ArticleField> parse(final String fields) {
+        final Set<ArticleField> parsed = EnumSet.noneOf(ArticleField.class);
+        for (String name : StringUtils.commaDelimitedListToStringArray(fields)) {
+            final String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            parsed.add(ofProperty(property));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + EnumSet.allOf(ArticleField.class));
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    private static ArticleField ofProperty(final String property) {
+        for (ArticleField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("unknown field: " + property);
+    }
+
+    @Override
+    public String toString() {
+        return property;
+    }
+}
@@ -0,0 +1,139 @@
+package com.twitzer.newsapi.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Removes the articles deleted by the {@link ArticleService} in the
+ * background: their join rows and the article rows themselves, in batches
+ * of <code>purge.batch-size</code> articles with a short transaction each,
+ * every <code>purge.delay</code> milliseconds.
+ * <p>
+ * A deleted article stays as tombstone for <code>purge.retention</code>
+ * milliseconds, so incremental exports (see {@link ArticleExporter}) within
+ * that window still see the delete.
+ * <p>
+ * The idempotency keys of {@link ArticleService#createArticle(com.twitzer.newsapi.repository.domain.Article,
+ * com.twitzer.newsapi.repository.domain.IdempotencyKey, java.util.function.Function)}
+ * are removed the same way after <code>purge.idempotency-retention</code>
+ * milliseconds; a retry after that creates the article again.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class ArticlePurger {
+
+    private static final String SELECT_DELETED = "SELECT ID FROM NEWS_ARTICLE WHERE DELETED_ON < :before "
+            + "ORDER BY ID LIMIT :limit";
+
+    private static final String SELECT_EXPIRED_KEYS = "SELECT IDEMPOTENCY_KEY FROM NEWS_IDEMPOTENCY_KEY "
+            + "WHERE CREATED_ON < :before LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long retentionMillis;
+
+    private final long idempotencyRetentionMillis;
+
+    private final Cache idempotencyKeyCache;
+
+    @Autowired
+    public ArticlePurger(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            @Value("${purge.batch-size:500}") int batchSize,
+            @Value("${purge.retention:" + ArticleExporter.DEFAULT_RETENTION_MILLIS + "}") long retentionMillis,
+            @Value("${purge.idempotency-retention:86400000}") long idempotencyRetentionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idempotencyKeyCache = cacheManager.getCache(ArticleService.IDEMPOTENCY_KEY_CACHE);
+        this.batchSize = batchSize;
+        this.retentionMillis = retentionMillis;
+        this.idempotencyRetentionMillis = idempotencyRetentionMillis;
+    }
+
+    /**
+     * Removes all articles deleted longer than the retention ago.
+     *
+     * @return  the number of removed articles
+     */
+    @Scheduled(initialDelayString = "${purge.delay:60000}", fixedDelayString = "${purge.delay:60000}")
+    public int purge() {
+        final Timestamp before = Timestamp.valueOf(LocalDateTime.now().minus(retentionMillis, ChronoUnit.MILLIS));
+        int purged = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute((status) -> purgeBatch(before));
+            purged += batch;
+        } while (batch == batchSize);
+        if (purged > 0) {
+            log.info("----------------- purged deleted articles: " + purged);
+        }
+        return purged;
+    }
+
+    private int purgeBatch(final Timestamp before) {
+        final List<Long> ids = jdbcTemplate.queryForList(SELECT_DELETED,
+                new MapSqlParameterSource("limit", batchSize).addValue("before", before), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        final MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update("DELETE FROM NEWS_ARTICLE_AUTHOR WHERE ARTICLE_ID IN (:ids)", parameters);
+        jdbcTemplate.update("DELETE FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID IN (:ids)", parameters);
+        jdbcTemplate.update("DELETE FROM NEWS_ARTICLE WHERE ID IN (:ids)", parameters);
+        return ids.size();
+    }
+
+    /**
+     * Removes all idempotency keys older than their retention, from the
+     * database and the cache.
+     *
+     * @return  the number of removed keys
+     */
+    @Scheduled(initialDelayString = "${purge.delay:60000}", fixedDelayString = "${purge.delay:60000}")
+    public int purgeIdempotencyKeys() {
+        final Timestamp before = Timestamp.valueOf(LocalDateTime.now().minus(idempotencyRetentionMillis, ChronoUnit.MILLIS));
+        int purged = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute((status) -> purgeKeyBatch(before));
+            purged += batch;
+        } while (batch == batchSize);
+        if (purged > 0) {
+            log.info("----------------- purged idempotency keys: " + purged);
+        }
+        return purged;
+    }
+
+    private int purgeKeyBatch(final Timestamp before) {
+        final List<String> keys = jdbcTemplate.queryForList(SELECT_EXPIRED_KEYS,
+                new MapSqlParameterSource("limit", batchSize).addValue("before", before), String.class);
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update("DELETE FROM NEWS_IDEMPOTENCY_KEY WHERE IDEMPOTENCY_KEY IN (:keys)",
+                new MapSqlParameterSource("keys", keys));
+        // a cached key would still be replayed
+        keys.forEach(idempotencyKeyCache::evict);
+        return keys.size();
+    }
+}
@@ -2,20 +2,47 @@ package com.twitzer.newsapi.service;
 
 import com.twitzer.newsapi.repository.ArticleRepository;
 import com.twitzer.newsapi.repository.AuthorRepository;
+import com.twitzer.newsapi.repository.IdempotencyKeyRepository;
 import com.twitzer.newsapi.repository.KeywordRepository;
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
 import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
 import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.search.FulltextIndex;
+import com.twitzer.newsapi.search.KeywordIndex;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
 
 /**
  *
@@ -25,81 +52,302 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class ArticleService {
 
+    /** read-through cache of {@link #findOne(Long)}, keyed by article.id. */
+    public static final String ARTICLE_CACHE = "articles";
+
+    /** serialized single-article responses, keyed by article.id; evicted together with {@link #ARTICLE_CACHE}. */
+    public static final String ARTICLE_RESPONSE_CACHE = "articleResponses";
+
+    /** known idempotency keys, see {@link #findIdempotencyKey(String)}. */
+    public static final String IDEMPOTENCY_KEY_CACHE = "idempotencyKeys";
+
+    /** max. number of articles per {@link #createArticles(List)}. */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /** max. number of ids per IN-query. */
+    private static final int ID_BATCH_SIZE = 1000;
+
     private final ArticleRepository articleRepository;
 
     private final AuthorRepository authorRepository;
 
     private final KeywordRepository keywordRepository;
 
+    private final NaturalKeyResolver naturalKeyResolver;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final ArticleAssociationWriter associationWriter;
+
+    private final KeywordIndex keywordIndex;
+
+    private final FulltextIndex fulltextIndex;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     public ArticleService(ArticleRepository articleRepository, AuthorRepository authorRepository,
-            KeywordRepository keywordRepository) {
+            KeywordRepository keywordRepository, NaturalKeyResolver naturalKeyResolver,
+            IdempotencyKeyRepository idempotencyKeyRepository, ArticleAssociationWriter associationWriter,
+            KeywordIndex keywordIndex, FulltextIndex fulltextIndex, ApplicationEventPublisher eventPublisher) {
         this.articleRepository = articleRepository;
         this.authorRepository = authorRepository;
         this.keywordRepository = keywordRepository;
+        this.naturalKeyResolver = naturalKeyResolver;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.associationWriter = associationWriter;
+        this.keywordIndex = keywordIndex;
+        this.fulltextIndex = fulltextIndex;
+        this.eventPublisher = eventPublisher;
     }
 
 
+    /**
+     * Creates the article in one transaction, see {@link #resolveAssociations(List)}
+     * for its authors and keywords.
+     *
+     * @param   article     the new article
+     * @return  the created article
+     */
+    @Transactional
+    @Caching(
+        put = @CachePut(cacheNames = ARTICLE_CACHE, key = "#result.id", unless = "#result == null"),
+        evict = @CacheEvict(cacheNames = ARTICLE_RESPONSE_CACHE, key = "#result.id")
+    )
     public Article createArticle(final Article article) {
         log.info("----------------- createArticle from: " + article);
 
-        final List<Author> detachedAuthors = article.getAuthors();
-        article.setAuthors(new ArrayList<>());
-        final List<Keyword> detachedKeywords = article.getKeywords();
-        article.setKeywords(new ArrayList<>());
+        resolveAssociations(Collections.singletonList(article));
+        final Article created = articleRepository.save(article);
+
+        eventPublisher.publishEvent(ArticleChangedEvent.saved(created));
+        return created;
+    }
 
-        // first persist to get the PK
-        Article newArticle = articleRepository.save(article);
+    /**
+     * Creates the article like {@link #createArticle(Article)} and records the
+     * idempotency key of the request in the same transaction, with the
+     * response to replay.
+     *
+     * @param   article         the new article
+     * @param   idempotencyKey  the new key, its articleId and response are set here
+     * @param   response        serializes the response of the created article
+     * @return  the created article
+     * @throws  org.springframework.dao.DataIntegrityViolationException if the
+     *          key is known already, e.g. from a concurrent retry
+     */
+    @Transactional
+    @Caching(
+        put = @CachePut(cacheNames = ARTICLE_CACHE, key = "#result.id", unless = "#result == null"),
+        evict = @CacheEvict(cacheNames = ARTICLE_RESPONSE_CACHE, key = "#result.id")
+    )
+    public Article createArticle(final Article article, final IdempotencyKey idempotencyKey,
+            final Function<Article, byte[]> response) {
+        log.info("----------------- createArticle with idempotency key {} from: {}", idempotencyKey.getId(), article);
+
+        resolveAssociations(Collections.singletonList(article));
+        final Article created = articleRepository.save(article);
+        idempotencyKey.setArticleId(created.getId());
+        idempotencyKey.setResponse(response.apply(created));
+        // fails right here on a known key, instead of at the commit
+        idempotencyKeyRepository.saveAndFlush(idempotencyKey);
+
+        eventPublisher.publishEvent(ArticleChangedEvent.saved(created));
+        return created;
+    }
+
+    /**
+     * Look up an idempotency key of {@link #createArticle(Article, IdempotencyKey, Function)};
+     * keys never change, so they are cached once found.
+     *
+     * @param   key     the client supplied key
+     * @return  the key, <code>null</code> if unknown
+     */
+    @Cacheable(cacheNames = IDEMPOTENCY_KEY_CACHE, unless = "#result == null")
+    public IdempotencyKey findIdempotencyKey(final String key) {
+        return idempotencyKeyRepository.findOne(key);
+    }
 
-        // save keywords and authors if new and attach to new article.
-        saveAuthors(detachedAuthors, newArticle.getId());
+    /**
+     * Creates all articles in one transaction, see {@link #resolveAssociations(List)}
+     * for their authors and keywords. Nothing is written before the commit,
+     * which flushes the inserts in JDBC batches.
+     *
+     * @param   articles    new articles, at most {@value #MAX_BATCH_SIZE}
+     * @return  the created articles, in input order
+     */
+    @Transactional
+    public List<Article> createArticles(final List<Article> articles) {
+        log.info("----------------- createArticles: " + articles.size());
 
-        saveKeywords(detachedKeywords, newArticle.getId());
+        resolveAssociations(articles);
+        for (Article article : articles) {
+            article.setId(null);
+            articleRepository.save(article);
+        }
 
-        return articleRepository.findOne(newArticle.getId());
+        articles.forEach((article) -> eventPublisher.publishEvent(ArticleChangedEvent.saved(article)));
+        return articles;
     }
 
+    /**
+     * Updates headline, description, mainText, authors and keywords of the
+     * article in one transaction, see {@link #resolveAssociations(List)} and
+     * {@link #saveWithAssociations(Article, List, List)}.
+     *
+     * @param   input   the new state, identified by its id
+     * @return  the updated article, <code>null</code> if there is no such article
+     */
+    @Transactional
+    @CacheEvict(cacheNames = { ARTICLE_CACHE, ARTICLE_RESPONSE_CACHE }, key = "#input.id")
     public Article updateArticle(final Article input) {
         log.info("----------------- updateArticle from: " + input);
-        Article toUpdate = articleRepository.findOne(input.getId());
+        final Article toUpdate = findLive(input.getId());
 
         if(null == toUpdate) {
             return null;
         }
 
-        final List<Author> detachedAuthors = input.getAuthors();
-        final List<Keyword> detachedKeywords = input.getKeywords();
-
-        toUpdate.setAuthors(new ArrayList<>()); // reset attributes
-        toUpdate.setKeywords(new ArrayList<>());
+        resolveAssociations(Collections.singletonList(input));
         toUpdate.setDescription(input.getDescription());
         toUpdate.setHeadline(input.getHeadline());
         toUpdate.setMainText(input.getMainText());
+        toUpdate.updateUpdated(); // also a new version if only the associations change
 
-        // merge
-        articleRepository.save(toUpdate);
+        return saveWithAssociations(toUpdate,
+                sameIds(toUpdate.getAuthors(), input.getAuthors(), Author::getId) ? null : input.getAuthors(),
+                sameIds(toUpdate.getKeywords(), input.getKeywords(), Keyword::getId) ? null : input.getKeywords());
+    }
 
-        // save keywords and authors.
-        saveAuthors(detachedAuthors, toUpdate.getId());
+    /**
+     * Changes only the fields of the article that are set in the changes:
+     * <code>null</code> leaves a field as it is, an empty list of authors or
+     * keywords removes all of them. The article is loaded once and written
+     * only if something actually changed, then only the changed columns and
+     * join rows are written.
+     *
+     * @param   articleId   article.id
+     * @param   changes     the fields to change; with a version, the version the changes are based on
+     * @return  the patched article, <code>null</code> if there is no such article
+     * @throws  org.springframework.orm.ObjectOptimisticLockingFailureException if the
+     *          article is not in the given version, or is changed concurrently
+     */
+    @Transactional
+    @CacheEvict(cacheNames = { ARTICLE_CACHE, ARTICLE_RESPONSE_CACHE }, key = "#articleId")
+    public Article patchArticle(final Long articleId, final Article changes) {
+        log.info("----------------- patchArticle " + articleId + " from: " + changes);
+        final Article toPatch = findLive(articleId);
 
-        saveKeywords(detachedKeywords, toUpdate.getId());
+        if (null == toPatch) {
+            return null;
+        }
+        if (changes.getVersion() != null && !changes.getVersion().equals(toPatch.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Article.class, articleId);
+        }
 
-        return articleRepository.findOne(toUpdate.getId());
+        boolean changed = false;
+        if (changes.getHeadline() != null && !changes.getHeadline().equals(toPatch.getHeadline())) {
+            toPatch.setHeadline(changes.getHeadline());
+            changed = true;
+        }
+        if (changes.getDescription() != null && !changes.getDescription().equals(toPatch.getDescription())) {
+            toPatch.setDescription(changes.getDescription());
+            changed = true;
+        }
+        if (changes.getMainText() != null && !changes.getMainText().equals(toPatch.getMainText())) {
+            toPatch.setMainText(changes.getMainText());
+            changed = true;
+        }
+        if (changes.getPublishedOn() != null && !changes.getPublishedOn().equals(toPatch.getPublishedOn())) {
+            toPatch.setPublishedOn(changes.getPublishedOn());
+            changed = true;
+        }
+
+        final boolean authorsSent = changes.getAuthors() != null;
+        final boolean keywordsSent = changes.getKeywords() != null;
+        if (authorsSent || keywordsSent) {
+            resolveAssociations(Collections.singletonList(changes));
+        }
+        final List<Author> authors = authorsSent && !sameIds(toPatch.getAuthors(), changes.getAuthors(), Author::getId)
+                ? changes.getAuthors() : null;
+        final List<Keyword> keywords = keywordsSent && !sameIds(toPatch.getKeywords(), changes.getKeywords(), Keyword::getId)
+                ? changes.getKeywords() : null;
+
+        if (!changed && authors == null && keywords == null) {
+            return toPatch;
+        }
+        toPatch.updateUpdated(); // also a new version if only the associations change
+        return saveWithAssociations(toPatch, authors, keywords);
     }
 
+    /**
+     * Marks the article deleted with one statement, see {@link ArticlePurger}.
+     *
+     * @param   articleId   article.id
+     * @return  <code>false</code> if there is no such article
+     */
+    @Transactional
+    @CacheEvict(cacheNames = { ARTICLE_CACHE, ARTICLE_RESPONSE_CACHE }, key = "#articleId")
     public boolean deleteArticle(Long articleId) {
         log.info("----------------- delete article with id: " + articleId);
-        if(articleRepository.exists(articleId)) {
-            articleRepository.delete(articleId);
-        } else {
+        if (articleRepository.markDeletedByIdIn(Collections.singleton(articleId), LocalDateTime.now()) == 0) {
             return false;
         }
+        eventPublisher.publishEvent(ArticleChangedEvent.deleted(articleId));
         return true;
     }
 
+    /**
+     * Marks the articles deleted with one statement per {@value #ID_BATCH_SIZE}
+     * ids, see {@link ArticlePurger}.
+     *
+     * @param   articleIds  article ids, unknown ones are ignored
+     * @return  the number of deleted articles
+     */
+    @Transactional
+    @CacheEvict(cacheNames = { ARTICLE_CACHE, ARTICLE_RESPONSE_CACHE }, allEntries = true)
+    public int deleteArticles(final Collection<Long> articleIds) {
+        log.info("----------------- delete articles: " + articleIds.size());
+        final List<Long> ids = new ArrayList<>(new LinkedHashSet<>(articleIds));
+        final LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            deleted += articleRepository.markDeletedByIdIn(ids.subList(from, Math.min(ids.size(), from + ID_BATCH_SIZE)), now);
+        }
+        ids.forEach((id) -> eventPublisher.publishEvent(ArticleChangedEvent.deleted(id)));
+        return deleted;
+    }
+
+    /**
+     * Marks the articles deleted with a single statement, see
+     * {@link #deleteArticles(Collection)}. Their ids are selected afterwards
+     * by the deletion time, for an {@link ArticleChangedEvent#deleted(Long)}
+     * each; a concurrent delete at the same time only repeats an event.
+     *
+     * @param   from    first publishedOn, inclusive
+     * @param   to      last publishedOn, inclusive
+     * @return  the number of deleted articles
+     */
+    @Transactional
+    @CacheEvict(cacheNames = { ARTICLE_CACHE, ARTICLE_RESPONSE_CACHE }, allEntries = true)
+    public int deleteArticlesByDateRange(final LocalDate from, final LocalDate to) {
+        log.info("----------------- delete articles by date range: " + from +" - "+ to);
+        final LocalDateTime now = LocalDateTime.now();
+        final int deleted = articleRepository.markDeletedByPublishedOnBetween(from, to, now);
+        if (deleted > 0) {
+            articleRepository.findIdsByDeletedOnAndPublishedOnBetween(now, from, to)
+                    .forEach((id) -> eventPublisher.publishEvent(ArticleChangedEvent.deleted(id.longValue())));
+        }
+        return deleted;
+    }
+
+    @Cacheable(cacheNames = ARTICLE_CACHE, unless = "#result == null")
     public Article findOne(final Long articleId) {
         log.info("----------------- find article with id: " + articleId);
-        return articleRepository.findOne(articleId);
+        return findLive(articleId);
     }
 
     public List<Article> findByAuthorId(final Long authorId) {
@@ -107,9 +355,47 @@ public class ArticleService {
         return articleRepository.findByAuthorsId(authorId);
     }
 
+    /**
+     * Looks the article ids up in the {@link KeywordIndex} and loads them in
+     * batches; falls back to the database query while the index is built.
+     *
+     * @param searchKeyword     keyword.name, case is ignored
+     * @return  the articles with the keyword, ordered by id
+     */
     public List<Article> findByKeywordName(final String searchKeyword) {
         log.info("----------------- find articles by keyword: " + searchKeyword);
-        return articleRepository.findByKeywordsNameIgnoreCase(searchKeyword);
+        if (!keywordIndex.isReady()) {
+            return articleRepository.findByKeywordsNameIgnoreCase(searchKeyword);
+        }
+        return findByIds(keywordIndex.lookup(searchKeyword));
+    }
+
+    /**
+     * Full-text search over headline, description and mainText, see
+     * {@link FulltextIndex}.
+     *
+     * @param query     free text
+     * @param limit     max. number of articles to return
+     * @return  the best matching articles, best first
+     * @throws  com.twitzer.newsapi.search.IndexNotReadyException while the
+     *          index is built; unlike the keywords there is no database query
+     *          to fall back to, the ranking needs the index
+     */
+    public List<Article> findByFulltext(final String query, final int limit) {
+        log.info("----------------- find articles by fulltext: " + query + ", limit: " + limit);
+        final long[] ranked = fulltextIndex.search(query, limit);
+        final Map<Long, Article> articlesById = new HashMap<>();
+        for (Article article : findByIds(ranked)) {
+            articlesById.put(article.getId(), article);
+        }
+        final List<Article> articles = new ArrayList<>(ranked.length);
+        for (long id : ranked) {
+            final Article article = articlesById.get(id);
+            if (article != null) {
+                articles.add(article);
+            }
+        }
+        return articles;
     }
 
     public List<Article> findByDateRange(final LocalDate from, final LocalDate to) {
@@ -117,43 +403,535 @@ public class ArticleService {
         return articleRepository.findByPublishedOnBetween(from, to);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #findByDateRange(LocalDate, LocalDate)},
+     * ordered by (publishedOn, id).
+     *
+     * @param from      start-Date
+     * @param to        end-Date
+     * @param after     position of the last article of the previous page, <code>null</code> for the first page
+     * @param limit     max. number of articles to return
+     * @return  the articles following the cursor
+     */
+    public List<Article> findByDateRange(final LocalDate from, final LocalDate to, final ArticleCursor after,
+            final int limit) {
+        log.info("----------------- findByDateRange: " + from +" - "+ to + ", after: " + after + ", limit: " + limit);
+        final PageRequest page = new PageRequest(0, limit);
+        final List<Long> ids = after == null
+                ? articleRepository.findPageIdsByPublishedOnBetween(from, to, page)
+                : articleRepository.findPageIdsByPublishedOnBetween(from, to, after.getPublishedOn(), after.getId(), page);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return articleRepository.findByIdInOrderByPublishedOnAscIdAsc(ids);
+    }
 
+    /*
+     * Sparse fieldsets: the article ids are looked up first, then only the
+     * requested columns and associations are loaded, see
+     * findFields(long[], Set). The articles are unmanaged partial copies,
+     * they bypass the cache.
+     */
+
+    /**
+     * @see #findOne(Long)
+     * @param fields    the properties to load
+     * @return  the partially loaded article, <code>null</code> if there is no such article or it was deleted
+     */
+    public Article findOne(final Long articleId, final Set<ArticleField> fields) {
+        log.info("----------------- find article with id: " + articleId + ", fields: " + fields);
+        final List<Article> articles = findFields(new long[] { articleId }, fields);
+        return articles.isEmpty() ? null : articles.get(0);
+    }
 
-    @Transactional
-    private void saveKeywords(final List<Keyword> detachedKeywords, final Long articleId) {
-
-        if(!CollectionUtils.isEmpty(detachedKeywords)) {
-
-            Article entity = articleRepository.findOne(articleId);
-            detachedKeywords.stream().map((keyword) -> {
-                if(keyword.isNew()|| !authorRepository.exists(keyword.getId())) {
-                    keyword = keywordRepository.save(keyword);
-                }
-                return keyword;
-            }).forEach((keyword) -> {
-                entity.addKeyword(keywordRepository.findOne(keyword.getId()));
-            });
-            articleRepository.save(entity);
+    /**
+     * @see #findByAuthorId(Long)
+     */
+    public List<Article> findByAuthorId(final Long authorId, final Set<ArticleField> fields) {
+        log.info("----------------- find articles by authorId: " + authorId + ", fields: " + fields);
+        return findFields(toArray(articleRepository.findIdsByAuthorsId(authorId)), fields);
+    }
+
+    /**
+     * @see #findByKeywordName(String)
+     */
+    public List<Article> findByKeywordName(final String searchKeyword, final Set<ArticleField> fields) {
+        log.info("----------------- find articles by keyword: " + searchKeyword + ", fields: " + fields);
+        return findFields(findIdsByKeywordName(searchKeyword), fields);
+    }
+
+    /**
+     * @see #findByFulltext(String, int)
+     */
+    public List<Article> findByFulltext(final String query, final int limit, final Set<ArticleField> fields) {
+        log.info("----------------- find articles by fulltext: " + query + ", limit: " + limit + ", fields: " + fields);
+        return findFields(fulltextIndex.search(query, limit), fields);
+    }
+
+    /**
+     * @see #findByDateRange(LocalDate, LocalDate)
+     */
+    public List<Article> findByDateRange(final LocalDate from, final LocalDate to, final Set<ArticleField> fields) {
+        log.info("----------------- findByDateRange: " + from +" - "+ to + ", fields: " + fields);
+        final long[] ids = toArray(articleRepository.findIdsByPublishedOnBetween(from, to));
+        Arrays.sort(ids);
+        return findFields(ids, fields);
+    }
+
+    /**
+     * @see #findByDateRange(LocalDate, LocalDate, ArticleCursor, int)
+     * @param fields    the properties to load; publishedOn is always loaded, the next cursor needs it
+     */
+    public List<Article> findByDateRange(final LocalDate from, final LocalDate to, final ArticleCursor after,
+            final int limit, final Set<ArticleField> fields) {
+        log.info("----------------- findByDateRange: " + from +" - "+ to + ", after: " + after + ", limit: " + limit
+                + ", fields: " + fields);
+        final PageRequest page = new PageRequest(0, limit);
+        final List<Long> ids = after == null
+                ? articleRepository.findPageIdsByPublishedOnBetween(from, to, page)
+                : articleRepository.findPageIdsByPublishedOnBetween(from, to, after.getPublishedOn(), after.getId(), page);
+        final Set<ArticleField> withPublishedOn = EnumSet.copyOf(fields);
+        withPublishedOn.add(ArticleField.PUBLISHED_ON);
+        return findFields(toArray(ids), withPublishedOn);
+    }
+
+
+    /**
+     * Summary variant of {@link #findByAuthorId(Long)}: no mainText, no
+     * managed entities.
+     *
+     * @param   authorId    author.id
+     * @return  the summaries including author and keyword names
+     */
+    public List<ArticleSummary> findSummariesByAuthorId(final Long authorId) {
+        log.info("----------------- find article summaries by authorId: " + authorId);
+        return withAssociations(articleRepository.findSummariesByAuthorsId(authorId));
+    }
+
+    /**
+     * @see #findSummariesByAuthorId(Long)
+     */
+    public List<ArticleSummary> findSummariesByKeywordName(final String searchKeyword) {
+        log.info("----------------- find article summaries by keyword: " + searchKeyword);
+        if (!keywordIndex.isReady()) {
+            return withAssociations(articleRepository.findSummariesByKeywordsNameIgnoreCase(searchKeyword));
+        }
+        final long[] ids = keywordIndex.lookup(searchKeyword);
+        final List<ArticleSummary> summaries = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            summaries.addAll(articleRepository.findSummariesByIdIn(batch(ids, from)));
         }
+        return withAssociations(summaries);
     }
 
-    @Transactional
-    private void saveAuthors(final List<Author> detachedAuthors, final Long articleId) {
-
-        if(!CollectionUtils.isEmpty(detachedAuthors)) {
-
-            Article article = articleRepository.findOne(articleId);
-            detachedAuthors.stream().map((author) -> {
-                if(author.isNew() || !authorRepository.exists(author.getId())) {
-                    author = authorRepository.save(author);
-                }
-                return author;
-            }).forEach((author) -> {
-                Author saved = authorRepository.findOne(author.getId());
-                article.addAuthor(saved);
+    /**
+     * @see #findSummariesByAuthorId(Long)
+     */
+    public List<ArticleSummary> findSummariesByDateRange(final LocalDate from, final LocalDate to) {
+        log.info("----------------- findSummariesByDateRange: " + from +" - "+ to);
+        return withAssociations(articleRepository.findSummariesByPublishedOnBetween(from, to));
+    }
+
+    /**
+     * @param   articleId   article.id
+     * @return  the current version of the article, <code>null</code> if there is no such article
+     */
+    public ArticleVersion findVersion(final Long articleId) {
+        return articleRepository.findVersionById(articleId);
+    }
+
+    /**
+     * @return  the version of the article set {@link #findByAuthorId(Long)} returns
+     */
+    public ArticleVersion findVersionByAuthorId(final Long authorId) {
+        return articleRepository.findVersionByAuthorsId(authorId);
+    }
+
+    /**
+     * @return  the version of the article set {@link #findByKeywordName(String)} returns
+     */
+    public ArticleVersion findVersionByKeywordName(final String searchKeyword) {
+        return articleRepository.findVersionByKeywordsNameIgnoreCase(searchKeyword);
+    }
+
+    /**
+     * @return  the version of the article set {@link #findByDateRange(LocalDate, LocalDate)} returns
+     */
+    public ArticleVersion findVersionByDateRange(final LocalDate from, final LocalDate to) {
+        return articleRepository.findVersionByPublishedOnBetween(from, to);
+    }
+
+    /**
+     * Streams all articles of the date range to the consumer, one at a time.
+     * Every article is detached once consumed, so the heap usage stays flat
+     * regardless of the size of the range.
+     *
+     * @param from      start-Date
+     * @param to        end-Date
+     * @param consumer  called for every article
+     */
+    @Transactional(readOnly = true)
+    public void streamByDateRange(final LocalDate from, final LocalDate to, final Consumer<Article> consumer) {
+        log.info("----------------- streamByDateRange: " + from +" - "+ to);
+        forEachDetached(articleRepository.streamByPublishedOnBetween(from, to), consumer);
+    }
+
+    /**
+     * @see #streamByDateRange(LocalDate, LocalDate, Consumer)
+     */
+    @Transactional(readOnly = true)
+    public void streamByAuthorId(final Long authorId, final Consumer<Article> consumer) {
+        log.info("----------------- stream articles by authorId: " + authorId);
+        forEachDetached(articleRepository.streamByAuthorsId(authorId), consumer);
+    }
+
+    /**
+     * @see #streamByDateRange(LocalDate, LocalDate, Consumer)
+     */
+    @Transactional(readOnly = true)
+    public void streamByKeywordName(final String searchKeyword, final Consumer<Article> consumer) {
+        log.info("----------------- stream articles by keyword: " + searchKeyword);
+        forEachDetached(articleRepository.streamByKeywordsNameIgnoreCase(searchKeyword), consumer);
+    }
+
+    /**
+     * Sparse variant of {@link #streamByDateRange(LocalDate, LocalDate, Consumer)}:
+     * the ids are looked up at once, the requested fields are loaded and
+     * handed out {@value #ID_BATCH_SIZE} articles at a time.
+     */
+    @Transactional(readOnly = true)
+    public void streamByDateRange(final LocalDate from, final LocalDate to, final Set<ArticleField> fields,
+            final Consumer<Article> consumer) {
+        log.info("----------------- streamByDateRange: " + from +" - "+ to + ", fields: " + fields);
+        final long[] ids = toArray(articleRepository.findIdsByPublishedOnBetween(from, to));
+        Arrays.sort(ids);
+        forEachBatch(ids, fields, consumer);
+    }
+
+    /**
+     * @see #streamByDateRange(LocalDate, LocalDate, Set, Consumer)
+     */
+    @Transactional(readOnly = true)
+    public void streamByAuthorId(final Long authorId, final Set<ArticleField> fields,
+            final Consumer<Article> consumer) {
+        log.info("----------------- stream articles by authorId: " + authorId + ", fields: " + fields);
+        forEachBatch(toArray(articleRepository.findIdsByAuthorsId(authorId)), fields, consumer);
+    }
+
+    /**
+     * @see #streamByDateRange(LocalDate, LocalDate, Set, Consumer)
+     */
+    @Transactional(readOnly = true)
+    public void streamByKeywordName(final String searchKeyword, final Set<ArticleField> fields,
+            final Consumer<Article> consumer) {
+        log.info("----------------- stream articles by keyword: " + searchKeyword + ", fields: " + fields);
+        forEachBatch(findIdsByKeywordName(searchKeyword), fields, consumer);
+    }
+
+    /**
+     * Loading by id doesn't apply the tombstone filter of queries.
+     *
+     * @return  the article, <code>null</code> if there is no such article or it was deleted
+     */
+    private Article findLive(final Long articleId) {
+        final Article article = articleRepository.findOne(articleId);
+        return article == null || article.getDeletedOn() != null ? null : article;
+    }
+
+    /**
+     * Loads the articles with the given ids with as few IN-queries as
+     * possible, keeping the order of the ids.
+     */
+    private List<Article> findByIds(final long[] ids) {
+        final List<Article> articles = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            articles.addAll(articleRepository.findByIdInOrderById(batch(ids, from)));
+        }
+        return articles;
+    }
+
+    private long[] findIdsByKeywordName(final String searchKeyword) {
+        if (!keywordIndex.isReady()) {
+            return toArray(articleRepository.findIdsByKeywordsNameIgnoreCase(searchKeyword));
+        }
+        return keywordIndex.lookup(searchKeyword);
+    }
+
+    private void forEachBatch(final long[] ids, final Set<ArticleField> fields, final Consumer<Article> consumer) {
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            findFields(batch(ids, from), fields).forEach(consumer);
+        }
+    }
+
+    /**
+     * Loads the requested fields of the articles with the given ids, with
+     * one query on NEWS_ARTICLE selecting only the requested columns and one
+     * IN-query per requested association, per {@value #ID_BATCH_SIZE} ids.
+     * Id and updatedOn are always loaded, the conditional requests need
+     * them.
+     *
+     * @return  unmanaged articles in the order of the ids, deleted ones left out
+     */
+    private List<Article> findFields(final long[] ids, final Set<ArticleField> fields) {
+        final List<Article> articles = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            articles.addAll(findFields(batch(ids, from), fields));
+        }
+        return articles;
+    }
+
+    private List<Article> findFields(final List<Long> ids, final Set<ArticleField> fields) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final List<ArticleField> columns = new ArrayList<>();
+        final StringBuilder jpql = new StringBuilder("select a.id, a.updatedOn");
+        for (ArticleField field : fields) {
+            if (field != ArticleField.ID && field.getAttribute() != null) {
+                columns.add(field);
+                jpql.append(", a.").append(field.getAttribute());
+            }
+        }
+        jpql.append(" from Article a where a.id in :ids");
+
+        final Map<Long, Article> byId = new HashMap<>();
+        for (Object[] row : entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("ids", ids).getResultList()) {
+            final Article article = new Article();
+            article.setId((Long) row[0]);
+            article.setUpdatedOn((LocalDateTime) row[1]);
+            for (int i = 0; i < columns.size(); i++) {
+                setField(article, columns.get(i), row[i + 2]);
+            }
+            byId.put(article.getId(), article);
+        }
+        if (fields.contains(ArticleField.AUTHORS) && !byId.isEmpty()) {
+            for (Object[] row : articleRepository.findAuthorNamesByArticleIdIn(byId.keySet())) {
+                final Author author = new Author((String) row[2], (String) row[3]);
+                author.setId((Long) row[1]);
+                byId.get((Long) row[0]).addAuthor(author);
+            }
+        }
+        if (fields.contains(ArticleField.KEYWORDS) && !byId.isEmpty()) {
+            for (Object[] row : articleRepository.findKeywordNamesByArticleIdIn(byId.keySet())) {
+                final Keyword keyword = new Keyword((String) row[2]);
+                keyword.setId((Long) row[1]);
+                byId.get((Long) row[0]).addKeyword(keyword);
+            }
+        }
+
+        final List<Article> articles = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            final Article article = byId.get(id);
+            if (article != null) {
+                articles.add(article);
+            }
+        }
+        return articles;
+    }
+
+    private static void setField(final Article article, final ArticleField field, final Object value) {
+        switch (field) {
+            case HEADLINE:
+                article.setHeadline((String) value);
+                break;
+            case TEASER_TEXT:
+                article.setDescription((String) value);
+                break;
+            case MAIN_TEXT:
+                article.setMainText((String) value);
+                break;
+            case PUBLISHED_ON:
+                article.setPublishedOn((LocalDate) value);
+                break;
+            case VERSION:
+                article.setVersion((Long) value);
+                break;
+            default:
+                throw new IllegalArgumentException("not a column: " + field);
+        }
+    }
+
+    private static long[] toArray(final List<Long> ids) {
+        final long[] array = new long[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    private static <T> List<T> nullSafe(final List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private static List<Long> batch(final long[] ids, final int from) {
+        final List<Long> batch = new ArrayList<>(Math.min(ID_BATCH_SIZE, ids.length - from));
+        for (int i = from; i < ids.length && i < from + ID_BATCH_SIZE; i++) {
+            batch.add(ids[i]);
+        }
+        return batch;
+    }
+
+    /**
+     * Adds authors and keywords to the summaries with two IN-queries per
+     * {@value #ID_BATCH_SIZE} summaries.
+     */
+    private List<ArticleSummary> withAssociations(final List<ArticleSummary> summaries) {
+        for (int from = 0; from < summaries.size(); from += ID_BATCH_SIZE) {
+            final Map<Long, ArticleSummary> byId = new HashMap<>();
+            for (ArticleSummary summary : summaries.subList(from, Math.min(summaries.size(), from + ID_BATCH_SIZE))) {
+                byId.put(summary.getId(), summary);
+            }
+            for (Object[] row : articleRepository.findAuthorNamesByArticleIdIn(byId.keySet())) {
+                byId.get((Long) row[0]).addAuthor((Long) row[1], (String) row[2], (String) row[3]);
+            }
+            for (Object[] row : articleRepository.findKeywordNamesByArticleIdIn(byId.keySet())) {
+                byId.get((Long) row[0]).addKeyword((Long) row[1], (String) row[2]);
+            }
+        }
+        return summaries;
+    }
+
+    private void forEachDetached(final Stream<Article> articles, final Consumer<Article> consumer) {
+        try (Stream<Article> stream = articles) {
+            stream.forEach((article) -> {
+                consumer.accept(article);
+                entityManager.detach(article);
             });
-            articleRepository.save(article);
         }
     }
 
+
+    /**
+     * Replaces the detached authors and keywords of the articles by managed
+     * ones: authors and keywords are referenced by id if they exist, else by
+     * their natural key through the {@link NaturalKeyResolver}, which creates
+     * the missing ones. The managed entities are then loaded with one query
+     * per kind for the whole list.
+     */
+    private void resolveAssociations(final List<Article> articles) {
+        final Set<Long> authorIds = new HashSet<>();
+        final Set<Long> keywordIds = new HashSet<>();
+        for (Article article : articles) {
+            nullSafe(article.getAuthors()).stream().filter((author) -> !author.isNew())
+                    .forEach((author) -> authorIds.add(author.getId()));
+            nullSafe(article.getKeywords()).stream().filter((keyword) -> !keyword.isNew())
+                    .forEach((keyword) -> keywordIds.add(keyword.getId()));
+        }
+        final Map<Long, Author> authorsById = byId(authorIds, authorRepository::findAll, Author::getId);
+        final Map<Long, Keyword> keywordsById = byId(keywordIds, keywordRepository::findAll, Keyword::getId);
+
+        final Set<List<String>> authorNames = new LinkedHashSet<>();
+        final Set<String> keywordNames = new LinkedHashSet<>();
+        for (Article article : articles) {
+            nullSafe(article.getAuthors()).stream().filter((author) -> !authorsById.containsKey(author.getId()))
+                    .forEach((author) -> authorNames.add(NaturalKeyResolver.nameOf(author)));
+            nullSafe(article.getKeywords()).stream().filter((keyword) -> !keywordsById.containsKey(keyword.getId()))
+                    .forEach((keyword) -> keywordNames.add(keyword.getName()));
+        }
+        final Map<List<String>, Author> authorsByName = byNaturalKey(authorNames, naturalKeyResolver::resolveAuthors,
+                naturalKeyResolver::evictAuthors, authorRepository::findAll, Author::getId);
+        final Map<String, Keyword> keywordsByName = byNaturalKey(keywordNames, naturalKeyResolver::resolveKeywords,
+                naturalKeyResolver::evictKeywords, keywordRepository::findAll, Keyword::getId);
+
+        for (Article article : articles) {
+            final List<Author> authors = new ArrayList<>();
+            for (Author author : nullSafe(article.getAuthors())) {
+                final Author existing = authorsById.get(author.getId());
+                authors.add(existing != null ? existing : authorsByName.get(NaturalKeyResolver.nameOf(author)));
+            }
+            final List<Keyword> keywords = new ArrayList<>();
+            for (Keyword keyword : nullSafe(article.getKeywords())) {
+                final Keyword existing = keywordsById.get(keyword.getId());
+                keywords.add(existing != null ? existing : keywordsByName.get(keyword.getName()));
+            }
+            article.setAuthors(authors);
+            article.setKeywords(keywords);
+        }
+    }
+
+    /**
+     * Saves the article; changed authors or keywords are written as the
+     * difference of the join rows by the {@link ArticleAssociationWriter}.
+     * Hibernate would rewrite all join rows of a changed collection, so the
+     * article is flushed and detached before its collections are replaced.
+     *
+     * @param   article     the managed article
+     * @param   authors     the new authors, <code>null</code> if unchanged
+     * @param   keywords    the new keywords, <code>null</code> if unchanged
+     * @return  the saved article
+     */
+    private Article saveWithAssociations(final Article article, final List<Author> authors,
+            final List<Keyword> keywords) {
+        final Article saved = articleRepository.save(article);
+        if (authors != null || keywords != null) {
+            // the version check and update of the article row come first
+            entityManager.flush();
+            if (authors != null) {
+                associationWriter.replaceAuthors(saved.getId(), idsOf(saved.getAuthors(), Author::getId),
+                        idsOf(authors, Author::getId));
+            }
+            if (keywords != null) {
+                associationWriter.replaceKeywords(saved.getId(), idsOf(saved.getKeywords(), Keyword::getId),
+                        idsOf(keywords, Keyword::getId));
+            }
+            entityManager.detach(saved);
+            if (authors != null) {
+                saved.setAuthors(authors);
+            }
+            if (keywords != null) {
+                saved.setKeywords(keywords);
+            }
+        }
+        eventPublisher.publishEvent(ArticleChangedEvent.saved(saved));
+        return saved;
+    }
+
+    /**
+     * @return  whether both lists reference the same entities; the join
+     *          tables keep no order
+     */
+    private static <T> boolean sameIds(final List<T> current, final List<T> next, final Function<T, Long> idOf) {
+        return idsOf(current, idOf).equals(idsOf(next, idOf));
+    }
+
+    private static <T> Set<Long> idsOf(final List<T> entities, final Function<T, Long> idOf) {
+        final Set<Long> ids = new LinkedHashSet<>();
+        nullSafe(entities).forEach((entity) -> ids.add(idOf.apply(entity)));
+        return ids;
+    }
+
+    private static <T> Map<Long, T> byId(final Set<Long> ids, final Function<Set<Long>, Iterable<T>> finder,
+            final Function<T, Long> idOf) {
+        final Map<Long, T> entities = new HashMap<>();
+        if (!ids.isEmpty()) {
+            finder.apply(ids).forEach((entity) -> entities.put(idOf.apply(entity), entity));
+        }
+        return entities;
+    }
+
+    /**
+     * Resolves the natural keys to ids and loads the entities. Cached ids of
+     * entities deleted meanwhile are evicted and resolved once more.
+     */
+    private static <K, T> Map<K, T> byNaturalKey(final Set<K> keys, final Function<Set<K>, Map<K, Long>> resolver,
+            final Consumer<Set<K>> evictor, final Function<Set<Long>, Iterable<T>> finder,
+            final Function<T, Long> idOf) {
+        final Map<K, T> entities = new HashMap<>();
+        if (keys.isEmpty()) {
+            return entities;
+        }
+        Map<K, Long> ids = resolver.apply(keys);
+        Map<Long, T> loaded = byId(new HashSet<>(ids.values()), finder, idOf);
+        if (loaded.size() < ids.size()) {
+            evictor.accept(keys);
+            ids = resolver.apply(keys);
+            loaded = byId(new HashSet<>(ids.values()), finder, idOf);
+        }
+        for (Map.Entry<K, Long> id : ids.entrySet()) {
+            entities.put(id.getKey(), loaded.get(id.getValue()));
+        }
+        return entities;
+    }
+
 }
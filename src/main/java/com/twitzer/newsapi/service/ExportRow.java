@@ -0,0 +1,117 @@
+package com.twitzer.newsapi.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One article of an export by the {@link ArticleExporter}, with its authors
+ * and keywords. A single instance is refilled for every article, so it is
+ * only valid during the callback that hands it out.
+ *
+ * @author jschulz
+ */
+public class ExportRow {
+
+    private long id;
+    private String headline;
+    private String description;
+    private String mainText;
+    private LocalDate publishedOn;
+    private LocalDateTime updatedOn;
+    private LocalDateTime deletedOn;
+
+    private final List<Long> authorIds = new ArrayList<>();
+    private final List<String> authorFirstnames = new ArrayList<>();
+    private final List<String> authorLastnames = new ArrayList<>();
+
+    private final List<Long> keywordIds = new ArrayList<>();
+    private final List<String> keywordNames = new ArrayList<>();
+
+    void reset(final long id, final String headline, final String description, final String mainText,
+            final LocalDate publishedOn, final LocalDateTime updatedOn, final LocalDateTime deletedOn) {
+        this.id = id;
+        this.headline = headline;
+        this.description = description;
+        this.mainText = mainText;
+        this.publishedOn = publishedOn;
+        this.updatedOn = updatedOn;
+        this.deletedOn = deletedOn;
+        authorIds.clear();
+        authorFirstnames.clear();
+        authorLastnames.clear();
+        keywordIds.clear();
+        keywordNames.clear();
+    }
+
+    void addAuthor(final long authorId, final String firstname, final String lastname) {
+        authorIds.add(authorId);
+        authorFirstnames.add(firstname);
+        authorLastnames.add(lastname);
+    }
+
+    void addKeyword(final long keywordId, final String name) {
+        keywordIds.add(keywordId);
+        keywordNames.add(name);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getHeadline() {
+        return headline;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getMainText() {
+        return mainText;
+    }
+
+    public LocalDate getPublishedOn() {
+        return publishedOn;
+    }
+
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    /**
+     * @return  when the article was deleted, <code>null</code> if it wasn't
+     */
+    public LocalDateTime getDeletedOn() {
+        return deletedOn;
+    }
+
+    public int getAuthorCount() {
+        return authorIds.size();
+    }
+
+    public long getAuthorId(final int index) {
+        return authorIds.get(index);
+    }
+
+    public String getAuthorFirstname(final int index) {
+        return authorFirstnames.get(index);
+    }
+
+    public String getAuthorLastname(final int index) {
+        return authorLastnames.get(index);
+    }
+
+    public int getKeywordCount() {
+        return keywordIds.size();
+    }
+
+    public long getKeywordId(final int index) {
+        return keywordIds.get(index);
+    }
+
+    public String getKeywordName(final int index) {
+        return keywordNames.get(index);
+    }
+}
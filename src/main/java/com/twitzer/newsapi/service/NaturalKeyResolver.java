@@ -0,0 +1,248 @@
+package com.twitzer.newsapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maps the natural keys of keywords (name) and authors (firstname, lastname)
+ * to their ids.
+ * <p>
+ * Known keys are answered from a concurrent in-memory cache. All misses of a
+ * call are inserted-if-absent in one JDBC batch and read back with one select,
+ * on the caller's connection and in its transaction, so resolving never needs
+ * a second pooled connection. A rollback of the caller removes the new rows
+ * too; their ids are cached only once the caller committed.
+ * <p>
+ * The batch runs behind a JDBC savepoint (the JPA dialect has none): a
+ * concurrent writer of the same new name fails it on the unique constraint,
+ * it is rolled back to the savepoint and retried, and the rest of the
+ * caller's transaction stays. The inserts take
+ * their ids from the entity sequences, so they never collide with the ids
+ * Hibernate allocates from the same sequences.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Component
+public class NaturalKeyResolver {
+
+    /** max. number of cached keys, per kind. */
+    static final int MAX_CACHED_KEYS = 100_000;
+
+    /** a concurrent insert of the same key fails one batch; it is tried that often. */
+    static final int MAX_ATTEMPTS = 3;
+
+    /** max. number of values per IN-query. */
+    private static final int IN_BATCH_SIZE = 1000;
+
+    private static final String INSERT_KEYWORD = "INSERT INTO NEWS_KEYWORD (ID, NAME, CREATED_ON, UPDATED_ON) "
+            + "SELECT NEXT VALUE FOR " + Keyword.ID_SEQUENCE + ", :name, :now, :now FROM DUAL "
+            + "WHERE NOT EXISTS (SELECT 1 FROM NEWS_KEYWORD WHERE NAME = :name)";
+
+    private static final String SELECT_KEYWORDS = "SELECT ID, NAME FROM NEWS_KEYWORD WHERE NAME IN (:names)";
+
+    private static final String INSERT_AUTHOR = "INSERT INTO NEWS_AUTHOR (ID, FIRSTNAME, LASTNAME, CREATED_ON, UPDATED_ON) "
+            + "SELECT NEXT VALUE FOR " + Author.ID_SEQUENCE + ", :firstname, :lastname, :now, :now FROM DUAL "
+            + "WHERE NOT EXISTS (SELECT 1 FROM NEWS_AUTHOR WHERE FIRSTNAME = :firstname AND LASTNAME = :lastname)";
+
+    // a superset of the requested pairs, filtered in memory
+    private static final String SELECT_AUTHORS = "SELECT ID, FIRSTNAME, LASTNAME FROM NEWS_AUTHOR "
+            + "WHERE FIRSTNAME IN (:firstnames) AND LASTNAME IN (:lastnames)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate required;
+
+    private final Cache<String, Long> keywordIds = Caffeine.newBuilder().maximumSize(MAX_CACHED_KEYS).build();
+
+    private final Cache<List<String>, Long> authorIds = Caffeine.newBuilder().maximumSize(MAX_CACHED_KEYS).build();
+
+    @Autowired
+    public NaturalKeyResolver(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // joins the caller's transaction, a transaction of its own without one
+        this.required = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Returns the ids of the keywords with given names, creating the missing ones.
+     *
+     * @param names keyword names
+     * @return keyword.id by name, for every given name
+     */
+    public Map<String, Long> resolveKeywords(final Collection<String> names) {
+        final Map<String, Long> ids = new HashMap<>(keywordIds.getAllPresent(names));
+        final Set<String> misses = new LinkedHashSet<>(names);
+        misses.removeAll(ids.keySet());
+        if (!misses.isEmpty()) {
+            log.info("----------------- resolve {} keyword names", misses.size());
+            final Map<String, Long> upserted = upsert(() -> insertKeywords(misses), () -> selectKeywords(misses));
+            afterCommit(() -> keywordIds.putAll(upserted));
+            ids.putAll(upserted);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ids of the authors with given names, creating the missing ones.
+     *
+     * @param names authors as (firstname, lastname)
+     * @return author.id by (firstname, lastname), for every given name
+     */
+    public Map<List<String>, Long> resolveAuthors(final Collection<List<String>> names) {
+        final Map<List<String>, Long> ids = new HashMap<>(authorIds.getAllPresent(names));
+        final Set<List<String>> misses = new LinkedHashSet<>(names);
+        misses.removeAll(ids.keySet());
+        if (!misses.isEmpty()) {
+            log.info("----------------- resolve {} author names", misses.size());
+            final Map<List<String>, Long> upserted = upsert(() -> insertAuthors(misses), () -> selectAuthors(misses));
+            afterCommit(() -> authorIds.putAll(upserted));
+            ids.putAll(upserted);
+        }
+        return ids;
+    }
+
+    /**
+     * Drops cached ids, e.g. of keywords that were deleted meanwhile.
+     *
+     * @param names keyword names
+     */
+    public void evictKeywords(final Collection<String> names) {
+        keywordIds.invalidateAll(names);
+    }
+
+    /**
+     * Drops cached ids, e.g. of authors that were deleted meanwhile.
+     *
+     * @param names authors as (firstname, lastname)
+     */
+    public void evictAuthors(final Collection<List<String>> names) {
+        authorIds.invalidateAll(names);
+    }
+
+    /**
+     * The natural key of an author.
+     *
+     * @param author an author
+     * @return (firstname, lastname)
+     */
+    public static List<String> nameOf(final Author author) {
+        return Arrays.asList(author.getFirstname(), author.getLastname());
+    }
+
+
+    private <K> Map<K, Long> upsert(final Runnable insert, final Supplier<Map<K, Long>> select) {
+        return required.execute((status) -> {
+            final JdbcOperations connection = jdbcTemplate.getJdbcOperations();
+            for (int attempt = 1; ; attempt++) {
+                final Savepoint savepoint = connection.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+                try {
+                    insert.run();
+                    final Map<K, Long> ids = select.get();
+                    connection.execute((ConnectionCallback<Void>) (c) -> { c.releaseSavepoint(savepoint); return null; });
+                    return ids;
+                } catch (DataIntegrityViolationException e) {
+                    // a concurrent writer inserted one of the keys between our check and insert
+                    connection.execute((ConnectionCallback<Void>) (c) -> { c.rollback(savepoint); return null; });
+                    if (attempt == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.info("----------------- concurrent insert of the same key, retrying: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the action after the commit of the current transaction, right away without one.
+     */
+    private static void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void insertKeywords(final Set<String> names) {
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_KEYWORD, names.stream()
+                .map((name) -> new MapSqlParameterSource("name", name).addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    private Map<String, Long> selectKeywords(final Set<String> names) {
+        final Map<String, Long> ids = new HashMap<>();
+        for (List<String> batch : batches(names)) {
+            jdbcTemplate.query(SELECT_KEYWORDS, new MapSqlParameterSource("names", batch),
+                    (rs) -> { ids.put(rs.getString(2), rs.getLong(1)); });
+        }
+        return ids;
+    }
+
+    private void insertAuthors(final Set<List<String>> names) {
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_AUTHOR, names.stream()
+                .map((name) -> new MapSqlParameterSource("firstname", name.get(0))
+                        .addValue("lastname", name.get(1)).addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    private Map<List<String>, Long> selectAuthors(final Set<List<String>> names) {
+        final Map<List<String>, Long> ids = new HashMap<>();
+        for (List<List<String>> batch : batches(names)) {
+            final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("firstnames", batch.stream().map((name) -> name.get(0)).collect(Collectors.toSet()))
+                    .addValue("lastnames", batch.stream().map((name) -> name.get(1)).collect(Collectors.toSet()));
+            jdbcTemplate.query(SELECT_AUTHORS, parameters, (rs) -> {
+                final List<String> name = Arrays.asList(rs.getString(2), rs.getString(3));
+                if (names.contains(name)) {
+                    ids.put(name, rs.getLong(1));
+                }
+            });
+        }
+        return ids;
+    }
+
+    private static <T> List<List<T>> batches(final Collection<T> values) {
+        final List<T> list = new ArrayList<>(values);
+        final List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += IN_BATCH_SIZE) {
+            batches.add(list.subList(from, Math.min(from + IN_BATCH_SIZE, list.size())));
+        }
+        return batches;
+    }
+}
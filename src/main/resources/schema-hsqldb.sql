@@ -4,26 +4,36 @@ drop table NEWS_ARTICLE_AUTHOR if exists;
 drop table NEWS_ARTICLE_KEYWORD if exists;
 drop table NEWS_KEYWORD if exists;
 drop table NEWS_AUTHOR if exists;
+drop table NEWS_IDEMPOTENCY_KEY if exists;
 drop table NEWS_ARTICLE if exists;
+drop sequence ARTICLE_SEQ if exists;
+drop sequence AUTHOR_SEQ if exists;
+drop sequence KEYWORD_SEQ if exists;
 
 
 --------------------
 
+create sequence ARTICLE_SEQ start with 100 increment by 50;
+create sequence AUTHOR_SEQ start with 100 increment by 50;
+create sequence KEYWORD_SEQ start with 100 increment by 50;
+
 create table NEWS_ARTICLE
 (
-    ID INTEGER generated by default as identity (start with 10),
+    ID INTEGER NOT NULL,
     HEADLINE VARCHAR(300) NOT NULL,
     DESCRIPTION VARCHAR(500),
     TEXT VARCHAR(3000),
     PUBLISHED_ON DATE,
+    VERSION INTEGER NOT NULL,
     CREATED_ON DATE NOT NULL,
     UPDATED_ON DATE NOT NULL,
+    DELETED_ON TIMESTAMP,
     PRIMARY KEY (id)
 );
 
 create table NEWS_AUTHOR
 (
-    ID INTEGER generated by default as identity (start with 10),
+    ID INTEGER NOT NULL,
     FIRSTNAME VARCHAR(300) NOT NULL,
     LASTNAME VARCHAR(300) NOT NULL,
     CREATED_ON DATE NOT NULL,
@@ -33,7 +43,7 @@ create table NEWS_AUTHOR
 
 create table NEWS_KEYWORD
 (
-    ID INTEGER generated by default as identity (start with 10),
+    ID INTEGER NOT NULL,
     NAME VARCHAR(300) NOT NULL,
     DESCRIPTION VARCHAR(500),
     CREATED_ON DATE NOT NULL,
@@ -41,6 +51,16 @@ create table NEWS_KEYWORD
     PRIMARY KEY (id)
 );
 
+create table NEWS_IDEMPOTENCY_KEY
+(
+    IDEMPOTENCY_KEY VARCHAR(255) NOT NULL,
+    REQUEST_HASH VARCHAR(64) NOT NULL,
+    ARTICLE_ID INTEGER NOT NULL,
+    RESPONSE BLOB,
+    CREATED_ON TIMESTAMP NOT NULL,
+    PRIMARY KEY (IDEMPOTENCY_KEY)
+);
+
 -- mapping tables:
 
 create table NEWS_ARTICLE_KEYWORD
@@ -93,8 +113,19 @@ ALTER TABLE NEWS_KEYWORD
     unique(NAME)
 ;
 
+ALTER TABLE NEWS_AUTHOR
+    ADD CONSTRAINT unique_author_name
+    unique(FIRSTNAME, LASTNAME)
+;
+
 
 -- indices
 
 CREATE INDEX IDX_KEYWORD_NAME
 	ON NEWS_KEYWORD (NAME);
+
+CREATE INDEX IDX_ARTICLE_PUBLISHED_ON
+	ON NEWS_ARTICLE (PUBLISHED_ON, ID);
+
+CREATE INDEX IDX_ARTICLE_DELETED_ON
+	ON NEWS_ARTICLE (DELETED_ON);
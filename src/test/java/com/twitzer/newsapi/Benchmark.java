@@ -0,0 +1,10 @@
+package com.twitzer.newsapi;
+
+/**
+ * JUnit category of the long running throughput measurements, left out of
+ * <code>mvn test</code>; <code>mvn test -Pbenchmark</code> runs them only.
+ *
+ * @author jschulz
+ */
+public interface Benchmark {
+}
@@ -0,0 +1,106 @@
+package com.twitzer.newsapi.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.model.RsAuthor;
+import com.twitzer.newsapi.model.RsKeyword;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * The hand-written serializers write the same JSON as the reflective ones;
+ * logs the throughput of both on a list of {@value #ARTICLES} articles.
+ *
+ * @author jschulz
+ */
+@Slf4j
+public class ModelJsonModuleTest {
+
+    private static final int ARTICLES = 1000;
+
+    private static final int WARMUP_ROUNDS = 200;
+
+    private static final int ROUNDS = 500;
+
+    private final ObjectMapper streaming = new WebConfig().objectMapper();
+
+    private final ObjectMapper reflective = new Jackson2ObjectMapperBuilder()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @Test
+    public void testSameJsonAsReflective() throws Exception {
+        final RsArticle full = article(1);
+        full.setTeaserText("quote \" backslash \\ umlaut ä\nnew line");
+        full.getAuthors().add(null);
+        full.setVersion(3L);
+        final RsArticle empty = new RsArticle();
+        final RsArticle noLists = article(2);
+        noLists.setAuthors(null);
+        noLists.setKeywords(Collections.emptyList());
+        noLists.setPublishedOn(LocalDate.of(10000, 1, 1));
+
+        for (Object value : Arrays.asList(full, empty, noLists, Arrays.asList(full, empty),
+                new RsAuthor(1L, "Lorenz", null), new RsKeyword(null, "Berlin"))) {
+            assertThat(streaming.writeValueAsString(value), is(reflective.writeValueAsString(value)));
+        }
+        assertThat(streaming.writeValueAsString(empty), is("{\"id\":null,\"headline\":null,\"teaserText\":null,"
+                + "\"mainText\":null,\"publishedOn\":null,\"authors\":null,\"keywords\":null,\"version\":null}"));
+        assertThat(streaming.readValue(streaming.writeValueAsString(full), RsArticle.class), is(full));
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        final List<RsArticle> articles = new ArrayList<>();
+        for (int i = 0; i < ARTICLES; i++) {
+            articles.add(article(i));
+        }
+        final ObjectWriter reflectiveWriter = reflective.writerFor(reflective.getTypeFactory()
+                .constructCollectionType(List.class, RsArticle.class));
+        final ObjectWriter streamingWriter = streaming.writerFor(streaming.getTypeFactory()
+                .constructCollectionType(List.class, RsArticle.class));
+
+        run(reflectiveWriter, articles, WARMUP_ROUNDS);
+        run(streamingWriter, articles, WARMUP_ROUNDS);
+        final long reflectiveNanos = run(reflectiveWriter, articles, ROUNDS);
+        final long streamingNanos = run(streamingWriter, articles, ROUNDS);
+
+        log.info("----------------- serialize articles/s: reflective {}, streaming {}",
+                (long) ARTICLES * ROUNDS * 1_000_000_000L / reflectiveNanos,
+                (long) ARTICLES * ROUNDS * 1_000_000_000L / streamingNanos);
+        assertThat(streamingWriter.writeValueAsString(articles), is(reflectiveWriter.writeValueAsString(articles)));
+    }
+
+    private static long run(final ObjectWriter writer, final List<RsArticle> articles, final int rounds) throws Exception {
+        final long start = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < rounds; i++) {
+            bytes += writer.writeValueAsBytes(articles).length;
+        }
+        assertThat(bytes > 0, is(true));
+        return System.nanoTime() - start;
+    }
+
+    private static RsArticle article(final int i) {
+        final RsArticle article = new RsArticle();
+        article.setId((long) i);
+        article.setHeadline("headline " + i);
+        article.setTeaserText("teaser text of article " + i);
+        article.setMainText("main text of article " + i + ", a little longer than the teaser text");
+        article.setPublishedOn(LocalDate.of(2016, 1 + i % 12, 1 + i % 28));
+        article.setAuthors(new ArrayList<>(Arrays.asList(new RsAuthor(1L, "Lorenz", "Vossen"),
+                new RsAuthor(2L, "Jochen", "König"))));
+        article.setKeywords(new ArrayList<>(Arrays.asList(new RsKeyword(1L, "Nahverkehr"),
+                new RsKeyword(2L, "Berlin"), new RsKeyword((long) i, "keyword " + i))));
+        return article;
+    }
+}
@@ -0,0 +1,108 @@
+package com.twitzer.newsapi.configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+
+/**
+ *
+ * @author jschulz
+ */
+public class VirtualThreadConfigTest {
+
+    @Test
+    public void testJdbcPoolLimiter() {
+        final DataSource dataSource = new DataSource();
+        dataSource.setUrl("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1");
+        dataSource.setMaxActive(100);
+        dataSource.setMaxIdle(100);
+        dataSource.setMinIdle(10);
+        dataSource.setInitialSize(10);
+        dataSource.setFairQueue(false);
+
+        new VirtualThreadConfig.JdbcPoolLimiter(4).postProcessBeforeInitialization(dataSource, "dataSource");
+        assertThat(dataSource.getMaxActive(), is(4));
+        assertThat(dataSource.getMaxIdle(), is(4));
+        assertThat(dataSource.getMinIdle(), is(4));
+        assertThat(dataSource.getInitialSize(), is(4));
+        assertThat(dataSource.isFairQueue(), is(true));
+
+        // a smaller pool stays as it is
+        new VirtualThreadConfig.JdbcPoolLimiter(8).postProcessBeforeInitialization(dataSource, "dataSource");
+        assertThat(dataSource.getMaxActive(), is(4));
+
+        // without virtual threads nothing is changed
+        final DataSource platform = new DataSource();
+        platform.setUrl("jdbc:h2:mem:testdb");
+        platform.setMaxActive(100);
+        new VirtualThreadConfig.JdbcPoolLimiter(0).postProcessBeforeInitialization(platform, "dataSource");
+        assertThat(platform.getMaxActive(), is(100));
+
+        // a database server is waited for on the socket, its pool isn't capped
+        final DataSource server = new DataSource();
+        server.setUrl("jdbc:h2:tcp://db/news");
+        server.setMaxActive(100);
+        server.setFairQueue(false);
+        new VirtualThreadConfig.JdbcPoolLimiter(4).postProcessBeforeInitialization(server, "dataSource");
+        assertThat(server.getMaxActive(), is(100));
+        assertThat(server.isFairQueue(), is(false));
+    }
+
+    @Test
+    public void testIsEmbeddedH2() {
+        assertThat(VirtualThreadConfig.JdbcPoolLimiter.isEmbeddedH2("jdbc:h2:mem:testdb"), is(true));
+        assertThat(VirtualThreadConfig.JdbcPoolLimiter.isEmbeddedH2("jdbc:h2:file:./data/news"), is(true));
+        assertThat(VirtualThreadConfig.JdbcPoolLimiter.isEmbeddedH2("jdbc:h2:tcp://db/news"), is(false));
+        assertThat(VirtualThreadConfig.JdbcPoolLimiter.isEmbeddedH2("jdbc:h2:ssl://db/news"), is(false));
+        assertThat(VirtualThreadConfig.JdbcPoolLimiter.isEmbeddedH2("jdbc:postgresql://db/news"), is(false));
+        assertThat(VirtualThreadConfig.JdbcPoolLimiter.isEmbeddedH2(null), is(false));
+    }
+
+    @Test
+    public void testContainerCustomizer() {
+        final TomcatEmbeddedServletContainerFactory container = new TomcatEmbeddedServletContainerFactory();
+        new VirtualThreadConfig().virtualThreadsCustomizer().customize(container);
+        assertThat(container.getTomcatConnectorCustomizers().size(), is(VirtualThreads.unmountsInSynchronized() ? 1 : 0));
+        Assume.assumeTrue(VirtualThreads.isAvailable());
+
+        final Connector connector = new Connector(TomcatEmbeddedServletContainerFactory.DEFAULT_PROTOCOL);
+        VirtualThreadConfig.useVirtualThreads(connector);
+        assertThat(((AbstractProtocol<?>) connector.getProtocolHandler()).getExecutor(), notNullValue());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnavailable() {
+        Assume.assumeTrue(!VirtualThreads.isAvailable());
+        VirtualThreads.factory("unavailable-");
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        Assume.assumeTrue(VirtualThreads.isAvailable());
+        final ThreadFactory factory = VirtualThreads.factory("test-");
+        final Thread thread = factory.newThread(() -> { });
+        assertThat(thread.getName(), is("test-0"));
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("task-");
+        final Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+        assertThat(name.get(), is("task-0"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFeatureVersion() {
+        assertThat(VirtualThreads.featureVersion("1.8"), is(8));
+        assertThat(VirtualThreads.featureVersion("21"), is(21));
+        assertThat(VirtualThreads.featureVersion("24"), is(24));
+    }
+}
@@ -0,0 +1,226 @@
+package com.twitzer.newsapi.configuration;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.Benchmark;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.JdbcInterceptor;
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Request throughput at 1k, 5k and 9k concurrent clients over HTTP, on
+ * Tomcat's pool of 200 platform threads against one virtual thread per
+ * request, and on virtual threads with the pool capped by
+ * <code>virtual-threads.cap-jdbc-pool</code>. Every SQL statement waits
+ * {@value #ROUND_TRIP_MILLIS} ms holding its connection, for the network
+ * round trip of a database server, which the in-memory H2 doesn't have.
+ * The pool has {@value #CONNECTIONS} connections, more than Tomcat has
+ * threads, so without the cap only the threads differ. The virtual threads
+ * run on Java 21+ only.
+ * Logs the numbers, checks only that every request was answered with 200.
+ * Runs with <code>mvn test -Pbenchmark</code>.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@Category(Benchmark.class)
+public class VirtualThreadsBenchmarkTest {
+
+    /** 9k, not 10k, see above. */
+    private static final int[] CLIENTS = { 1000, 5000, 9000 };
+
+    private static final int CONNECTIONS = 400;
+
+    private static final long ROUND_TRIP_MILLIS = 5;
+
+    private static final String PATH = "/articles/author/1";
+
+    @Test
+    public void testPlatformThreads() throws IOException {
+        run("platform", "virtual-threads.enabled", "false");
+    }
+
+    @Test
+    public void testVirtualThreads() throws IOException {
+        Assume.assumeTrue(VirtualThreads.unmountsInSynchronized());
+        run("virtual", "virtual-threads.enabled", "true");
+    }
+
+    @Test
+    public void testVirtualThreadsCappedPool() throws IOException {
+        Assume.assumeTrue(VirtualThreads.unmountsInSynchronized());
+        run("virtual, capped pool", "virtual-threads.enabled", "true", "virtual-threads.cap-jdbc-pool", "true");
+    }
+
+    /**
+     * Starts the application with a database of its own, so closing it
+     * doesn't drop the schema of the other test contexts, and measures it
+     * after a warm-up run for the class loading and JIT compilation.
+     *
+     * @param keysAndValues the properties of the variant, ahead of <code>application.properties</code>
+     */
+    private void run(final String threads, final String... keysAndValues) throws IOException {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.jmx.enabled", false);
+        properties.put("ingest.journal.path", "");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.tomcat.max-active", CONNECTIONS);
+        properties.put("spring.datasource.tomcat.max-idle", CONNECTIONS);
+        properties.put("spring.datasource.tomcat.jdbc-interceptors", RoundTrip.class.getName());
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        try (EmbeddedWebApplicationContext context = (EmbeddedWebApplicationContext) new SpringApplicationBuilder(Application.class)
+                .initializers((applicationContext) -> {
+                    applicationContext.getEnvironment().getPropertySources()
+                            .addFirst(new MapPropertySource("benchmark", properties));
+                    applicationContext.getBeanFactory()
+                            .registerSingleton("benchmarkAcceptCount", acceptCount(CLIENTS[CLIENTS.length - 1]));
+                })
+                .run()) {
+
+            final int port = context.getEmbeddedServletContainer().getPort();
+            final int connections = context.getBean(DataSource.class).getMaxActive();
+            get(port, CLIENTS[0]);
+            for (int clients : CLIENTS) {
+                final long started = System.nanoTime();
+                assertThat(get(port, clients), is(clients));
+                final long nanos = System.nanoTime() - started;
+                log.info("----------------- {} clients on {} threads, {} connections: {} requests/s, {} ms",
+                        clients, threads, connections, clients * 1_000_000_000L / Math.max(1, nanos),
+                        TimeUnit.NANOSECONDS.toMillis(nanos));
+            }
+        }
+    }
+
+    /**
+     * Lets all clients connect at once instead of 100 and retrying the
+     * others with the backoff of TCP.
+     */
+    private static EmbeddedServletContainerCustomizer acceptCount(final int clients) {
+        return (container) -> ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(
+                (connector) -> connector.setProperty("acceptCount", String.valueOf(clients)));
+    }
+
+    /**
+     * Opens a connection per client, all at once, sends one GET on each and
+     * reads the responses, on one thread.
+     *
+     * @return  the number of 200 responses
+     */
+    private static int get(final int port, final int clients) throws IOException {
+        final byte[] request = ("GET " + PATH + " HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\n"
+                + "Content-Type: application/json\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+        int open = 0;
+        int ok = 0;
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < clients; i++, open++) {
+                final SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.connect(new InetSocketAddress("localhost", port));
+                channel.register(selector, SelectionKey.OP_CONNECT, new Client(request));
+            }
+            while (open > 0 && System.nanoTime() < deadline) {
+                selector.select(1000);
+                for (final Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext();) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    final SocketChannel channel = (SocketChannel) key.channel();
+                    final Client client = (Client) key.attachment();
+                    if (key.isConnectable()) {
+                        channel.finishConnect();
+                        key.interestOps(SelectionKey.OP_WRITE);
+                    } else if (key.isWritable()) {
+                        channel.write(client.request);
+                        if (!client.request.hasRemaining()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                        }
+                    } else if (key.isReadable()) {
+                        buffer.clear();
+                        if (channel.read(buffer) < 0) {
+                            channel.close();
+                            open--;
+                            ok += client.isOk() ? 1 : 0;
+                        } else {
+                            client.read(buffer);
+                        }
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        }
+        return ok;
+    }
+
+    private static class Client {
+
+        private static final String OK = "HTTP/1.1 200";
+
+        private final ByteBuffer request;
+
+        private final StringBuilder status = new StringBuilder();
+
+        Client(final byte[] request) {
+            this.request = ByteBuffer.wrap(request);
+        }
+
+        void read(final ByteBuffer buffer) {
+            buffer.flip();
+            while (status.length() < OK.length() && buffer.hasRemaining()) {
+                status.append((char) buffer.get());
+            }
+        }
+
+        boolean isOk() {
+            return OK.contentEquals(status);
+        }
+    }
+
+    /**
+     * Waits {@value #ROUND_TRIP_MILLIS} ms per statement created, holding
+     * the connection and outside of H2's monitors, as a database server
+     * would. Public for the pool to instantiate it by name.
+     */
+    public static class RoundTrip extends JdbcInterceptor {
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                Thread.sleep(ROUND_TRIP_MILLIS);
+            }
+            return super.invoke(proxy, method, args);
+        }
+
+        @Override
+        public void reset(final ConnectionPool parent, final PooledConnection con) {
+        }
+    }
+}
@@ -1,34 +1,75 @@
 package com.twitzer.newsapi.controller;
 
+import com.twitzer.newsapi.configuration.WebConfig;
 import com.twitzer.newsapi.controller.ArticlesController;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.twitzer.newsapi.ingest.IngestQueue;
+import com.twitzer.newsapi.ingest.IngestRejectedException;
 import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.RsArticle;
+import com.twitzer.newsapi.model.RsIngestStatus;
 import com.twitzer.newsapi.model.UpdateArticle;
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
+import com.twitzer.newsapi.search.IndexNotReadyException;
+import com.twitzer.newsapi.service.ArticleCursor;
+import com.twitzer.newsapi.service.ArticleExporter;
+import com.twitzer.newsapi.service.ArticleField;
 import com.twitzer.newsapi.service.ArticleService;
+import com.twitzer.newsapi.service.ExportRow;
 import java.sql.Date;
 import java.time.Instant;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.Matcher;
 import static org.hamcrest.core.StringContains.containsString;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
 
 /**
  *
@@ -41,11 +82,18 @@ public class ArticlesControllerTest {
 
     private MockMvc mvc;
     private ArticleService articleService;
+    private ArticleResponseCache responseCache;
+    private IngestQueue ingestQueue;
+    private ArticleExporter articleExporter;
 
     @Before
     public void setUp() {
         articleService = mock(ArticleService.class);
-        mvc = MockMvcBuilders.standaloneSetup(new ArticlesController(articleService)).build();
+        ingestQueue = mock(IngestQueue.class);
+        articleExporter = mock(ArticleExporter.class);
+        final ObjectMapper jsonMapper = new WebConfig().objectMapper();
+        responseCache = new ArticleResponseCache(new ConcurrentMapCacheManager(ArticleService.ARTICLE_RESPONSE_CACHE), jsonMapper);
+        mvc = MockMvcBuilders.standaloneSetup(new ArticlesController(articleService, jsonMapper, responseCache, ingestQueue, articleExporter)).build();
     }
 
     @Test
@@ -89,6 +137,132 @@ public class ArticlesControllerTest {
     }
 
 
+    @Test
+    public void testCreateArticleWithIdempotencyKey() throws Exception {
+        final CreateArticle article = new CreateArticle("headline", "subheadline", "text", Date.valueOf("2014-12-12"));
+        final String content = objectMapper.writeValueAsString(article);
+        final Article created = new Article();
+        created.setId(42L);
+        created.setHeadline("headline");
+        created.setPublishedOn(LocalDate.parse("2014-12-12"));
+        when(articleService.createArticle(anyObject(), any(IdempotencyKey.class), anyObject())).thenAnswer((invocation) -> {
+            final IdempotencyKey recorded = (IdempotencyKey) invocation.getArguments()[1];
+            recorded.setArticleId(created.getId());
+            recorded.setResponse(((Function<Article, byte[]>) invocation.getArguments()[2]).apply(created));
+            return created;
+        });
+
+        // first request: creates
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, "key-1").content(content))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(ArticlesController.IDEMPOTENT_REPLAYED_HEADER))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(42));
+        final ArgumentCaptor<IdempotencyKey> key = ArgumentCaptor.forClass(IdempotencyKey.class);
+        verify(articleService, times(1)).createArticle(anyObject(), key.capture(), anyObject());
+        Assert.assertEquals("key-1", key.getValue().getId());
+
+        // retry: replays the first response, not the article as changed meanwhile, nor its deletion
+        when(articleService.findIdempotencyKey("key-1")).thenReturn(key.getValue());
+        created.setHeadline("changed headline");
+        when(articleService.findOne(42L)).thenReturn(null);
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, "key-1").content(content))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(ArticlesController.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(42))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("headline"));
+        verify(articleService, times(1)).createArticle(anyObject(), any(IdempotencyKey.class), anyObject());
+
+        // same key, another request
+        article.setHeadline("another headline");
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                    .content(objectMapper.writeValueAsString(article)))
+                .andExpect(status().isUnprocessableEntity());
+
+        // a concurrent request won the race for the key
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(articleService).createArticle(anyObject(), any(IdempotencyKey.class), anyObject());
+        final IdempotencyKey raced = new IdempotencyKey("key-2", key.getValue().getRequestHash());
+        raced.setArticleId(42L);
+        raced.setResponse(key.getValue().getResponse());
+        when(articleService.findIdempotencyKey("key-2")).thenReturn(null, raced);
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, "key-2").content(content))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(ArticlesController.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("headline"));
+
+        // a key recorded without the response is answered from the article, 410 if it is deleted
+        final IdempotencyKey withoutResponse = new IdempotencyKey("key-3", key.getValue().getRequestHash());
+        withoutResponse.setArticleId(42L);
+        when(articleService.findIdempotencyKey("key-3")).thenReturn(withoutResponse);
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, "key-3").content(content))
+                .andExpect(status().isGone());
+        when(articleService.findOne(42L)).thenReturn(created);
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, "key-3").content(content))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("changed headline"));
+
+        // invalid key
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header(ArticlesController.IDEMPOTENCY_KEY_HEADER, " ").content(content))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testCreateArticleAsync() throws Exception {
+        final CreateArticle article = new CreateArticle("headline", "subheadline", "text", Date.valueOf("2014-12-12"));
+        when(ingestQueue.submit(anyObject())).thenReturn(new RsIngestStatus("t1", RsIngestStatus.QUEUED, null, null));
+
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header("Prefer", "respond-async")
+                    .content(objectMapper.writeValueAsString(article)))
+                .andExpect(status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LOCATION, "http://localhost/articles/ingest/t1"))
+                .andExpect(MockMvcResultMatchers.header().string("Preference-Applied", "respond-async"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ticket").value("t1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(RsIngestStatus.QUEUED));
+
+        verify(ingestQueue, times(1)).submit(anyObject());
+        verify(articleService, never()).createArticle(anyObject());
+
+        // among other preferences, RFC 7240
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header("Prefer", "return=minimal, Respond-Async; foo=bar, wait=10")
+                    .content(objectMapper.writeValueAsString(article)))
+                .andExpect(status().isAccepted());
+        verify(ingestQueue, times(2)).submit(anyObject());
+        verify(articleService, never()).createArticle(anyObject());
+        Assert.assertFalse(ArticlesController.prefersAsync("return=respond-async"));
+        Assert.assertFalse(ArticlesController.prefersAsync(null));
+
+        // the queue is full
+        reset(ingestQueue);
+        doThrow(new IngestRejectedException("full")).when(ingestQueue).submit(anyObject());
+        mvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .header("Prefer", "respond-async")
+                    .content(objectMapper.writeValueAsString(article)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    public void testGetIngestStatus() throws Exception {
+        when(ingestQueue.getStatus("t1")).thenReturn(new RsIngestStatus("t1", RsIngestStatus.DONE, 42L, null));
+
+        mvc.perform(MockMvcRequestBuilders.get("/articles/ingest/t1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(RsIngestStatus.DONE))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(42));
+
+        mvc.perform(MockMvcRequestBuilders.get("/articles/ingest/unknown").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void testGetArticleByDateRange() throws Exception {
         System.out.println("----- getArticleByDateRange");
@@ -118,6 +292,83 @@ public class ArticlesControllerTest {
 
     }
 
+    @Test
+    public void testGetArticlePageByDateRange() throws Exception {
+        final LocalDate from = LocalDate.parse("2013-12-12");
+        final LocalDate to = LocalDate.parse("2015-12-12");
+        final List<Article> articles = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Article article = new Article();
+            article.setId(id);
+            article.setPublishedOn(LocalDate.parse("2014-01-01"));
+            articles.add(article);
+        }
+        when(articleService.findByDateRange(eq(from), eq(to), isNull(ArticleCursor.class), eq(3))).thenReturn(articles);
+
+        final String next = new ArticleCursor(LocalDate.parse("2014-01-01"), 2L).encode();
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2013-12-12/2015-12-12?limit=2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.articles.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(next));
+
+        // last page
+        when(articleService.findByDateRange(eq(from), eq(to), eq(ArticleCursor.decode(next)), eq(3)))
+                .thenReturn(articles.subList(2, 3));
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2013-12-12/2015-12-12?limit=2&next=" + next)
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.articles.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+
+        // invalid limit and token
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2013-12-12/2015-12-12?limit=0").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2013-12-12/2015-12-12?limit=2&next=garbage").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2015-12-12/2013-12-12?limit=2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(articleService, times(2)).findByDateRange(any(LocalDate.class), any(LocalDate.class), any(ArticleCursor.class), eq(3));
+    }
+
+    @Test
+    public void testStreamArticlesAsNdjson() throws Exception {
+        final Answer<Void> twoArticles = (invocation) -> {
+            Consumer<Article> consumer = (Consumer<Article>) invocation.getArguments()[invocation.getArguments().length - 1];
+            for (long id = 1; id <= 2; id++) {
+                Article article = new Article();
+                article.setId(id);
+                article.setHeadline("headline " + id);
+                article.setPublishedOn(LocalDate.parse("2014-01-01"));
+                consumer.accept(article);
+            }
+            return null;
+        };
+        doAnswer(twoArticles).when(articleService).streamByDateRange(any(LocalDate.class), any(LocalDate.class), any(Consumer.class));
+        doAnswer(twoArticles).when(articleService).streamByAuthorId(eq(1L), any(Consumer.class));
+        doAnswer(twoArticles).when(articleService).streamByKeywordName(eq("berlin"), any(Consumer.class));
+
+        final String expected = "{\"id\":1,\"headline\":\"headline 1\",\"teaserText\":null,\"mainText\":null,"
+                + "\"publishedOn\":\"2014-01-01\",\"authors\":null,\"keywords\":null,\"version\":null}\n"
+                + "{\"id\":2,\"headline\":\"headline 2\",\"teaserText\":null,\"mainText\":null,"
+                + "\"publishedOn\":\"2014-01-01\",\"authors\":null,\"keywords\":null,\"version\":null}\n";
+
+        for (String url : new String[] { "/articles/date/2013-12-12/2015-12-12", "/articles/author/1", "/articles/search/berlin" }) {
+            mvc.perform(MockMvcRequestBuilders.get(url).contentType(MediaType.APPLICATION_JSON)
+                        .accept(ArticlesController.APPLICATION_NDJSON_VALUE))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(ArticlesController.APPLICATION_NDJSON_VALUE))
+                    .andExpect(MockMvcResultMatchers.content().string(expected));
+        }
+
+        // invalid date-range
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2013-12-12/2012-12-12").contentType(MediaType.APPLICATION_JSON)
+                    .accept(ArticlesController.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isBadRequest());
+
+        verify(articleService, times(1)).streamByDateRange(any(LocalDate.class), any(LocalDate.class), any(Consumer.class));
+    }
+
     @Test
     public void invalid_update_article_empty_request() throws Exception {
 
@@ -194,6 +445,45 @@ public class ArticlesControllerTest {
         verify(articleService, times(1)).updateArticle(anyObject());
     }
 
+    @Test
+    public void testPatchArticle() throws Exception {
+        final Article patched = new Article();
+        patched.setId(16L);
+        patched.setHeadline("headline");
+        patched.setVersion(4L);
+        final ArgumentCaptor<Article> changes = ArgumentCaptor.forClass(Article.class);
+        when(articleService.patchArticle(eq(16L), changes.capture())).thenReturn(patched);
+
+        mvc.perform(MockMvcRequestBuilders.patch("/articles/16").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"headline\":\"headline\",\"version\":3}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("headline"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").value(4));
+
+        // only the fields sent are set
+        Assert.assertEquals("headline", changes.getValue().getHeadline());
+        Assert.assertEquals(Long.valueOf(3L), changes.getValue().getVersion());
+        Assert.assertNull(changes.getValue().getMainText());
+        Assert.assertNull(changes.getValue().getAuthors());
+
+        // a blank headline is invalid
+        mvc.perform(MockMvcRequestBuilders.patch("/articles/16").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"headline\":\" \"}"))
+                .andExpect(status().isBadRequest());
+
+        // no such article
+        mvc.perform(MockMvcRequestBuilders.patch("/articles/17").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"headline\":\"headline\"}"))
+                .andExpect(status().isNotFound());
+
+        // changed meanwhile
+        when(articleService.patchArticle(eq(18L), any(Article.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Article.class, 18L));
+        mvc.perform(MockMvcRequestBuilders.patch("/articles/18").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"headline\":\"headline\",\"version\":3}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void testDeleteArticle() throws Exception {
         System.out.println("----- deleteArticle");
@@ -215,6 +505,24 @@ public class ArticlesControllerTest {
 
     }
 
+    @Test
+    public void testDeleteArticles() throws Exception {
+        when(articleService.deleteArticles(Arrays.asList(1L, 5L, 7L))).thenReturn(2);
+        when(articleService.deleteArticlesByDateRange(LocalDate.parse("2014-01-01"), LocalDate.parse("2015-01-01"))).thenReturn(3);
+
+        mvc.perform(MockMvcRequestBuilders.delete("/articles/").param("ids", "1,5,7").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(2));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/articles/date/2014-01-01/2015-01-01").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(3));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/articles/date/2015-01-01/2014-01-01").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(articleService, never()).deleteArticlesByDateRange(LocalDate.parse("2015-01-01"), LocalDate.parse("2014-01-01"));
+    }
+
     @Test
     public void testGetArticle() throws Exception {
         System.out.println("----- getArticle");
@@ -236,6 +544,156 @@ public class ArticlesControllerTest {
 
     }
 
+    @Test
+    public void testGetArticleFromResponseCache() throws Exception {
+        Article article = new Article();
+        article.setId(7L);
+        article.setHeadline("cached");
+        article.setPublishedOn(LocalDate.parse("2014-12-12"));
+        when(articleService.findOne(7L)).thenReturn(article);
+        when(articleService.findVersion(7L)).thenReturn(ArticleVersion.of(article));
+
+        final String expected = "{\"id\":7,\"headline\":\"cached\",\"teaserText\":null,\"mainText\":null,"
+                + "\"publishedOn\":\"2014-12-12\",\"authors\":null,\"keywords\":null,\"version\":null}";
+
+        // miss: loaded, serialized and cached
+        mvc.perform(MockMvcRequestBuilders.get("/articles/7").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(MockMvcResultMatchers.content().string(expected));
+
+        // hits: served from the cached bytes
+        mvc.perform(MockMvcRequestBuilders.get("/articles/7").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(MockMvcResultMatchers.content().string(expected));
+
+        byte[] gzipped = mvc.perform(MockMvcRequestBuilders.get("/articles/7").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            Assert.assertEquals(expected, StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        }
+
+        verify(articleService, times(1)).findOne(7L);
+    }
+
+    @Test
+    public void testConditionalGetArticle() throws Exception {
+        final LocalDateTime updatedOn = LocalDateTime.parse("2016-01-01T10:15:30");
+        Article article = new Article();
+        article.setId(8L);
+        article.setUpdatedOn(updatedOn);
+        article.setVersion(3L);
+        final ArticleVersion version = ArticleVersion.of(article);
+        when(articleService.findVersion(8L)).thenReturn(version);
+        when(articleService.findOne(8L)).thenReturn(article);
+
+        // not cached yet: answered by the version lookup alone
+        mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_NONE_MATCH, version.getETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, version.getETag()))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING));
+        verify(articleService, never()).findOne(8L);
+
+        // outdated copy
+        mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, version.getETag()))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LAST_MODIFIED, CoreMatchers.notNullValue()));
+
+        // cached: no lookup needed
+        mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_NONE_MATCH, version.getETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING));
+        verify(articleService, times(1)).findOne(8L);
+        // two conditional lookups and the check after caching
+        verify(articleService, times(3)).findVersion(8L);
+
+        // every representation has an ETag of its own
+        Assert.assertEquals("\"v3\"", version.getETag());
+        mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                    .header(HttpHeaders.IF_NONE_MATCH, version.getETag()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"v3-gz\""));
+        mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                    .header(HttpHeaders.IF_NONE_MATCH, version.getETag("gz")))
+                .andExpect(status().isNotModified());
+        for (String binaryType : new String[] { ArticlesController.APPLICATION_SMILE_VALUE, ArticlesController.APPLICATION_CBOR_VALUE }) {
+            final String eTag = version.getETag(ArticlesController.variantOf(binaryType));
+            mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                        .accept(binaryType).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, version.getETag("gz")))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag));
+            mvc.perform(MockMvcRequestBuilders.get("/articles/8").contentType(MediaType.APPLICATION_JSON)
+                        .accept(binaryType).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified());
+        }
+        Assert.assertEquals("smile", ArticlesController.variantOf(ArticlesController.APPLICATION_SMILE_VALUE));
+        Assert.assertEquals("cbor", ArticlesController.variantOf(ArticlesController.APPLICATION_CBOR_VALUE));
+        Assert.assertNull(ArticlesController.variantOf("application/json, */*"));
+    }
+
+    @Test
+    public void testUpdateWhileCachingArticle() throws Exception {
+        final Article article = new Article();
+        article.setId(9L);
+        article.setHeadline("old");
+        article.setUpdatedOn(LocalDateTime.parse("2016-01-01T10:15:30"));
+        article.setVersion(1L);
+        when(articleService.findOne(9L)).thenReturn(article);
+        // an update committed between loading and caching
+        when(articleService.findVersion(9L)).thenReturn(new ArticleVersion(LocalDateTime.parse("2016-01-01T10:15:31"), 1L, 2L));
+
+        mvc.perform(MockMvcRequestBuilders.get("/articles/9").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("old"));
+        Assert.assertNull(responseCache.get(9L));
+    }
+
+    @Test
+    public void testConditionalGetArticleLists() throws Exception {
+        final LocalDateTime updatedOn = LocalDateTime.parse("2016-01-01T10:15:30");
+        final ArticleVersion version = new ArticleVersion(updatedOn, 1L);
+        Article article = new Article();
+        article.setId(9L);
+        article.setUpdatedOn(updatedOn);
+        final List<Article> articles = new ArrayList<>();
+        articles.add(article);
+
+        when(articleService.findVersionByAuthorId(1L)).thenReturn(version);
+        when(articleService.findVersionByKeywordName("berlin")).thenReturn(version);
+        when(articleService.findVersionByDateRange(LocalDate.parse("2013-12-12"), LocalDate.parse("2015-12-12"))).thenReturn(version);
+        when(articleService.findByAuthorId(1L)).thenReturn(articles);
+        when(articleService.findByKeywordName("berlin")).thenReturn(articles);
+        when(articleService.findByDateRange(LocalDate.parse("2013-12-12"), LocalDate.parse("2015-12-12"))).thenReturn(articles);
+
+        for (String url : new String[] { "/articles/date/2013-12-12/2015-12-12", "/articles/author/1", "/articles/search/berlin" }) {
+            // first request: the ETag is computed from the loaded articles
+            mvc.perform(MockMvcRequestBuilders.get(url).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, version.getETag()));
+
+            mvc.perform(MockMvcRequestBuilders.get(url).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, version.getETag()))
+                    .andExpect(status().isNotModified())
+                    .andExpect(MockMvcResultMatchers.content().string(""));
+        }
+
+        verify(articleService, times(1)).findByAuthorId(1L);
+        verify(articleService, times(1)).findByKeywordName("berlin");
+        verify(articleService, times(1)).findByDateRange(LocalDate.parse("2013-12-12"), LocalDate.parse("2015-12-12"));
+    }
+
     @Test
     public void testGetArticleByAuthor() throws Exception {
         System.out.println("----- getArticleByAuthor");
@@ -262,6 +720,358 @@ public class ArticlesControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testGetArticleSummaries() throws Exception {
+        System.out.println("----- getArticleSummaries");
+
+        final ArticleSummary summary = new ArticleSummary(1L, "headline", "teaser", LocalDate.parse("2014-01-01"),
+                LocalDateTime.parse("2014-01-02T10:00:00"));
+        summary.addAuthor(2L, "Jochen", "König");
+        summary.addKeyword(2L, "Berlin");
+        when(articleService.findSummariesByDateRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Collections.singletonList(summary));
+        when(articleService.findSummariesByAuthorId(2L)).thenReturn(Collections.singletonList(summary));
+        when(articleService.findSummariesByKeywordName("berlin")).thenReturn(Collections.singletonList(summary));
+
+        for (String url : new String[] { "/articles/date/2013-12-12/2015-12-12", "/articles/author/2", "/articles/search/berlin" }) {
+            mvc.perform(MockMvcRequestBuilders.get(url).param("view", "summary").contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG,
+                            new ArticleVersion(summary.getUpdatedOn(), 1L).getETag()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].teaserText").value("teaser"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].authors[0].firstname").value("Jochen"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].keywords[0].name").value("Berlin"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].mainText").doesNotExist());
+        }
+
+        // invalid date-range
+        mvc.perform(MockMvcRequestBuilders.get("/articles/date/2013-12-12/2012-12-12").param("view", "summary")
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        // the full representation stays the default
+        verify(articleService, never()).findByAuthorId(2L);
+        mvc.perform(MockMvcRequestBuilders.get("/articles/author/2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(articleService, times(1)).findByAuthorId(2L);
+    }
+
+    @Test
+    public void testCreateArticles() throws Exception {
+        System.out.println("----- createArticles");
+        final CreateArticle valid = new CreateArticle("headline", "subheadline", "text", Date.valueOf("2014-12-12"));
+        final CreateArticle invalid = new CreateArticle(null, "subheadline", "text", Date.valueOf("2014-12-12"));
+        when(articleService.createArticles(anyObject())).thenAnswer((invocation) -> {
+            final List<Article> articles = (List<Article>) invocation.getArguments()[0];
+            long id = 100;
+            for (Article article : articles) {
+                article.setId(id++);
+            }
+            return articles;
+        });
+
+        mvc.perform(MockMvcRequestBuilders.put("/articles/batch").contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Arrays.asList(valid, invalid, valid))))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(201))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(100))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(400))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].message").value("There are invalid arguments: headline may not be empty"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].index").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].id").value(101));
+        verify(articleService, times(1)).createArticles(anyObject());
+
+        // only the item violating a constraint fails, the others are retried in halves
+        final CreateArticle duplicate = new CreateArticle("duplicate", "subheadline", "text", Date.valueOf("2014-12-12"));
+        doAnswer((invocation) -> {
+            final List<Article> articles = (List<Article>) invocation.getArguments()[0];
+            if (articles.stream().anyMatch((article) -> "duplicate".equals(article.getHeadline()))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            articles.forEach((article) -> article.setId(200L));
+            return articles;
+        }).when(articleService).createArticles(anyObject());
+        mvc.perform(MockMvcRequestBuilders.put("/articles/batch").contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Arrays.asList(valid, invalid, valid, duplicate, valid))))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(201))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(400))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].status").value(201))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].status").value(409))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].message").value("article couldn't be saved"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[4].status").value(201));
+        // all 4 valid ones, then [valid, valid] and [duplicate, valid], then [duplicate] and [valid]
+        verify(articleService, times(6)).createArticles(anyObject());
+
+        // the whole batch failed
+        doThrow(new DataIntegrityViolationException("duplicate")).when(articleService).createArticles(anyObject());
+        mvc.perform(MockMvcRequestBuilders.put("/articles/batch").contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Arrays.asList(valid, invalid))))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(409))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(400));
+
+        // empty batch
+        mvc.perform(MockMvcRequestBuilders.put("/articles/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSearchFulltext() throws Exception {
+        System.out.println("----- searchFulltext");
+
+        final Article best = new Article();
+        best.setId(5L);
+        best.setHeadline("Nahverkehr in Berlin");
+        final Article other = new Article();
+        other.setId(1L);
+        when(articleService.findByFulltext("nahverkehr berlin", 20)).thenReturn(Arrays.asList(best, other));
+
+        mvc.perform(MockMvcRequestBuilders.get("/articles/fulltext").param("q", "nahverkehr berlin")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(1));
+
+        // invalid
+        mvc.perform(MockMvcRequestBuilders.get("/articles/fulltext").param("q", " ")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/articles/fulltext").param("q", "berlin").param("limit", "0")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        // the index is still being built
+        when(articleService.findByFulltext("hamburg", 20)).thenThrow(new IndexNotReadyException("being built"));
+        mvc.perform(MockMvcRequestBuilders.get("/articles/fulltext").param("q", "hamburg")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(ArticlesController.INDEX_RETRY_AFTER_SECONDS)));
+    }
+
+    @Test
+    public void testExportArticles() throws Exception {
+        System.out.println("----- exportArticles");
+
+        final ExportRow live = mock(ExportRow.class);
+        when(live.getId()).thenReturn(1L);
+        when(live.getHeadline()).thenReturn("Nahverkehr, \"neu\"");
+        when(live.getPublishedOn()).thenReturn(LocalDate.parse("2016-12-12"));
+        when(live.getAuthorCount()).thenReturn(2);
+        when(live.getAuthorId(0)).thenReturn(1L);
+        when(live.getAuthorFirstname(0)).thenReturn("Lorenz");
+        when(live.getAuthorLastname(0)).thenReturn("Vossen");
+        when(live.getAuthorId(1)).thenReturn(2L);
+        when(live.getAuthorFirstname(1)).thenReturn("Jochen");
+        when(live.getAuthorLastname(1)).thenReturn("König");
+        when(live.getKeywordCount()).thenReturn(1);
+        when(live.getKeywordId(0)).thenReturn(2L);
+        when(live.getKeywordName(0)).thenReturn("Berlin");
+        final ExportRow deleted = mock(ExportRow.class);
+        when(deleted.getId()).thenReturn(5L);
+        when(deleted.getDeletedOn()).thenReturn(LocalDateTime.parse("2016-12-13T10:15:30"));
+        doAnswer((invocation) -> {
+            final Consumer<ExportRow> consumer = (Consumer<ExportRow>) invocation.getArguments()[1];
+            consumer.accept(live);
+            consumer.accept(deleted);
+            return 2;
+        }).when(articleExporter).export(any(), any());
+
+        final String ndjson = "{\"id\":1,\"headline\":\"Nahverkehr, \\\"neu\\\"\",\"teaserText\":null,\"mainText\":null,"
+                + "\"publishedOn\":\"2016-12-12\",\"updatedOn\":null,"
+                + "\"authors\":[{\"id\":1,\"firstname\":\"Lorenz\",\"lastname\":\"Vossen\"},"
+                + "{\"id\":2,\"firstname\":\"Jochen\",\"lastname\":\"König\"}],"
+                + "\"keywords\":[{\"id\":2,\"name\":\"Berlin\"}]}\n"
+                + "{\"id\":5,\"deletedOn\":\"2016-12-13T10:15:30\"}\n";
+        mvc.perform(MockMvcRequestBuilders.get("/articles/export").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(ArticlesController.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=articles.ndjson"))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(MockMvcResultMatchers.content().string(ndjson));
+        verify(articleExporter).export(isNull(LocalDateTime.class), any());
+
+        final String csv = ArticleExportWriter.CSV_HEADER + "\r\n"
+                + "1,\"Nahverkehr, \"\"neu\"\"\",,,2016-12-12,,,Lorenz Vossen|Jochen König,Berlin\r\n"
+                + "5,,,,,,2016-12-13T10:15:30,,\r\n";
+        final byte[] gzipped = mvc.perform(MockMvcRequestBuilders.get("/articles/export").param("format", "csv")
+                    .param("since", "2016-12-01T00:00:00")
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(ArticlesController.TEXT_CSV_VALUE))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            Assert.assertEquals(csv, StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        }
+        verify(articleExporter).export(eq(LocalDateTime.parse("2016-12-01T00:00")), any());
+
+        // invalid
+        mvc.perform(MockMvcRequestBuilders.get("/articles/export").param("format", "xml")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        // deletes before since may be purged, the client needs a full export
+        doThrow(new IllegalArgumentException("since has to be within the last 604800000 ms"))
+                .when(articleExporter).checkSince(eq(LocalDateTime.parse("2015-01-01T00:00")));
+        mvc.perform(MockMvcRequestBuilders.get("/articles/export").param("since", "2015-01-01T00:00:00")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(articleExporter, never()).export(eq(LocalDateTime.parse("2015-01-01T00:00")), any());
+    }
+
+    @Test
+    public void testBinaryContentNegotiation() throws Exception {
+        System.out.println("----- binaryContentNegotiation");
+        final List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig().configureMessageConverters(converters);
+        final MockMvc binaryMvc = MockMvcBuilders.standaloneSetup(new ArticlesController(articleService,
+                new WebConfig().objectMapper(), responseCache, ingestQueue, articleExporter))
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[converters.size()])).build();
+        final ObjectMapper smile = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+        final ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+
+        Article article = new Article();
+        article.setId(9L);
+        article.setHeadline("binary");
+        article.setPublishedOn(LocalDate.parse("2014-12-12"));
+        when(articleService.findByAuthorId(1L)).thenReturn(Collections.singletonList(article));
+        when(articleService.findOne(9L)).thenReturn(article);
+
+        // a list as Smile
+        byte[] body = binaryMvc.perform(MockMvcRequestBuilders.get("/articles/author/1").contentType(MediaType.APPLICATION_JSON)
+                    .accept(ArticlesController.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(ArticlesController.APPLICATION_SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        final RsArticle[] articles = smile.readValue(body, RsArticle[].class);
+        Assert.assertEquals(1, articles.length);
+        Assert.assertEquals("binary", articles[0].getHeadline());
+        Assert.assertEquals(LocalDate.parse("2014-12-12"), articles[0].getPublishedOn());
+
+        // the ETag of the JSON list doesn't match the Smile one
+        final ArticleVersion listVersion = ArticlesController.versionOf(Collections.singletonList(article), Article::getUpdatedOn);
+        binaryMvc.perform(MockMvcRequestBuilders.get("/articles/author/1").contentType(MediaType.APPLICATION_JSON)
+                    .accept(ArticlesController.APPLICATION_SMILE_VALUE)
+                    .header(HttpHeaders.IF_NONE_MATCH, listVersion.getETag()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, listVersion.getETag("smile")));
+
+        // a single, cached article transcoded to CBOR; JSON stays the default
+        binaryMvc.perform(MockMvcRequestBuilders.get("/articles/9").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("binary"));
+        body = binaryMvc.perform(MockMvcRequestBuilders.get("/articles/9").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ACCEPT, "application/json;q=0.5, " + ArticlesController.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(ArticlesController.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        Assert.assertEquals("binary", cbor.readValue(body, RsArticle.class).getHeadline());
+
+        // a Smile request body
+        when(articleService.createArticle(anyObject())).thenReturn(article);
+        body = binaryMvc.perform(MockMvcRequestBuilders.put("/articles/").contentType(ArticlesController.APPLICATION_SMILE_VALUE)
+                    .accept(ArticlesController.APPLICATION_SMILE_VALUE)
+                    .content(smile.writeValueAsBytes(new CreateArticle("binary", "teaser", "text", Date.valueOf("2014-12-12")))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Assert.assertEquals(Long.valueOf(9L), smile.readValue(body, RsArticle.class).getId());
+        final ArgumentCaptor<Article> created = ArgumentCaptor.forClass(Article.class);
+        verify(articleService).createArticle(created.capture());
+        Assert.assertEquals("teaser", created.getValue().getDescription());
+    }
+
+    @Test
+    public void testSparseFieldsets() throws Exception {
+        System.out.println("----- sparseFieldsets");
+        final List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig().configureMessageConverters(converters);
+        final MockMvc fieldsMvc = MockMvcBuilders.standaloneSetup(new ArticlesController(articleService,
+                new WebConfig().objectMapper(), responseCache, ingestQueue, articleExporter))
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[converters.size()])).build();
+        final Set<ArticleField> idAndHeadline = EnumSet.of(ArticleField.ID, ArticleField.HEADLINE);
+
+        Article first = new Article();
+        first.setId(1L);
+        first.setHeadline("headline 1");
+        first.setPublishedOn(LocalDate.parse("2014-01-01"));
+        Article second = new Article();
+        second.setId(2L);
+        second.setHeadline("headline 2");
+        second.setPublishedOn(LocalDate.parse("2014-01-02"));
+        when(articleService.findByAuthorId(1L, idAndHeadline)).thenReturn(Arrays.asList(first, second));
+        when(articleService.findOne(1L, EnumSet.of(ArticleField.HEADLINE))).thenReturn(first);
+        when(articleService.findByDateRange(LocalDate.parse("2014-01-01"), LocalDate.parse("2014-12-31"), null, 2,
+                idAndHeadline)).thenReturn(Arrays.asList(first, second));
+        when(articleService.findByFulltext("headline", ArticlesController.DEFAULT_FULLTEXT_LIMIT, idAndHeadline))
+                .thenReturn(Collections.singletonList(second));
+
+        // a listing with the requested properties only
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/author/1").contentType(MediaType.APPLICATION_JSON)
+                    .param(ArticlesController.FIELDS_PARAM, "id, headline"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("[{\"id\":1,\"headline\":\"headline 1\"},"
+                        + "{\"id\":2,\"headline\":\"headline 2\"}]"));
+
+        // a single article, not cached
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/1").contentType(MediaType.APPLICATION_JSON)
+                    .param(ArticlesController.FIELDS_PARAM, "headline"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("{\"headline\":\"headline 1\"}"));
+        Assert.assertNull(responseCache.get(1L));
+
+        // its 304 names the representation header, too
+        final ArticleVersion version = new ArticleVersion(LocalDateTime.parse("2016-01-01T10:15:30"), 1L, 2L);
+        when(articleService.findVersion(1L)).thenReturn(version);
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/1").contentType(MediaType.APPLICATION_JSON)
+                    .param(ArticlesController.FIELDS_PARAM, "headline").header(HttpHeaders.IF_NONE_MATCH, version.getETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        // a page: publishedOn is loaded for the next token, but not written
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/date/2014-01-01/2014-12-31").contentType(MediaType.APPLICATION_JSON)
+                    .param("limit", "1").param(ArticlesController.FIELDS_PARAM, "id,headline"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.articles[0].headline").value("headline 1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.articles[0].publishedOn").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(ArticleCursor.after(first).encode()));
+
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/fulltext").contentType(MediaType.APPLICATION_JSON)
+                    .param("q", "headline").param(ArticlesController.FIELDS_PARAM, "headline,id"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("[{\"id\":2,\"headline\":\"headline 2\"}]"));
+
+        // streamed
+        doAnswer((invocation) -> {
+            final Consumer<Article> consumer = (Consumer<Article>) invocation.getArguments()[2];
+            consumer.accept(first);
+            return null;
+        }).when(articleService).streamByKeywordName(eq("berlin"), eq(idAndHeadline), any(Consumer.class));
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/search/berlin").contentType(MediaType.APPLICATION_JSON)
+                    .accept(ArticlesController.APPLICATION_NDJSON_VALUE).param(ArticlesController.FIELDS_PARAM, "id,headline"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("{\"id\":1,\"headline\":\"headline 1\"}\n"));
+
+        // unknown and empty field lists
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/author/1").contentType(MediaType.APPLICATION_JSON)
+                    .param(ArticlesController.FIELDS_PARAM, "id,deletedOn"))
+                .andExpect(status().isBadRequest());
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/1").contentType(MediaType.APPLICATION_JSON)
+                    .param(ArticlesController.FIELDS_PARAM, ""))
+                .andExpect(status().isBadRequest());
+
+        // without fields the full representation
+        when(articleService.findByAuthorId(1L)).thenReturn(Collections.singletonList(first));
+        fieldsMvc.perform(MockMvcRequestBuilders.get("/articles/author/1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].publishedOn").value("2014-01-01"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].mainText").isEmpty());
+    }
+
     private ResultMatcher content(Matcher<String> containsString) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
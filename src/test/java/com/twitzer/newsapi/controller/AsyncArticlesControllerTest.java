@@ -0,0 +1,220 @@
+package com.twitzer.newsapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twitzer.newsapi.configuration.WebConfig;
+import com.twitzer.newsapi.ingest.IngestQueue;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.ArticleExporter;
+import com.twitzer.newsapi.service.ArticleService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import javax.servlet.AsyncListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ *
+ * @author jschulz
+ */
+public class AsyncArticlesControllerTest {
+
+    private ArticleService articleService;
+
+    private Bulkhead lookup;
+
+    private Bulkhead query;
+
+    private Bulkhead write;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+        articleService = mock(ArticleService.class);
+        final ObjectMapper jsonMapper = new WebConfig().objectMapper();
+        final ArticleResponseCache responseCache = new ArticleResponseCache(
+                new ConcurrentMapCacheManager(ArticleService.ARTICLE_RESPONSE_CACHE), jsonMapper);
+        final ArticlesController articlesController = new ArticlesController(articleService, jsonMapper, responseCache,
+                mock(IngestQueue.class), mock(ArticleExporter.class));
+        lookup = new Bulkhead("lookup", 2, 2, 5000);
+        query = new Bulkhead("query", 1, 0, 5000);
+        write = new Bulkhead("write", 2, 2, 5000);
+        final List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig().configureMessageConverters(converters);
+        mvc = MockMvcBuilders.standaloneSetup(new AsyncArticlesController(articlesController, articleService,
+                lookup, query, write))
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[converters.size()])).build();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        lookup.shutdown();
+        query.shutdown();
+        write.shutdown();
+    }
+
+    @Test
+    public void testGetArticle() throws Exception {
+        System.out.println("----- async getArticle");
+        when(articleService.findOne(9L)).thenReturn(article(9L, "async"));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/9").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String eTag = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.headline").value("async"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assert.assertNotNull(eTag);
+
+        // the client's copy is current
+        result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/9").contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified());
+
+        // but not for the Smile representation
+        result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/9").contentType(MediaType.APPLICATION_JSON)
+                    .accept(ArticlesController.APPLICATION_SMILE_VALUE).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String smileETag = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assert.assertNotEquals(eTag, smileETag);
+
+        result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/10").contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testQueriesAndWrites() throws Exception {
+        System.out.println("----- async queries and writes");
+        when(articleService.findByAuthorId(1L)).thenReturn(Collections.singletonList(article(1L, "by author")));
+        when(articleService.deleteArticle(5L)).thenReturn(true);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/author/1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].headline").value("by author"));
+
+        // invalid requests are rejected before they take a thread
+        mvc.perform(MockMvcRequestBuilders.get("/async/articles/date/2013-12-12/2012-12-12").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        result = mvc.perform(MockMvcRequestBuilders.delete("/async/articles/5").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isAccepted());
+
+        // errors of the task are handled as the synchronous ones
+        result = mvc.perform(MockMvcRequestBuilders.put("/async/articles/").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"teaserText\":\"no headline\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSaturatedPoolIsRejected() throws Exception {
+        System.out.println("----- async saturated pool");
+        final CountDownLatch release = new CountDownLatch(1);
+        when(articleService.findByAuthorId(2L)).thenAnswer((invocation) -> {
+            release.await();
+            return Collections.emptyList();
+        });
+        when(articleService.findOne(9L)).thenReturn(article(9L, "lookup"));
+
+        final MvcResult slow = mvc.perform(MockMvcRequestBuilders.get("/async/articles/author/2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.get("/async/articles/author/2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+        Assert.assertEquals(100, query.getSaturation());
+
+        // the lookups have their own threads
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/9").contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        release.countDown();
+        mvc.perform(asyncDispatch(slow))
+                .andExpect(status().isOk());
+        Assert.assertEquals(1L, metric(query, "bulkhead.query.rejected"));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        System.out.println("----- async timeout");
+        final CountDownLatch release = new CountDownLatch(1);
+        when(articleService.findOne(7L)).thenAnswer((invocation) -> {
+            release.await();
+            return null;
+        });
+
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/articles/7").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // what the container does once the timeout elapsed
+        final MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(null);
+        }
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+        release.countDown();
+
+        Assert.assertEquals(1L, metric(lookup, "bulkhead.lookup.timeouts"));
+    }
+
+    private static long metric(final Bulkhead bulkhead, final String name) {
+        for (Metric<?> metric : bulkhead.metrics()) {
+            if (metric.getName().equals(name)) {
+                return metric.getValue().longValue();
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+    private static Article article(final Long id, final String headline) {
+        final Article article = new Article();
+        article.setId(id);
+        article.setHeadline(headline);
+        article.setPublishedOn(LocalDate.parse("2014-12-12"));
+        article.setUpdatedOn(LocalDateTime.parse("2016-12-12T10:15:30"));
+        return article;
+    }
+}
@@ -0,0 +1,49 @@
+package com.twitzer.newsapi.controller;
+
+import com.twitzer.newsapi.search.KeywordSuggestIndex;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ *
+ * @author jschulz
+ */
+public class KeywordsControllerTest {
+
+    private MockMvc mvc;
+    private KeywordSuggestIndex suggestIndex;
+
+    @Before
+    public void setUp() {
+        suggestIndex = mock(KeywordSuggestIndex.class);
+        mvc = MockMvcBuilders.standaloneSetup(new KeywordsController(suggestIndex)).build();
+    }
+
+    @Test
+    public void testSuggest() throws Exception {
+        System.out.println("----- suggest");
+
+        when(suggestIndex.suggest("ber", 10)).thenReturn(Arrays.asList("Berlin", "Bern"));
+
+        mvc.perform(MockMvcRequestBuilders.get("/keywords/suggest").param("prefix", "ber")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value("Berlin"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1]").value("Bern"));
+
+        // invalid
+        mvc.perform(MockMvcRequestBuilders.get("/keywords/suggest").param("prefix", ""))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/keywords/suggest").param("prefix", "b").param("limit", "51"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,136 @@
+package com.twitzer.newsapi.ingest;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.ArticleService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Runs against the database.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = { "ingest.journal.path = ", "import.chunk-size = 100", "import.threads = 4" })
+public class BulkImporterTest {
+
+    private static final int ARTICLES = 20_000;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testImportNdjson() throws IOException {
+        final String ndjson = "{\"headline\":\"ndjson headline\",\"teaserText\":\"teaser\",\"mainText\":\"text\","
+                + "\"publishedOn\":\"2016-12-12\",\"authors\":[{\"firstname\":\"Lorenz\",\"lastname\":\"Vossen\"},"
+                + "{\"firstname\":\"Bulk\",\"lastname\":\"Importer\"}],\"keywords\":[{\"name\":\"Berlin\"},{\"name\":\"Backfill\"},{\"name\":\"Berlin\"}]}\n"
+                + "\n"
+                + "{\"headline\":\"\",\"teaserText\":\"teaser\",\"mainText\":\"text\",\"publishedOn\":\"2016-12-12\"}\n"
+                + "{\"id\":5,\"deletedOn\":\"2016-12-13T10:15:30\"}\n"
+                + "not json\n";
+
+        final BulkImportStats stats = bulkImporter.importRecords(new BufferedReader(new StringReader(ndjson)), false);
+
+        assertThat(stats.getImported(), is(1L));
+        assertThat(stats.getRejected(), is(2L));
+        assertThat(stats.getTombstones(), is(1L));
+        final Long id = jdbcTemplate.queryForObject("SELECT ID FROM NEWS_ARTICLE WHERE HEADLINE = 'ndjson headline'", Long.class);
+        final Article article = articleService.findOne(id);
+        assertThat(article.getAuthors().size(), is(2));
+        assertThat(article.getKeywords().size(), is(2));
+        assertThat(article.getVersion(), is(0L));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE_AUTHOR WHERE ARTICLE_ID = ? AND AUTHOR_ID = 1", id), is(1));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID = ? AND KEYWORD_ID = 2", id), is(1));
+
+        // ids taken from the sequence, the next Hibernate insert doesn't collide
+        final Article next = new Article();
+        next.setHeadline("after import");
+        next.setPublishedOn(LocalDate.parse("2016-12-12"));
+        assertThat(articleService.createArticle(next).getId(), is(notNullValue()));
+    }
+
+    @Test
+    public void testImportCsv() throws IOException {
+        final Path file = Files.createTempFile("articles", ".csv.gz");
+        try {
+            try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8)) {
+                out.write("id,headline,teaserText,mainText,publishedOn,updatedOn,deletedOn,authors,keywords\r\n");
+                out.write("1,\"csv, \"\"quoted\"\"\",teaser,\"two\r\nlines\",2016-12-12,,,Lorenz Vossen|Ada Lovelace,Berlin|CSV\r\n");
+                out.write("5,,,,,,2016-12-13T10:15:30,,\r\n");
+                out.write("7,no date,teaser,text,,,,,\r\n");
+            }
+
+            final BulkImportStats stats = bulkImporter.importFile(file);
+
+            assertThat(stats.getImported(), is(1L));
+            assertThat(stats.getRejected(), is(1L));
+            assertThat(stats.getTombstones(), is(1L));
+            final Long id = jdbcTemplate.queryForObject("SELECT ID FROM NEWS_ARTICLE WHERE HEADLINE = 'csv, \"quoted\"'", Long.class);
+            final Article article = articleService.findOne(id);
+            assertThat(article.getMainText(), is("two\nlines"));
+            assertThat(article.getPublishedOn(), is(LocalDate.parse("2016-12-12")));
+            assertThat(article.getAuthors().size(), is(2));
+            assertThat(count("SELECT COUNT(*) FROM NEWS_AUTHOR WHERE FIRSTNAME = 'Ada' AND LASTNAME = 'Lovelace'", null), is(1));
+            assertThat(count("SELECT COUNT(*) FROM NEWS_KEYWORD WHERE NAME = 'CSV'", null), is(1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSplitCsv() {
+        assertThat(BulkImporter.splitCsv("1,\"a,b\",,\"say \"\"hi\"\"\","), is(Arrays.asList("1", "a,b", "", "say \"hi\"", "")));
+    }
+
+    @Test
+    public void testImportThroughput() throws IOException {
+        final StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < ARTICLES; i++) {
+            ndjson.append("{\"headline\":\"bulk ").append(i).append("\",\"teaserText\":\"teaser\",\"mainText\":\"text\",")
+                    .append("\"publishedOn\":\"2016-12-12\",\"authors\":[{\"firstname\":\"Bulk\",\"lastname\":\"Author ")
+                    .append(i % 100).append("\"}],\"keywords\":[{\"name\":\"bulk ").append(i % 500)
+                    .append("\"},{\"name\":\"Berlin\"}]}\n");
+        }
+
+        final BulkImportStats stats = bulkImporter.importRecords(new BufferedReader(new StringReader(ndjson.toString())), false);
+        System.out.println("----- " + stats);
+
+        assertThat(stats.getImported(), is((long) ARTICLES));
+        assertThat(stats.getRejected(), is(0L));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE WHERE HEADLINE LIKE 'bulk %'", null), is(ARTICLES));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE_KEYWORD k JOIN NEWS_ARTICLE a ON a.ID = k.ARTICLE_ID "
+                + "WHERE a.HEADLINE LIKE 'bulk %'", null), is(2 * ARTICLES));
+    }
+
+    private int count(final String sql, final Long id) {
+        return id == null ? jdbcTemplate.queryForObject(sql, Integer.class)
+                : jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
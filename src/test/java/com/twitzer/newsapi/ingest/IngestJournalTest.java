@@ -0,0 +1,91 @@
+package com.twitzer.newsapi.ingest;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author jschulz
+ */
+public class IngestJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() {
+        path = folder.getRoot().toPath().resolve("journal/ingest.journal");
+    }
+
+    @Test
+    public void testPendingItemsSurviveReopen() throws IOException {
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final UUID third = UUID.randomUUID();
+        try (IngestJournal journal = new IngestJournal(path, 4096)) {
+            journal.append(first, bytes("first"));
+            journal.append(second, bytes("second"));
+            journal.append(third, bytes("third"));
+            journal.complete(second);
+        }
+
+        try (IngestJournal journal = new IngestJournal(path, 4096)) {
+            final Map<UUID, byte[]> pending = journal.pending();
+            assertThat(pending.keySet(), is(Matchers.contains(first, third)));
+            assertThat(new String(pending.get(third), StandardCharsets.UTF_8), is("third"));
+        }
+    }
+
+    @Test
+    public void testCompactsWhenFull() throws IOException {
+        final UUID kept = UUID.randomUUID();
+        try (IngestJournal journal = new IngestJournal(path, 256)) {
+            journal.append(kept, bytes("kept"));
+            // far more than fits into 256 bytes without compaction
+            for (int i = 0; i < 100; i++) {
+                final UUID ticket = UUID.randomUUID();
+                journal.append(ticket, bytes("item " + i));
+                journal.complete(ticket);
+            }
+        }
+
+        try (IngestJournal journal = new IngestJournal(path, 256)) {
+            assertThat(journal.pending().keySet(), is(Matchers.contains(kept)));
+        }
+    }
+
+    @Test
+    public void testUnmapsMapping() throws IOException {
+        try (FileChannel channel = FileChannel.open(folder.getRoot().toPath().resolve("mapped"), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            assertThat(IngestJournal.unmap(channel.map(FileChannel.MapMode.READ_WRITE, 0, 4096)), is(true));
+        }
+    }
+
+    @Test(expected = IngestRejectedException.class)
+    public void testRejectsWhenFullOfPendingItems() throws IOException {
+        try (IngestJournal journal = new IngestJournal(path, 256)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(UUID.randomUUID(), bytes("item " + i));
+            }
+        }
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
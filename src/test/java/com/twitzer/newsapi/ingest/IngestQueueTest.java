@@ -0,0 +1,213 @@
+package com.twitzer.newsapi.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twitzer.newsapi.configuration.WebConfig;
+import com.twitzer.newsapi.model.CreateArticle;
+import com.twitzer.newsapi.model.RsIngestStatus;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.ArticleService;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author jschulz
+ */
+public class IngestQueueTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new WebConfig().objectMapper();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    /** calls failing like a lock timeout before the database recovers. */
+    private final AtomicInteger transientFailures = new AtomicInteger();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private ArticleService articleService;
+
+    private String journalPath;
+
+    private final List<IngestQueue> queues = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        articleService = mock(ArticleService.class);
+        journalPath = folder.getRoot().toPath().resolve("ingest.journal").toString();
+        // assigns ids; a batch containing a "conflict" or "broken" article fails as a whole
+        when(articleService.createArticles(anyListOf(Article.class))).thenAnswer((invocation) -> {
+            @SuppressWarnings("unchecked")
+            final List<Article> articles = (List<Article>) invocation.getArguments()[0];
+            calls.incrementAndGet();
+            if (transientFailures.getAndDecrement() > 0) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            if (articles.stream().anyMatch((article) -> "conflict".equals(article.getHeadline()))) {
+                throw new DataIntegrityViolationException("conflict");
+            }
+            if (articles.stream().anyMatch((article) -> "broken".equals(article.getHeadline()))) {
+                throw new NullPointerException("broken");
+            }
+            articles.forEach((article) -> article.setId(ids.incrementAndGet()));
+            return articles;
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (IngestQueue queue : queues) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void testCreatesQueuedArticles() throws Exception {
+        final IngestQueue queue = open(10);
+        final RsIngestStatus first = queue.submit(article("first"));
+        final RsIngestStatus conflict = queue.submit(article("conflict"));
+        final RsIngestStatus second = queue.submit(article("second"));
+        assertThat(queue.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.QUEUED));
+
+        queue.start();
+        awaitProcessed(queue);
+
+        assertThat(queue.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+        assertThat(queue.getStatus(second.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+        assertThat(queue.getStatus(second.getTicket()).getId() > 0, is(true));
+        // the conflicting article fails alone
+        assertThat(queue.getStatus(conflict.getTicket()).getStatus(), is(RsIngestStatus.FAILED));
+        assertThat(queue.getStatus(conflict.getTicket()).getId(), is(nullValue()));
+        assertThat(queue.getStatus("unknown"), is(nullValue()));
+
+        // nothing left to recover
+        queue.stop();
+        assertThat(open(10).getPending(), is(0));
+    }
+
+    @Test
+    public void testRejectsWhenFull() throws Exception {
+        final IngestQueue queue = open(2);
+        queue.submit(article("first"));
+        queue.submit(article("second"));
+        try {
+            queue.submit(article("third"));
+            throw new AssertionError("a full queue must reject");
+        } catch (IngestRejectedException e) {
+            assertThat(queue.getPending(), is(2));
+        }
+    }
+
+    @Test
+    public void testRecoversPendingArticles() throws Exception {
+        final IngestQueue crashed = open(10);
+        final RsIngestStatus first = crashed.submit(article("first"));
+        crashed.submit(article("second"));
+        crashed.stop();
+
+        final IngestQueue restarted = open(10);
+        assertThat(restarted.getPending(), is(2));
+        assertThat(restarted.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.QUEUED));
+
+        restarted.start();
+        awaitProcessed(restarted);
+        assertThat(restarted.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+    }
+
+    @Test
+    public void testRetriesTransientFailures() throws Exception {
+        transientFailures.set(2);
+        final IngestQueue queue = open(10);
+        final RsIngestStatus first = queue.submit(article("first"));
+        queue.start();
+        awaitProcessed(queue);
+
+        // accepted items aren't dropped while the database is away
+        assertThat(queue.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+        assertThat(calls.get(), is(3));
+    }
+
+    @Test
+    public void testKeepsFailingArticlesInJournal() throws Exception {
+        transientFailures.set(Integer.MAX_VALUE);
+        final IngestQueue queue = open(10);
+        final RsIngestStatus first = queue.submit(article("first"));
+        queue.start();
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (calls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(queue.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.QUEUED));
+        assertThat(queue.getPending(), is(1));
+        queue.stop();
+
+        transientFailures.set(0);
+        final IngestQueue restarted = open(10);
+        assertThat(restarted.getPending(), is(1));
+        restarted.start();
+        awaitProcessed(restarted);
+        assertThat(restarted.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+    }
+
+    @Test
+    public void testFailsAfterMaxAttempts() throws Exception {
+        final IngestQueue queue = open(10);
+        final RsIngestStatus first = queue.submit(article("first"));
+        final RsIngestStatus broken = queue.submit(article("broken"));
+        final RsIngestStatus second = queue.submit(article("second"));
+        queue.start();
+        awaitProcessed(queue);
+
+        // the retried items are created one by one, the broken one fails for good
+        assertThat(queue.getStatus(first.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+        assertThat(queue.getStatus(second.getTicket()).getStatus(), is(RsIngestStatus.DONE));
+        assertThat(queue.getStatus(broken.getTicket()).getStatus(), is(RsIngestStatus.FAILED));
+        // the batch, then each item, the broken one MAX_ATTEMPTS - 1 times
+        assertThat(calls.get(), is(1 + 2 + MAX_ATTEMPTS - 1));
+
+        queue.stop();
+        assertThat(open(10).getPending(), is(0));
+    }
+
+    private IngestQueue open(final int capacity) throws Exception {
+        final IngestQueue queue = new IngestQueue(articleService, objectMapper, capacity, 10, 1, journalPath, 1 << 16, 10,
+                MAX_ATTEMPTS);
+        queue.open();
+        queues.add(queue);
+        return queue;
+    }
+
+    private static void awaitProcessed(final IngestQueue queue) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (queue.getPending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(queue.getPending(), is(0));
+    }
+
+    private static CreateArticle article(final String headline) {
+        return new CreateArticle(headline, "teaser", "text", new Date());
+    }
+}
@@ -0,0 +1,115 @@
+package com.twitzer.newsapi.repository;
+
+import com.twitzer.newsapi.repository.domain.Article;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Asserts that list queries load the authors and keywords of all articles
+ * with a fixed number of statements, however many articles they return.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@Transactional
+@ContextConfiguration(classes = DBConfig.class)
+@TestPropertySource(properties = { DBConfig.NEW_ID_GENERATOR_MAPPINGS,
+    "spring.jpa.properties.hibernate.generate_statistics = true" })
+public class ArticleFetchTest {
+
+    private static final LocalDate PUBLISHED_ON = LocalDate.of(2001, 1, 1);
+
+    private static final long FIRST_ID = 1000000;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private int inserted;
+
+    @Before
+    public void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testStatementCountIsIndependentOfResultSize() {
+        insertArticles(10);
+        final long byDate10 = countStatements(() -> articleRepository.findByPublishedOnBetween(PUBLISHED_ON, PUBLISHED_ON));
+        final long byAuthor10 = countStatements(() -> articleRepository.findByAuthorsId(3L));
+        final long page10 = countStatements(() -> articleRepository.findByIdInOrderByPublishedOnAscIdAsc(
+                articleRepository.findPageIdsByPublishedOnBetween(PUBLISHED_ON, PUBLISHED_ON, new PageRequest(0, 10))));
+
+        insertArticles(9990);
+        final long byDate10000 = countStatements(() -> articleRepository.findByPublishedOnBetween(PUBLISHED_ON, PUBLISHED_ON));
+        final long byAuthor10000 = countStatements(() -> articleRepository.findByAuthorsId(3L));
+        final long page10000 = countStatements(() -> articleRepository.findByIdInOrderByPublishedOnAscIdAsc(
+                articleRepository.findPageIdsByPublishedOnBetween(PUBLISHED_ON, PUBLISHED_ON, new PageRequest(0, 500))));
+
+        // the articles, their authors, their keywords
+        Assert.assertEquals(3, byDate10);
+        Assert.assertEquals(byDate10, byDate10000);
+        Assert.assertEquals(byAuthor10, byAuthor10000);
+        Assert.assertEquals(page10, page10000);
+        // a page loads the authors and keywords of its own articles only
+        Assert.assertEquals(1000, statistics.getCollectionLoadCount());
+    }
+
+    private long countStatements(final Supplier<List<Article>> query) {
+        entityManager.clear();
+        statistics.clear();
+
+        final List<Article> articles = query.get();
+        articles.forEach((article) -> {
+            Assert.assertEquals(2, article.getAuthors().size());
+            Assert.assertEquals(2, article.getKeywords().size());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Inserts articles with the seeded authors 3, 4 and keywords 3, 4.
+     */
+    private void insertArticles(final int count) {
+        final List<Object[]> articles = new ArrayList<>(count);
+        final List<Object[]> authors = new ArrayList<>(count * 2);
+        final List<Object[]> keywords = new ArrayList<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            final long id = FIRST_ID + inserted++;
+            articles.add(new Object[] { id, "headline " + id, Date.valueOf(PUBLISHED_ON) });
+            authors.add(new Object[] { id, 3L });
+            authors.add(new Object[] { id, 4L });
+            keywords.add(new Object[] { id, 3L });
+            keywords.add(new Object[] { id, 4L });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO NEWS_ARTICLE (ID, HEADLINE, DESCRIPTION, TEXT, PUBLISHED_ON, VERSION, CREATED_ON, UPDATED_ON) "
+                + "VALUES (?, ?, 'description', 'text', ?, 0, Now(), Now())", articles);
+        jdbcTemplate.batchUpdate("INSERT INTO NEWS_ARTICLE_AUTHOR (ARTICLE_ID, AUTHOR_ID) VALUES (?, ?)", authors);
+        jdbcTemplate.batchUpdate("INSERT INTO NEWS_ARTICLE_KEYWORD (ARTICLE_ID, KEYWORD_ID) VALUES (?, ?)", keywords);
+    }
+}
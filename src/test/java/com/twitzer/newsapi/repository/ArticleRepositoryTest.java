@@ -1,10 +1,17 @@
 package com.twitzer.newsapi.repository;
 
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
 import com.twitzer.newsapi.repository.domain.Author;
 import com.twitzer.newsapi.repository.domain.Keyword;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 import javax.transaction.Transactional;
 import static org.hamcrest.Matchers.equalTo;
 import org.junit.Assert;
@@ -12,7 +19,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 /**
@@ -22,6 +31,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 @RunWith(SpringJUnit4ClassRunner.class)
 @Transactional
 @ContextConfiguration(classes = DBConfig.class)
+@TestPropertySource(properties = DBConfig.NEW_ID_GENERATOR_MAPPINGS)
 public class ArticleRepositoryTest {
 
     @Autowired
@@ -89,6 +99,20 @@ public class ArticleRepositoryTest {
         Assert.assertFalse(articleRepository.exists(1L));
     }
 
+    @Test
+    public void testFindIdsByDeletedOnAndPublishedOnBetween() {
+        final LocalDate from = LocalDate.parse("2012-12-12");
+        final LocalDate to = LocalDate.now().plusDays(1);
+        final LocalDateTime now = LocalDateTime.now();
+        Assert.assertEquals(2, articleRepository.markDeletedByPublishedOnBetween(from, to, now));
+
+        final Set<Long> ids = new HashSet<>();
+        articleRepository.findIdsByDeletedOnAndPublishedOnBetween(now, from, to).forEach((id) -> ids.add(id.longValue()));
+        Assert.assertThat(ids, equalTo(new HashSet<>(Arrays.asList(1L, 5L))));
+        Assert.assertTrue(articleRepository.findIdsByDeletedOnAndPublishedOnBetween(now.minusSeconds(1), from, to).isEmpty());
+        Assert.assertTrue(articleRepository.findIdsByDeletedOnAndPublishedOnBetween(now, from, from).isEmpty());
+    }
+
     @Test
     public void testFindByAuthorsId() {
         Assert.assertEquals(2, articleRepository.count());
@@ -126,4 +150,100 @@ public class ArticleRepositoryTest {
         Assert.assertThat(articles.size(), equalTo(0));
     }
 
+    @Test
+    public void testFindPageIdsByPublishedOnBetween() {
+        final LocalDate from = LocalDate.parse("2012-12-12");
+        final LocalDate to = LocalDate.now().plusDays(1);
+
+        List<Long> firstPage = articleRepository.findPageIdsByPublishedOnBetween(from, to, new PageRequest(0, 1));
+        Assert.assertThat(firstPage, equalTo(Arrays.asList(1L)));
+
+        final Article last = articleRepository.findOne(firstPage.get(0));
+        List<Long> secondPage = articleRepository.findPageIdsByPublishedOnBetween(from, to,
+                last.getPublishedOn(), last.getId(), new PageRequest(0, 1));
+        Assert.assertThat(secondPage, equalTo(Arrays.asList(5L)));
+
+        final Article end = articleRepository.findOne(secondPage.get(0));
+        List<Long> thirdPage = articleRepository.findPageIdsByPublishedOnBetween(from, to,
+                end.getPublishedOn(), end.getId(), new PageRequest(0, 1));
+        Assert.assertThat(thirdPage.size(), equalTo(0));
+
+        List<Article> articles = articleRepository.findByIdInOrderByPublishedOnAscIdAsc(Arrays.asList(5L, 1L));
+        Assert.assertThat(articles.size(), equalTo(2));
+        Assert.assertThat(articles.get(0).getId(), equalTo(1L));
+    }
+
+    @Test
+    public void testStreamQueries() {
+        try (Stream<Article> articles = articleRepository.streamByPublishedOnBetween(LocalDate.parse("2012-12-12"), LocalDate.now().plusDays(1))) {
+            Assert.assertThat(articles.count(), equalTo(2L));
+        }
+        try (Stream<Article> articles = articleRepository.streamByAuthorsId(1L)) {
+            Assert.assertThat(articles.count(), equalTo(1L));
+        }
+        try (Stream<Article> articles = articleRepository.streamByKeywordsNameIgnoreCase("EUROPA")) {
+            Assert.assertThat(articles.count(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void testVersionLookups() {
+        final Article article = articleRepository.findOne(1L);
+
+        Assert.assertThat(articleRepository.findVersionById(1L), equalTo(ArticleVersion.of(article)));
+        Assert.assertThat(articleRepository.findVersionById(1L).getETag(), equalTo("\"v" + article.getVersion() + "\""));
+        Assert.assertNull(articleRepository.findVersionById(4711L));
+
+        ArticleVersion version = articleRepository.findVersionByPublishedOnBetween(LocalDate.parse("2012-12-12"), LocalDate.now().plusDays(1));
+        Assert.assertThat(version.getCount(), equalTo(2L));
+        Assert.assertNotNull(version.getLastModified());
+
+        version = articleRepository.findVersionByAuthorsId(1L);
+        Assert.assertThat(version, equalTo(new ArticleVersion(article.getUpdatedOn(), 1L)));
+
+        version = articleRepository.findVersionByKeywordsNameIgnoreCase("BERLIN");
+        Assert.assertThat(version, equalTo(new ArticleVersion(article.getUpdatedOn(), 1L)));
+
+        version = articleRepository.findVersionByKeywordsNameIgnoreCase("unknown");
+        Assert.assertThat(version.getCount(), equalTo(0L));
+        Assert.assertThat(version.getETag(), equalTo("\"0-0\""));
+    }
+
+    @Test
+    public void testIndexQueries() {
+        try (Stream<Object[]> rows = articleRepository.streamKeywordNamesAndArticleIds()) {
+            Assert.assertThat(rows.count(), equalTo(4L));
+        }
+        List<Article> articles = articleRepository.findByIdInOrderById(Arrays.asList(5L, 1L, 4711L));
+        Assert.assertThat(articles.size(), equalTo(2));
+        Assert.assertThat(articles.get(0).getId(), equalTo(1L));
+    }
+
+    @Test
+    public void testSummaryQueries() {
+        List<ArticleSummary> summaries = articleRepository.findSummariesByPublishedOnBetween(
+                LocalDate.parse("2012-12-12"), LocalDate.now().plusDays(1));
+        Assert.assertThat(summaries.size(), equalTo(2));
+
+        summaries = articleRepository.findSummariesByAuthorsId(1L);
+        Assert.assertThat(summaries.size(), equalTo(1));
+        Assert.assertThat(summaries.get(0).getId(), equalTo(1L));
+        Assert.assertThat(summaries.get(0).getHeadline(), equalTo(articleRepository.findOne(1L).getHeadline()));
+
+        summaries = articleRepository.findSummariesByKeywordsNameIgnoreCase("HAMBURG");
+        Assert.assertThat(summaries.size(), equalTo(1));
+        Assert.assertThat(summaries.get(0).getId(), equalTo(5L));
+
+        summaries = articleRepository.findSummariesByIdIn(Arrays.asList(5L, 1L, 4711L));
+        Assert.assertThat(summaries.size(), equalTo(2));
+        Assert.assertThat(summaries.get(0).getId(), equalTo(1L));
+
+        List<Object[]> authors = articleRepository.findAuthorNamesByArticleIdIn(Arrays.asList(1L));
+        Assert.assertThat(authors.size(), equalTo(2));
+        Assert.assertThat(authors.get(0).length, equalTo(4));
+
+        List<Object[]> keywords = articleRepository.findKeywordNamesByArticleIdIn(Arrays.asList(1L, 5L));
+        Assert.assertThat(keywords.size(), equalTo(4));
+    }
+
 }
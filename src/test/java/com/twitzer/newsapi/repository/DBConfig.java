@@ -3,6 +3,16 @@ package com.twitzer.newsapi.repository;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * The JPA setup only, without application.properties; the tests using it
+ * set {@link #NEW_ID_GENERATOR_MAPPINGS} as the application does.
+ *
+ * @author jschulz
+ */
 @Configuration
 @EnableAutoConfiguration
-class DBConfig {}
+class DBConfig {
+
+    /** the pooled sequence generators of the entities, see application.properties. */
+    static final String NEW_ID_GENERATOR_MAPPINGS = "spring.jpa.hibernate.use-new-id-generator-mappings = true";
+}
@@ -2,6 +2,9 @@ package com.twitzer.newsapi.repository;
 
 import com.twitzer.newsapi.repository.KeywordRepository;
 import com.twitzer.newsapi.repository.domain.Keyword;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.transaction.Transactional;
 import org.junit.After;
 import org.junit.Before;
@@ -10,6 +13,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.util.Assert;
 
@@ -20,6 +24,7 @@ import org.springframework.util.Assert;
 @RunWith(SpringJUnit4ClassRunner.class)
 @Transactional
 @ContextConfiguration(classes = DBConfig.class)
+@TestPropertySource(properties = DBConfig.NEW_ID_GENERATOR_MAPPINGS)
 public class KeywordRepositoryTest {
 
     @Autowired
@@ -37,6 +42,8 @@ public class KeywordRepositoryTest {
 
         try {
             keywordRepository.save(k2);
+            // sequence ids: the insert is deferred until the next flush
+            keywordRepository.count();
             Assert.isTrue(false, "DataIntegrityViolationException wasn't thrown!");
         } catch( DataIntegrityViolationException ex) {
             Assert.isTrue(true, "should be thrown.");
@@ -45,4 +52,12 @@ public class KeywordRepositoryTest {
 
     }
 
+    @Test
+    public void testStreamNames() {
+        try (Stream<String> names = keywordRepository.streamNames()) {
+            org.junit.Assert.assertEquals(Arrays.asList("Berlin", "Europa", "Hamburg", "Nahverkehr"),
+                    names.sorted().collect(Collectors.toList()));
+        }
+    }
+
 }
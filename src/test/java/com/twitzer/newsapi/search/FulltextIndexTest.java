@@ -0,0 +1,116 @@
+package com.twitzer.newsapi.search;
+
+import com.twitzer.newsapi.repository.ArticleRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.service.ArticleChangedEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ *
+ * @author jschulz
+ */
+public class FulltextIndexTest {
+
+    private ArticleRepository articleRepository;
+
+    private FulltextIndex toTest;
+
+    @Before
+    public void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        when(articleRepository.streamFulltextFields()).thenReturn(Stream.of(
+                new Object[] { 1L, "Nahverkehr in Berlin", "Neue Buslinien", "Die BVG stellt neue Buslinien vor." },
+                new Object[] { 2L, "Hafen Hamburg", "Containerumschlag", "Berlin liegt nicht am Meer, Hamburg schon." },
+                new Object[] { 3L, "Europa", "Wahlen", "Berlin, Paris und Rom waehlen; Berlin zuerst." }));
+        toTest = new FulltextIndex(articleRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    public void testRankedSearch() {
+        assertThat(toTest.isReady(), is(false));
+        toTest.rebuild();
+
+        assertThat(toTest.isReady(), is(true));
+        // headline match beats two mentions in the main text, which beat one
+        assertThat(toTest.search("Berlin", 10), is(new long[] { 1L, 3L, 2L }));
+        assertThat(toTest.search("berlin", 2), is(new long[] { 1L, 3L }));
+        // the rarer term weighs more
+        assertThat(toTest.search("berlin hamburg", 1), is(new long[] { 2L }));
+        assertThat(toTest.search("buslinien", 10), is(new long[] { 1L }));
+        // stop words and unknown terms only
+        assertThat(toTest.search("der und die", 10), is(new long[0]));
+        assertThat(toTest.search("tokio", 10), is(new long[0]));
+        assertThat(toTest.search("berlin", 0), is(new long[0]));
+    }
+
+    @Test(expected = IndexNotReadyException.class)
+    public void testNotReady() {
+        toTest.search("berlin", 10);
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        toTest.rebuild();
+
+        toTest.onArticleChanged(ArticleChangedEvent.saved(article(4L, "Tokio", "Olympia in Tokio")));
+        assertThat(toTest.search("tokio", 10), is(new long[] { 4L }));
+
+        // changed text
+        toTest.onArticleChanged(ArticleChangedEvent.saved(article(1L, "Nahverkehr in Potsdam", null)));
+        assertThat(toTest.search("berlin", 10), is(new long[] { 3L, 2L }));
+        assertThat(toTest.search("potsdam", 10), is(new long[] { 1L }));
+
+        // deleted
+        toTest.onArticleChanged(ArticleChangedEvent.deleted(3L));
+        toTest.onArticleChanged(ArticleChangedEvent.deleted(4711L));
+        assertThat(toTest.search("berlin", 10), is(new long[] { 2L }));
+    }
+
+    @Test
+    public void testCompaction() {
+        toTest.rebuild();
+
+        // enough updates to leave more deleted than live ordinals behind
+        for (int i = 0; i < 1500; i++) {
+            toTest.onArticleChanged(ArticleChangedEvent.saved(article(4L, "Tokio " + i, "Olympia in Tokio")));
+        }
+        assertThat(toTest.search("tokio", 10), is(new long[] { 4L }));
+        assertThat(toTest.search("berlin", 10), is(new long[] { 1L, 3L, 2L }));
+        assertThat(toTest.search("1499", 10), is(new long[] { 4L }));
+        assertThat(toTest.search("1498", 10), is(new long[0]));
+    }
+
+    @Test
+    public void testTopK() {
+        final List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            // the shorter the text, the better the score
+            final StringBuilder text = new StringBuilder("berlin");
+            for (long i = 0; i < id; i++) {
+                text.append(" wort");
+            }
+            rows.add(new Object[] { id, null, null, text.toString() });
+        }
+        when(articleRepository.streamFulltextFields()).thenReturn(rows.stream());
+        toTest.rebuild();
+
+        assertThat(toTest.search("berlin", 3), is(new long[] { 1L, 2L, 3L }));
+    }
+
+    private static Article article(final Long id, final String headline, final String mainText) {
+        final Article article = new Article();
+        article.setId(id);
+        article.setHeadline(headline);
+        article.setMainText(mainText);
+        return article;
+    }
+}
@@ -0,0 +1,84 @@
+package com.twitzer.newsapi.search;
+
+import com.twitzer.newsapi.repository.ArticleRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.service.ArticleChangedEvent;
+import java.util.stream.Stream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ *
+ * @author jschulz
+ */
+public class KeywordIndexTest {
+
+    private ArticleRepository articleRepository;
+
+    private KeywordIndex toTest;
+
+    @Before
+    public void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        when(articleRepository.streamKeywordNamesAndArticleIds()).thenReturn(Stream.of(
+                new Object[] { "Berlin", 5L },
+                new Object[] { "Europa", 5L },
+                new Object[] { "Berlin", 1L },
+                new Object[] { "Nahverkehr", 1L }));
+        toTest = new KeywordIndex(articleRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    public void testRebuild() {
+        assertThat(toTest.isReady(), is(false));
+
+        toTest.rebuild();
+
+        assertThat(toTest.isReady(), is(true));
+        assertThat(toTest.lookup("BERLIN"), is(new long[] { 1L, 5L }));
+        assertThat(toTest.lookup("europa"), is(new long[] { 5L }));
+        assertThat(toTest.lookup("Hamburg"), is(new long[0]));
+        assertThat(toTest.frequency("berlin"), is(2));
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        toTest.rebuild();
+
+        // new article
+        toTest.onArticleChanged(ArticleChangedEvent.saved(article(3L, "Hamburg", "berlin", "Berlin")));
+        assertThat(toTest.lookup("berlin"), is(new long[] { 1L, 3L, 5L }));
+        assertThat(toTest.lookup("hamburg"), is(new long[] { 3L }));
+
+        // changed keywords
+        toTest.onArticleChanged(ArticleChangedEvent.saved(article(5L, "Hamburg")));
+        assertThat(toTest.lookup("berlin"), is(new long[] { 1L, 3L }));
+        assertThat(toTest.lookup("europa"), is(new long[0]));
+        assertThat(toTest.lookup("hamburg"), is(new long[] { 3L, 5L }));
+
+        // deleted
+        toTest.onArticleChanged(ArticleChangedEvent.deleted(3L));
+        toTest.onArticleChanged(ArticleChangedEvent.deleted(4711L));
+        assertThat(toTest.lookup("berlin"), is(new long[] { 1L }));
+        assertThat(toTest.lookup("hamburg"), is(new long[] { 5L }));
+
+        // without keywords
+        toTest.onArticleChanged(ArticleChangedEvent.saved(article(5L)));
+        assertThat(toTest.lookup("hamburg"), is(new long[0]));
+    }
+
+    private static Article article(final Long id, final String... keywords) {
+        final Article article = new Article();
+        article.setId(id);
+        for (String name : keywords) {
+            article.addKeyword(new Keyword(name));
+        }
+        return article;
+    }
+}
@@ -0,0 +1,92 @@
+package com.twitzer.newsapi.search;
+
+import com.twitzer.newsapi.repository.KeywordRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.service.ArticleChangedEvent;
+import java.util.stream.Stream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ *
+ * @author jschulz
+ */
+public class KeywordSuggestIndexTest {
+
+    private KeywordIndex keywordIndex;
+
+    private KeywordSuggestIndex toTest;
+
+    @Before
+    public void setUp() {
+        final KeywordRepository keywordRepository = mock(KeywordRepository.class);
+        when(keywordRepository.streamNames()).thenReturn(Stream.of("Berlin", "Bern", "Hamburg", "Bernau", "Bahn"));
+        keywordIndex = mock(KeywordIndex.class);
+        when(keywordIndex.isReady()).thenReturn(true);
+        when(keywordIndex.frequency("berlin")).thenReturn(3);
+        when(keywordIndex.frequency("bernau")).thenReturn(5);
+        when(keywordIndex.frequency("bern")).thenReturn(1);
+        when(keywordIndex.frequency("bahn")).thenReturn(1);
+        // "hamburg" is used by no article
+        toTest = new KeywordSuggestIndex(keywordRepository, keywordIndex, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    public void testSuggest() {
+        assertThat(toTest.suggest("ber", 10).isEmpty(), is(true));
+
+        toTest.rebuild();
+
+        // most used first, then alphabetical
+        assertThat(toTest.suggest("BER", 10), is(Matchers.contains("Bernau", "Berlin", "Bern")));
+        assertThat(toTest.suggest("ber", 2), is(Matchers.contains("Bernau", "Berlin")));
+        assertThat(toTest.suggest("b", 10), is(Matchers.contains("Bernau", "Berlin", "Bahn", "Bern")));
+        assertThat(toTest.suggest("bern", 10), is(Matchers.contains("Bernau", "Bern")));
+        assertThat(toTest.suggest("x", 10).isEmpty(), is(true));
+        assertThat(toTest.suggest("ham", 10).isEmpty(), is(true));
+        assertThat(toTest.suggest("zz", 10).isEmpty(), is(true));
+        assertThat(toTest.suggest("ber", 0).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testNewKeywords() {
+        toTest.rebuild();
+
+        final Article article = new Article();
+        article.setId(7L);
+        article.addKeyword(new Keyword("Berlin"));
+        article.addKeyword(new Keyword("Aachen"));
+        article.addKeyword(new Keyword("Bergbau"));
+        article.addKeyword(new Keyword("Zoo"));
+        toTest.onArticleChanged(ArticleChangedEvent.saved(article));
+        toTest.onArticleChanged(ArticleChangedEvent.saved(new Article()));
+        when(keywordIndex.frequency("aachen")).thenReturn(1);
+        when(keywordIndex.frequency("bergbau")).thenReturn(1);
+        when(keywordIndex.frequency("zoo")).thenReturn(1);
+
+        assertThat(toTest.suggest("ber", 10), is(Matchers.contains("Bernau", "Berlin", "Bergbau", "Bern")));
+        assertThat(toTest.suggest("a", 10), is(Matchers.contains("Aachen")));
+        assertThat(toTest.suggest("z", 10), is(Matchers.contains("Zoo")));
+
+        // the article is deleted, its keywords are no longer used
+        toTest.onArticleChanged(ArticleChangedEvent.deleted(7L));
+        when(keywordIndex.frequency("zoo")).thenReturn(0);
+        assertThat(toTest.suggest("z", 10).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSuggestWhileKeywordIndexIsBuilt() {
+        toTest.rebuild();
+        when(keywordIndex.isReady()).thenReturn(false);
+
+        // no frequencies yet, nothing is left out
+        assertThat(toTest.suggest("ham", 10), is(Matchers.contains("Hamburg")));
+    }
+}
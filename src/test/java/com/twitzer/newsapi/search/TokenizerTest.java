@@ -0,0 +1,23 @@
+package com.twitzer.newsapi.search;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ *
+ * @author jschulz
+ */
+public class TokenizerTest {
+
+    @Test
+    public void testTokenize() {
+        assertThat(Tokenizer.tokenize("Der Nahverkehr in Berlin: S-Bahn fährt wieder!"),
+                is(Matchers.contains("nahverkehr", "berlin", "bahn", "fahrt", "wieder")));
+        assertThat(Tokenizer.tokenize("Großstraße & the STREET of 2016"),
+                is(Matchers.contains("grossstrasse", "street", "2016")));
+        assertThat(Tokenizer.tokenize(null).isEmpty(), is(true));
+        assertThat(Tokenizer.tokenize(" - ").isEmpty(), is(true));
+    }
+}
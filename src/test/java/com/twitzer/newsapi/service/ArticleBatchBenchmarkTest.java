@@ -0,0 +1,125 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Create throughput of {@value #ARTICLES} articles with {@value #KEYWORDS_PER_ARTICLE}
+ * keywords each: {@link ArticleService#createArticles(List)} in one
+ * transaction against {@link ArticleService#createArticle(Article)} one by
+ * one. Both run once to warm up, then alternately {@value #ROUNDS} times.
+ * Logs the numbers, checks only the created join rows.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = "ingest.journal.path = ")
+public class ArticleBatchBenchmarkTest {
+
+    private static final int ARTICLES = 200;
+
+    private static final int KEYWORDS_PER_ARTICLE = 5;
+
+    private static final int ROUNDS = 3;
+
+    private static final String KEYWORD_PREFIX = "batch benchmark keyword ";
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private NaturalKeyResolver naturalKeyResolver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> articleIds = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (Long id : articleIds) {
+            jdbcTemplate.update("DELETE FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID = ?", id);
+            jdbcTemplate.update("DELETE FROM NEWS_ARTICLE WHERE ID = ?", id);
+        }
+        jdbcTemplate.update("DELETE FROM NEWS_KEYWORD WHERE NAME LIKE ?", KEYWORD_PREFIX + "%");
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < KEYWORDS_PER_ARTICLE; i++) {
+            names.add(KEYWORD_PREFIX + i);
+        }
+        naturalKeyResolver.evictKeywords(names);
+    }
+
+    @Test
+    public void testCreateThroughput() {
+        final Function<List<Article>, List<Article>> batch = articleService::createArticles;
+        final Function<List<Article>, List<Article>> oneByOne = (articles) -> {
+            final List<Article> created = new ArrayList<>();
+            articles.forEach((article) -> created.add(articleService.createArticle(article)));
+            return created;
+        };
+        run(batch);
+        run(oneByOne);
+
+        long batchNanos = 0;
+        long oneByOneNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            batchNanos += run(batch);
+            oneByOneNanos += run(oneByOne);
+        }
+
+        log.info("----------------- {} creates of articles with {} keywords: batch {} creates/s, one by one {} creates/s",
+                ARTICLES * ROUNDS, KEYWORDS_PER_ARTICLE, perSecond(batchNanos), perSecond(oneByOneNanos));
+    }
+
+    /**
+     * @return  the nanos taken to create the articles
+     */
+    private long run(final Function<List<Article>, List<Article>> create) {
+        final List<Article> articles = articles();
+        final long started = System.nanoTime();
+        final List<Article> created = create.apply(articles);
+        final long nanos = System.nanoTime() - started;
+
+        created.forEach((article) -> articleIds.add(article.getId()));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID BETWEEN ? AND ?", Long.class,
+                created.get(0).getId(), created.get(ARTICLES - 1).getId()), is((long) ARTICLES * KEYWORDS_PER_ARTICLE));
+        return nanos;
+    }
+
+    private static List<Article> articles() {
+        final List<Article> articles = new ArrayList<>();
+        for (int i = 0; i < ARTICLES; i++) {
+            final Article article = new Article();
+            article.setHeadline("batch benchmark headline " + i);
+            article.setPublishedOn(LocalDate.parse("2016-12-12"));
+            for (int k = 0; k < KEYWORDS_PER_ARTICLE; k++) {
+                article.addKeyword(new Keyword(KEYWORD_PREFIX + k));
+            }
+            articles.add(article);
+        }
+        return articles;
+    }
+
+    private static long perSecond(final long nanos) {
+        return ARTICLES * ROUNDS * 1_000_000_000L / Math.max(1, nanos);
+    }
+}
@@ -0,0 +1,44 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.repository.domain.Article;
+import java.time.LocalDate;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+/**
+ *
+ * @author jschulz
+ */
+public class ArticleCursorTest {
+
+    @Test
+    public void testEncodeDecode() {
+        Article article = new Article();
+        article.setId(42L);
+        article.setPublishedOn(LocalDate.parse("2016-02-29"));
+
+        final ArticleCursor cursor = ArticleCursor.after(article);
+        final ArticleCursor decoded = ArticleCursor.decode(cursor.encode());
+
+        assertThat(decoded, is(cursor));
+        assertThat(decoded.getId(), is(42L));
+        assertThat(decoded.getPublishedOn(), is(LocalDate.parse("2016-02-29")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalidBase64() {
+        ArticleCursor.decode("%%%");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeWithoutSeparator() {
+        ArticleCursor.decode("MjAxNi0wMi0yOQ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalidId() {
+        ArticleCursor.decode(new ArticleCursor(LocalDate.now(), 1L).encode().substring(2));
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Runs against the database: the cursors over articles, authors and
+ * keywords are merged into the right articles.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = { "ingest.journal.path = ", "export.fetch-size = 1" })
+public class ArticleExporterTest {
+
+    @Autowired
+    private ArticleExporter articleExporter;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Test
+    public void testExportAll() {
+        final List<String> rows = new ArrayList<>();
+        final int exported = articleExporter.export(null, (row) -> {
+            if (row.getId() == 1L || row.getId() == 5L) {
+                rows.add(describe(row));
+            }
+        });
+
+        assertThat(exported >= 2, is(true));
+        assertThat(rows.get(0), is("1 [1 Lorenz, 2 Jochen] [1 Nahverkehr, 2 Berlin]"));
+        assertThat(rows.get(1), is("5 [3 Frau, 4 Angela] [3 Hamburg, 4 Europa]"));
+    }
+
+    @Test
+    public void testExportSince() {
+        final LocalDateTime since = LocalDateTime.now().minusSeconds(1);
+        final Article article = new Article();
+        article.setHeadline("exported headline");
+        article.setPublishedOn(LocalDate.parse("2016-12-12"));
+        final Long id = articleService.createArticle(article).getId();
+
+        final List<ExportRow> rows = new ArrayList<>();
+        articleExporter.export(since, (row) -> {
+            if (row.getId() == id) {
+                assertThat(row.getHeadline(), is("exported headline"));
+                assertThat(row.getDeletedOn(), is(nullValue()));
+                rows.add(row);
+            }
+        });
+        assertThat(rows.size(), is(1));
+
+        articleService.deleteArticle(id);
+        rows.clear();
+        articleExporter.export(since, (row) -> {
+            if (row.getId() == id) {
+                assertThat(row.getDeletedOn(), is(notNullValue()));
+                rows.add(row);
+            }
+        });
+        assertThat(rows.size(), is(1));
+
+        assertThat(articleExporter.export(LocalDateTime.now().plusDays(1), (row) -> rows.add(row)), is(0));
+        assertThat(articleExporter.export(null, (row) -> assertThat(row.getId() == id, is(false))) >= 2, is(true));
+    }
+
+    private static String describe(final ExportRow row) {
+        final List<String> authors = new ArrayList<>();
+        for (int i = 0; i < row.getAuthorCount(); i++) {
+            authors.add(row.getAuthorId(i) + " " + row.getAuthorFirstname(i));
+        }
+        final List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < row.getKeywordCount(); i++) {
+            keywords.add(row.getKeywordId(i) + " " + row.getKeywordName(i));
+        }
+        return row.getId() + " " + authors + " " + keywords;
+    }
+}
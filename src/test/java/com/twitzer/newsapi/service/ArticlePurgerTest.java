@@ -0,0 +1,152 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Runs against the database: a deleted article disappears from reads at
+ * once, its rows only when purged after the retention; the shared author
+ * and keyword stay. Idempotency keys are purged after a retention of their own.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = "ingest.journal.path = ")
+public class ArticlePurgerTest {
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticlePurger articlePurger;
+
+    @Autowired
+    private ArticleExporter articleExporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPurgeDeletedArticles() {
+        final Article article = new Article();
+        article.setHeadline("purged headline");
+        article.setPublishedOn(LocalDate.parse("2016-12-12"));
+        final Author author = new Author("Lorenz", "Vossen");
+        author.setId(1L);
+        article.addAuthor(author);
+        final Keyword keyword = new Keyword("Nahverkehr");
+        keyword.setId(1L);
+        article.addKeyword(keyword);
+        final Long id = articleService.createArticle(article).getId();
+
+        assertThat(articleService.deleteArticle(id), is(true));
+        assertThat(articleService.deleteArticle(id), is(false));
+        assertThat(articleService.findOne(id), is(nullValue()));
+        assertThat(articleService.findByDateRange(LocalDate.parse("2016-12-11"), LocalDate.parse("2016-12-13")).isEmpty(), is(true));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE WHERE ID = ?", id), is(1));
+
+        // within the retention the tombstone stays for the incremental exports
+        articlePurger.purge();
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE WHERE ID = ?", id), is(1));
+        assertThat(exportedTombstones(LocalDateTime.now().minusMinutes(1), id), is(1));
+
+        backdateDeletion(id);
+        assertThat(articlePurger.purge(), is(greaterThanOrEqualTo(1)));
+
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE WHERE ID = ?", id), is(0));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE_AUTHOR WHERE ARTICLE_ID = ?", id), is(0));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID = ?", id), is(0));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_AUTHOR WHERE ID = ?", 1L), is(1));
+        assertThat(count("SELECT COUNT(*) FROM NEWS_KEYWORD WHERE ID = ?", 1L), is(1));
+        assertThat(articlePurger.purge(), is(0));
+    }
+
+    @Test
+    public void testIncrementalExportAfterPurge() {
+        final Article article = new Article();
+        article.setHeadline("purged export headline");
+        article.setPublishedOn(LocalDate.parse("2016-12-12"));
+        final Long id = articleService.createArticle(article).getId();
+        final LocalDateTime since = LocalDateTime.now().minusMinutes(1);
+        articleService.deleteArticle(id);
+
+        articlePurger.purge();
+        assertThat(exportedTombstones(since, id), is(1));
+
+        // a poller behind the retention may have missed purged deletes
+        backdateDeletion(id);
+        articlePurger.purge();
+        try {
+            articleExporter.export(LocalDateTime.now().minusDays(8), (row) -> { });
+            fail("since before the retention");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage().startsWith("since has to be within the last"), is(true));
+        }
+        assertThat(exportedTombstones(since, id), is(0));
+    }
+
+    @Test
+    public void testPurgeIdempotencyKeys() {
+        final Article article = new Article();
+        article.setHeadline("idempotent purged headline");
+        article.setPublishedOn(LocalDate.parse("2016-12-12"));
+        articleService.createArticle(article, new IdempotencyKey("purged-key", "hash"), (created) -> new byte[0]);
+        // cached, too
+        assertThat(articleService.findIdempotencyKey("purged-key").getArticleId(), is(article.getId()));
+
+        // within the retention the key stays
+        articlePurger.purgeIdempotencyKeys();
+        assertThat(articleService.findIdempotencyKey("purged-key").getArticleId(), is(article.getId()));
+
+        // beyond the default retention of a day
+        jdbcTemplate.update("UPDATE NEWS_IDEMPOTENCY_KEY SET CREATED_ON = ? WHERE IDEMPOTENCY_KEY = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(2)), "purged-key");
+        assertThat(articlePurger.purgeIdempotencyKeys(), is(greaterThanOrEqualTo(1)));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM NEWS_IDEMPOTENCY_KEY WHERE IDEMPOTENCY_KEY = ?",
+                Integer.class, "purged-key"), is(0));
+        assertThat(articleService.findIdempotencyKey("purged-key"), is(nullValue()));
+        articleService.deleteArticle(article.getId());
+    }
+
+    private int exportedTombstones(final LocalDateTime since, final Long id) {
+        final List<Long> ids = new ArrayList<>();
+        articleExporter.export(since, (row) -> {
+            if (row.getId() == id && row.getDeletedOn() != null) {
+                ids.add(row.getId());
+            }
+        });
+        return ids.size();
+    }
+
+    /** beyond the default retention of a week. */
+    private void backdateDeletion(final Long id) {
+        jdbcTemplate.update("UPDATE NEWS_ARTICLE SET DELETED_ON = ? WHERE ID = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(8)), id);
+    }
+
+    private int count(final String sql, final Long id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
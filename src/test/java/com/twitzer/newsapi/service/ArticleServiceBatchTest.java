@@ -0,0 +1,96 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks that {@link ArticleService#createArticles(List)} writes in JDBC
+ * batches instead of statement by statement.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.generate_statistics = true", "ingest.journal.path = " })
+@Transactional
+public class ArticleServiceBatchTest {
+
+    @Autowired
+    private ArticleService articleService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NaturalKeyResolver naturalKeyResolver;
+
+    /** the resolver commits new authors and keywords on its own. */
+    @AfterTransaction
+    public void deleteResolvedNames() {
+        jdbcTemplate.update("DELETE FROM NEWS_KEYWORD WHERE NAME = ?", "batch keyword");
+        jdbcTemplate.update("DELETE FROM NEWS_AUTHOR WHERE FIRSTNAME = ? AND LASTNAME = ?", "new", "author");
+        naturalKeyResolver.evictKeywords(Arrays.asList("batch keyword"));
+        naturalKeyResolver.evictAuthors(Arrays.asList(Arrays.asList("new", "author")));
+    }
+
+    @Test
+    public void testCreateArticlesInBatches() {
+        final Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        final List<Article> articles = new ArrayList<>();
+        for (int i = 0; i < ArticleService.MAX_BATCH_SIZE; i++) {
+            final Article article = new Article();
+            article.setHeadline("headline " + i);
+            article.setDescription("description");
+            article.setMainText("text");
+            article.setPublishedOn(LocalDate.parse("2016-01-01"));
+            final Author existing = new Author("Lorenz", "Vossen");
+            existing.setId(1L);
+            article.addAuthor(existing);
+            article.addAuthor(new Author("new", "author"));
+            article.addKeyword(new Keyword("Berlin"));
+            article.addKeyword(new Keyword("batch keyword"));
+            articles.add(article);
+        }
+        statistics.clear();
+
+        final List<Article> created = articleService.createArticles(articles);
+        entityManager.flush();
+
+        assertThat(created.size(), is(ArticleService.MAX_BATCH_SIZE));
+        assertThat(created.get(0).getId(), is(notNullValue()));
+        // shared: the existing author and keyword, and one new author and keyword each
+        assertThat(created.get(0).getAuthors().get(0).getId(), is(1L));
+        assertThat(created.get(0).getAuthors().get(1), is(created.get(999).getAuthors().get(1)));
+        assertThat(created.get(0).getKeywords().get(0).getId(), is(2L));
+        // the new author and keyword are created by the NaturalKeyResolver, outside of Hibernate
+        assertThat(statistics.getEntityInsertCount(), is((long) ArticleService.MAX_BATCH_SIZE));
+        // 1000 articles and 4000 join table rows, statement by statement that would be > 5000
+        assertThat(statistics.getPrepareStatementCount(), is(lessThan(200L)));
+    }
+}
@@ -0,0 +1,182 @@
+package com.twitzer.newsapi.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.fail;
+import org.junit.runner.RunWith;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.BeanFactoryCacheOperationSourceAdvisor;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+
+/**
+ * Checks the read-through article cache in front of {@link ArticleService}.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = "ingest.journal.path = ")
+public class ArticleServiceCacheTest {
+
+    private static final Function<Article, byte[]> RESPONSE =
+            (article) -> ("{\"id\":" + article.getId() + "}").getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("caffeineCacheCounterMetrics")
+    private PublicMetrics cacheMetrics;
+
+    @Before
+    public void clearCache() {
+        cacheManager.getCache(ArticleService.ARTICLE_CACHE).clear();
+        cacheManager.getCache(ArticleService.ARTICLE_RESPONSE_CACHE).clear();
+        cacheManager.getCache(ArticleService.IDEMPOTENCY_KEY_CACHE).clear();
+    }
+
+    @Test
+    public void testFindOneIsCached() {
+        final CacheStats before = stats();
+
+        final Article first = articleService.findOne(1L);
+        final Article second = articleService.findOne(1L);
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(stats().minus(before).hitCount(), is(1L));
+        assertThat(stats().minus(before).missCount(), is(1L));
+        assertThat(metrics().get("cache.articles.hits"), is(stats().hitCount()));
+        assertThat(metrics().get("cache.articles.evictions"), notNullValue());
+    }
+
+    @Test
+    public void testEvictsAfterCommit() {
+        Integer cacheOrder = null;
+        Integer transactionOrder = null;
+        for (Advisor advisor : ((Advised) articleService).getAdvisors()) {
+            if (advisor instanceof BeanFactoryCacheOperationSourceAdvisor) {
+                cacheOrder = ((Ordered) advisor).getOrder();
+            } else if (advisor instanceof BeanFactoryTransactionAttributeSourceAdvisor) {
+                transactionOrder = ((Ordered) advisor).getOrder();
+            }
+        }
+        // the cache advice has to wrap the transaction, not depend on the registration order
+        assertThat(cacheOrder < transactionOrder, is(true));
+    }
+
+    @Test
+    public void testUnknownArticleIsNotCached() {
+        assertThat(articleService.findOne(4711L), is(nullValue()));
+        assertThat(cacheManager.getCache(ArticleService.ARTICLE_CACHE).get(4711L), is(nullValue()));
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateEvicts() {
+        final Article cached = articleService.findOne(5L);
+        assertThat(cacheManager.getCache(ArticleService.ARTICLE_CACHE).get(5L), notNullValue());
+        cacheManager.getCache(ArticleService.ARTICLE_RESPONSE_CACHE).put(5L, "serialized");
+
+        final Article input = new Article();
+        input.setId(5L);
+        input.setHeadline("changed headline");
+        input.setDescription(cached.getDescription());
+        input.setMainText(cached.getMainText());
+        articleService.updateArticle(input);
+
+        assertThat(cacheManager.getCache(ArticleService.ARTICLE_CACHE).get(5L), is(nullValue()));
+        assertThat(cacheManager.getCache(ArticleService.ARTICLE_RESPONSE_CACHE).get(5L), is(nullValue()));
+        assertThat(articleService.findOne(5L).getHeadline(), is("changed headline"));
+    }
+
+    @Test
+    public void testPatchOfAStaleVersionFails() {
+        final Article created = articleService.createArticle(newArticle());
+        try {
+            final Article changes = new Article();
+            changes.setHeadline("patched headline");
+            changes.setVersion(created.getVersion());
+            final Article patched = articleService.patchArticle(created.getId(), changes);
+
+            assertThat(patched.getVersion(), is(created.getVersion() + 1));
+            assertThat(cacheManager.getCache(ArticleService.ARTICLE_CACHE).get(created.getId()), is(nullValue()));
+            assertThat(articleService.findOne(created.getId()).getHeadline(), is("patched headline"));
+            try {
+                articleService.patchArticle(created.getId(), changes);
+                fail("a patch of a stale version must fail");
+            } catch (OptimisticLockingFailureException e) {
+                // expected
+            }
+        } finally {
+            articleService.deleteArticle(created.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    public void testIdempotencyKeyIsRecordedOnce() {
+        final Article created = articleService.createArticle(newArticle(), new IdempotencyKey("key-1", "hash"), RESPONSE);
+
+        final IdempotencyKey known = articleService.findIdempotencyKey("key-1");
+        assertThat(known.getArticleId(), is(created.getId()));
+        assertThat(new String(known.getResponse(), StandardCharsets.UTF_8), is("{\"id\":" + created.getId() + "}"));
+        assertThat(articleService.findIdempotencyKey("key-1"), is(sameInstance(known)));
+        assertThat(articleService.findIdempotencyKey("key-2"), is(nullValue()));
+        try {
+            articleService.createArticle(newArticle(), new IdempotencyKey("key-1", "hash"), RESPONSE);
+            fail("a known key must not be recorded twice");
+        } catch (DataIntegrityViolationException e) {
+            // expected
+        }
+    }
+
+    private static Article newArticle() {
+        final Article article = new Article();
+        article.setHeadline("idempotent headline");
+        article.setPublishedOn(LocalDate.parse("2016-12-12"));
+        return article;
+    }
+
+    private CacheStats stats() {
+        return ((CaffeineCache) cacheManager.getCache(ArticleService.ARTICLE_CACHE)).getNativeCache().stats();
+    }
+
+    private Map<String, Number> metrics() {
+        final Map<String, Number> values = new HashMap<>();
+        for (Metric<?> metric : cacheMetrics.metrics()) {
+            values.put(metric.getName(), metric.getValue());
+        }
+        return values;
+    }
+}
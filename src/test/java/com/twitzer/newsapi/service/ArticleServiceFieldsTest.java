@@ -0,0 +1,141 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Runs against the database: only the requested fields are loaded.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = "ingest.journal.path = ")
+public class ArticleServiceFieldsTest {
+
+    private static final LocalDate FROM = LocalDate.parse("2031-01-01");
+
+    private static final LocalDate TO = LocalDate.parse("2031-12-31");
+
+    @Autowired
+    private ArticleService articleService;
+
+    private Article first;
+
+    private Article second;
+
+    @Before
+    public void setUp() {
+        articleService.deleteArticlesByDateRange(FROM, TO);
+        first = create("sparse one", LocalDate.parse("2031-01-02"), new Author("Sparse", "Writer"));
+        second = create("sparse two", LocalDate.parse("2031-01-03"), null);
+    }
+
+    @Test
+    public void testFindColumns() {
+        final List<Article> articles = articleService.findByKeywordName("Sparse Fields",
+                EnumSet.of(ArticleField.HEADLINE));
+
+        assertThat(articles.size(), is(2));
+        final Article article = articles.get(0);
+        assertThat(article.getId(), is(first.getId()));
+        assertThat(article.getHeadline(), is("sparse one"));
+        assertThat(article.getUpdatedOn(), is(notNullValue()));
+        assertThat(article.getDescription(), is(nullValue()));
+        assertThat(article.getMainText(), is(nullValue()));
+        assertThat(article.getPublishedOn(), is(nullValue()));
+        assertThat(article.getVersion(), is(nullValue()));
+        assertThat(article.getAuthors(), is(nullValue()));
+        assertThat(article.getKeywords(), is(nullValue()));
+        assertThat(articles.get(1).getHeadline(), is("sparse two"));
+    }
+
+    @Test
+    public void testFindAssociations() {
+        final Article article = articleService.findOne(first.getId(), EnumSet.of(ArticleField.AUTHORS, ArticleField.KEYWORDS));
+
+        assertThat(article.getHeadline(), is(nullValue()));
+        assertThat(article.getAuthors().size(), is(1));
+        assertThat(article.getAuthors().get(0).getFirstname(), is("Sparse"));
+        assertThat(article.getKeywords().size(), is(1));
+        assertThat(article.getKeywords().get(0).getName(), is("Sparse Fields"));
+
+        final Long authorId = article.getAuthors().get(0).getId();
+        final List<Article> byAuthor = articleService.findByAuthorId(authorId, EnumSet.of(ArticleField.MAIN_TEXT));
+        assertThat(byAuthor.size(), is(1));
+        assertThat(byAuthor.get(0).getMainText(), is("text"));
+    }
+
+    @Test
+    public void testFindByDateRange() {
+        List<Article> articles = articleService.findByDateRange(FROM, TO, EnumSet.of(ArticleField.VERSION));
+        assertThat(articles.size(), is(2));
+        assertThat(articles.get(0).getVersion(), is(notNullValue()));
+
+        // the cursor needs publishedOn
+        articles = articleService.findByDateRange(FROM, TO, null, 1, EnumSet.of(ArticleField.ID));
+        assertThat(articles.size(), is(1));
+        assertThat(articles.get(0).getPublishedOn(), is(LocalDate.parse("2031-01-02")));
+        articles = articleService.findByDateRange(FROM, TO, ArticleCursor.after(articles.get(0)), 1,
+                EnumSet.of(ArticleField.ID));
+        assertThat(articles.get(0).getId(), is(second.getId()));
+
+        final List<String> teasers = new ArrayList<>();
+        articleService.streamByDateRange(FROM, TO, EnumSet.of(ArticleField.TEASER_TEXT),
+                (article) -> teasers.add(article.getDescription()));
+        assertThat(teasers, is(Arrays.asList("teaser", "teaser")));
+    }
+
+    @Test
+    public void testDeletedArticlesAreLeftOut() {
+        articleService.deleteArticle(second.getId());
+
+        assertThat(articleService.findByDateRange(FROM, TO, EnumSet.of(ArticleField.ID)).size(), is(1));
+        assertThat(articleService.findOne(second.getId(), EnumSet.of(ArticleField.ID)), is(nullValue()));
+    }
+
+    @Test
+    public void testParse() {
+        assertThat(ArticleField.parse(" id, teaserText ,,"), is(EnumSet.of(ArticleField.ID, ArticleField.TEASER_TEXT)));
+        for (String invalid : Arrays.asList("", " , ", "id,description")) {
+            try {
+                ArticleField.parse(invalid);
+                throw new AssertionError(invalid);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private Article create(final String headline, final LocalDate publishedOn, final Author author) {
+        final Article article = new Article();
+        article.setHeadline(headline);
+        article.setDescription("teaser");
+        article.setMainText("text");
+        article.setPublishedOn(publishedOn);
+        article.setKeywords(new ArrayList<>(Collections.singletonList(new Keyword("Sparse Fields"))));
+        if (author != null) {
+            article.setAuthors(new ArrayList<>(Collections.singletonList(author)));
+        }
+        return articleService.createArticle(article);
+    }
+}
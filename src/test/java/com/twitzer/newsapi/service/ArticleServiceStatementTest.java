@@ -0,0 +1,109 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the SQL statements of create and update, flush included: a fixed
+ * number, however many authors and keywords the article has.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.generate_statistics = true", "ingest.journal.path = " })
+@Transactional
+public class ArticleServiceStatementTest {
+
+    @Autowired
+    private ArticleService articleService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testCreateArticleStatements() {
+        final long one = countCreateStatements(1);
+        final long four = countCreateStatements(4);
+
+        // authors, keywords, the article, the author and the keyword join rows in one batch each
+        assertThat(one, is(5L));
+        assertThat(four, is(one));
+    }
+
+    @Test
+    public void testUpdateArticleStatements() {
+        final Long id = articleService.createArticle(article(1)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        final Article update = article(4);
+        update.setId(id);
+        final long four = countStatements(() -> articleService.updateArticle(update));
+        final Article back = article(1);
+        back.setId(id);
+        final long one = countStatements(() -> articleService.updateArticle(back));
+
+        assertThat(four, is(one));
+    }
+
+    /**
+     * The fewer of two creates: at most one of them fetches the next block
+     * of {@value Article#ID_ALLOCATION_SIZE} pooled ids, which isn't counted.
+     */
+    private long countCreateStatements(final int count) {
+        return Math.min(countStatements(() -> articleService.createArticle(article(count))),
+                countStatements(() -> articleService.createArticle(article(count))));
+    }
+
+    private long countStatements(final Supplier<Article> write) {
+        entityManager.clear();
+        statistics.clear();
+        write.get();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * @return  a new article with the seeded authors and keywords 1 to count
+     */
+    private static Article article(final int count) {
+        final Article article = new Article();
+        article.setHeadline("statement count " + count);
+        article.setPublishedOn(LocalDate.parse("2016-12-12"));
+        for (long i = 1; i <= count; i++) {
+            final Author author = new Author("seeded", "author");
+            author.setId(i);
+            article.addAuthor(author);
+            final Keyword keyword = new Keyword("seeded keyword");
+            keyword.setId(i);
+            article.addKeyword(keyword);
+        }
+        return article;
+    }
+}
@@ -2,13 +2,29 @@ package com.twitzer.newsapi.service;
 
 import com.twitzer.newsapi.repository.ArticleRepository;
 import com.twitzer.newsapi.repository.AuthorRepository;
+import com.twitzer.newsapi.repository.IdempotencyKeyRepository;
 import com.twitzer.newsapi.repository.KeywordRepository;
 import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.ArticleSummary;
+import com.twitzer.newsapi.repository.domain.ArticleVersion;
 import com.twitzer.newsapi.repository.domain.Author;
+import com.twitzer.newsapi.repository.domain.IdempotencyKey;
 import com.twitzer.newsapi.repository.domain.Keyword;
+import com.twitzer.newsapi.search.FulltextIndex;
+import com.twitzer.newsapi.search.KeywordIndex;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import static org.hamcrest.CoreMatchers.is;
 import org.hamcrest.MatcherAssert;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -16,15 +32,22 @@ import org.hamcrest.Matchers;
 import static org.hamcrest.Matchers.notNullValue;
 import org.junit.After;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  *
@@ -35,6 +58,12 @@ public class ArticleServiceTest {
     private ArticleRepository articleRepository;
     private KeywordRepository keywordRepository;
     private AuthorRepository authorRepository;
+    private NaturalKeyResolver naturalKeyResolver;
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private ArticleAssociationWriter associationWriter;
+    private KeywordIndex keywordIndex;
+    private FulltextIndex fulltextIndex;
+    private ApplicationEventPublisher eventPublisher;
 
     public ArticleServiceTest() {
     }
@@ -44,6 +73,12 @@ public class ArticleServiceTest {
         articleRepository = mock(ArticleRepository.class);
         keywordRepository = mock(KeywordRepository.class);
         authorRepository = mock(AuthorRepository.class);
+        naturalKeyResolver = mock(NaturalKeyResolver.class);
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        associationWriter = mock(ArticleAssociationWriter.class);
+        keywordIndex = mock(KeywordIndex.class);
+        fulltextIndex = mock(FulltextIndex.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
     }
 
     @After
@@ -65,40 +100,47 @@ public class ArticleServiceTest {
         dummy2.setId(33L);
 
         when(articleRepository.save(dummy)).thenReturn(dummy2);
-        when(articleRepository.findOne(33L)).thenReturn(dummy2);
 
-        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
         Article result = toTest.createArticle(dummy);
 
+        // a single statement, no re-read
         verify(articleRepository, times(1)).save(dummy);
-        verify(articleRepository, times(1)).findOne(33L);
+        verifyNoMoreInteractions(articleRepository, authorRepository, keywordRepository, naturalKeyResolver);
         MatcherAssert.assertThat(result, is(dummy2));
     }
 
-//    @Ignore
+    @Test
+    public void testCreateArticleWithIdempotencyKey() {
+        final Article input = new Article();
+        input.setHeadline("dummy headline");
+        when(articleRepository.save(input)).thenAnswer((invocation) -> {
+            input.setId(33L);
+            return input;
+        });
+        final IdempotencyKey key = new IdempotencyKey("key", "hash");
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final Article result = toTest.createArticle(input, key, (created) -> new byte[] { created.getId().byteValue() });
+
+        assertThat(result, is(Matchers.sameInstance(input)));
+        assertThat(key.getArticleId(), is(33L));
+        assertThat(key.getResponse(), is(new byte[] { 33 }));
+        verify(idempotencyKeyRepository, times(1)).saveAndFlush(key);
+        verify(eventPublisher, times(1)).publishEvent(any(ArticleChangedEvent.class));
+
+        when(idempotencyKeyRepository.findOne("key")).thenReturn(key);
+        assertThat(toTest.findIdempotencyKey("key"), is(Matchers.sameInstance(key)));
+    }
+
+    /**
+     * Query-count regression test: however many authors and keywords, a
+     * create costs one natural-key resolution and at most two loads per kind
+     * plus the insert of the article.
+     */
     @Test
     public void testCreateArticleWithAuthorsAndKeywords() {
         LocalDate now = LocalDate.now();
-        Article expected = new Article();
-        expected.setId(33L);
-        expected.setDescription("dummy description");
-        expected.setHeadline("dummy headline");
-        expected.setMainText("dummy text");
-        expected.setPublishedOn(now);
-
-        final Author a11 = new Author("f1", "l1");
-        a11.setId(4L);
-        final Author a21 = new Author("f2", "l2");
-        a21.setId(5L);
-        expected.addAuthor(a21);
-        expected.addAuthor(a11);
-
-        Keyword k11 = new Keyword("hot");
-        k11.setId(9L);
-        Keyword k21 = new Keyword("stuff");
-        k21.setId(23L);
-        expected.addKeyword(k11);
-        expected.addKeyword(k21);
 
         // given
         Article input = new Article();
@@ -107,61 +149,69 @@ public class ArticleServiceTest {
         input.setMainText("dummy text");
         input.setPublishedOn(now);
 
-        List<Author> authors = new ArrayList<>(2);
+        List<Author> authors = new ArrayList<>(3);
         final Author a1 = new Author("f1", "l1");
         authors.add(a1);
         final Author a2 = new Author("f2", "l2");
         authors.add(a2);
+        final Author a3 = new Author("f3", "l3");
+        a3.setId(4L);
+        authors.add(a3);
         input.setAuthors(authors);
 
         Keyword k1 = new Keyword("hot");
         Keyword k2 = new Keyword("stuff");
+        Keyword k3 = new Keyword("known");
+        k3.setId(23L);
         input.addKeyword(k1);
         input.addKeyword(k2);
+        input.addKeyword(k3);
 
-        Article dummyWithoutAuth = new Article();
-        dummyWithoutAuth.setDescription("dummy description");
-        dummyWithoutAuth.setHeadline("dummy headline");
-        dummyWithoutAuth.setMainText("dummy text");
-        dummyWithoutAuth.setPublishedOn(input.getPublishedOn());
-        dummyWithoutAuth.setAuthors(new ArrayList<>());
-        dummyWithoutAuth.setKeywords(new ArrayList<>());
-
-        Article dummyWithId = new Article();
-        dummyWithId.setId(33L);
-        dummyWithId.setDescription("dummy description");
-        dummyWithId.setHeadline("dummy headline");
-        dummyWithId.setMainText("dummy text");
-        dummyWithId.setPublishedOn(input.getPublishedOn());
-
-        when(articleRepository.save(dummyWithoutAuth)).thenReturn(dummyWithId);
-        when(articleRepository.findOne(33L)).thenReturn(expected);
-
-        when(authorRepository.exists(4L)).thenReturn(false);
-        when(authorRepository.exists(5L)).thenReturn(false);
-        when(authorRepository.save(a1)).thenReturn(a11);
-        when(authorRepository.save(a2)).thenReturn(a21);
-        when(authorRepository.findOne(4L)).thenReturn(a11);
-        when(authorRepository.findOne(5L)).thenReturn(a21);
-
-        when(keywordRepository.save(k1)).thenReturn(k11);
-        when(keywordRepository.save(k2)).thenReturn(k21);
-        when(keywordRepository.exists(9L)).thenReturn(false);
-        when(keywordRepository.exists(23L)).thenReturn(false);
-        when(keywordRepository.findOne(9L)).thenReturn(k11);
-        when(keywordRepository.findOne(23L)).thenReturn(k21);
+        final Author a11 = new Author("f1", "l1");
+        a11.setId(7L);
+        final Author a21 = new Author("f2", "l2");
+        a21.setId(8L);
+        final Author a31 = new Author("f3", "l3");
+        a31.setId(4L);
+        Keyword k11 = new Keyword("hot");
+        k11.setId(9L);
+        Keyword k21 = new Keyword("stuff");
+        k21.setId(10L);
+        Keyword k31 = new Keyword("known");
+        k31.setId(23L);
+
+        final Map<List<String>, Long> authorIds = new HashMap<>();
+        authorIds.put(Arrays.asList("f1", "l1"), 7L);
+        authorIds.put(Arrays.asList("f2", "l2"), 8L);
+        final Map<String, Long> keywordIds = new HashMap<>();
+        keywordIds.put("hot", 9L);
+        keywordIds.put("stuff", 10L);
+
+        when(authorRepository.findAll(asSet(4L))).thenReturn(Arrays.asList(a31));
+        when(keywordRepository.findAll(asSet(23L))).thenReturn(Arrays.asList(k31));
+        when(naturalKeyResolver.resolveAuthors(asSet(Arrays.asList("f1", "l1"), Arrays.asList("f2", "l2")))).thenReturn(authorIds);
+        when(naturalKeyResolver.resolveKeywords(asSet("hot", "stuff"))).thenReturn(keywordIds);
+        when(authorRepository.findAll(asSet(7L, 8L))).thenReturn(Arrays.asList(a21, a11));
+        when(keywordRepository.findAll(asSet(9L, 10L))).thenReturn(Arrays.asList(k11, k21));
+        when(articleRepository.save(input)).thenReturn(input);
 
         // when
-        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
         Article result = toTest.createArticle(input);
 
         // then
+        verify(authorRepository, times(2)).findAll(any(Iterable.class));
+        verify(keywordRepository, times(2)).findAll(any(Iterable.class));
+        verify(naturalKeyResolver, times(1)).resolveAuthors(any(Collection.class));
+        verify(naturalKeyResolver, times(1)).resolveKeywords(any(Collection.class));
         verify(articleRepository, times(1)).save(input);
-        verify(articleRepository, times(3)).findOne(33L);
-        verify(authorRepository, times(2)).save(any(Author.class));
-        verify(keywordRepository, times(2)).save(any(Keyword.class));
+        verifyNoMoreInteractions(articleRepository, authorRepository, keywordRepository, naturalKeyResolver);
 
-        assertThat(result, is(expected));
+        assertThat(result, is(input));
+        assertThat(result.getAuthors(), is(Matchers.contains(Matchers.sameInstance(a11),
+                Matchers.sameInstance(a21), Matchers.sameInstance(a31))));
+        assertThat(result.getKeywords(), is(Matchers.contains(Matchers.sameInstance(k11),
+                Matchers.sameInstance(k21), Matchers.sameInstance(k31))));
     }
 
     @Test
@@ -188,13 +238,12 @@ public class ArticleServiceTest {
         when(articleRepository.findOne(33L)).thenReturn(null);
 
         // when
-        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
         Article result = toTest.updateArticle(input);
 
         assertThat(result, is(Matchers.nullValue()));
     }
 
-    @Ignore
     @Test
     public void testUpdateArticle() {
         LocalDate now = LocalDate.now();
@@ -221,73 +270,463 @@ public class ArticleServiceTest {
         input.addKeyword(k1);
         input.addKeyword(k2);
 
-        Article expected = new Article();
-        expected.setId(33L);
-        expected.setDescription("dummy description");
-        expected.setHeadline("dummy headline");
-        expected.setMainText("dummy text");
-        expected.setPublishedOn(now);
+        Article existing = new Article();
+        existing.setId(33L);
+        existing.setHeadline("old headline");
+        existing.setPublishedOn(now);
 
         final Author a11 = new Author("f1", "l1");
         a11.setId(1L);
         final Author a21 = new Author("f2", "l2");
         a21.setId(2L);
-        expected.addAuthor(a21);
-        expected.addAuthor(a11);
 
         Keyword k11 = new Keyword("hot");
         k11.setId(3L);
         Keyword k21 = new Keyword("stuff");
         k21.setId(4L);
-        expected.addKeyword(k11);
-        expected.addKeyword(k21);
-
-        when(articleRepository.findOne(33L)).thenReturn(expected);
-        when(authorRepository.exists(1L)).thenReturn(true);
-        when(authorRepository.exists(2L)).thenReturn(true);
-//        when(authorRepository.save(a1)).thenReturn(a11);
-//        when(authorRepository.save(a2)).thenReturn(a21);
-        when(authorRepository.findOne(1L)).thenReturn(a11);
-        when(authorRepository.findOne(2L)).thenReturn(a21);
-
-//        when(keywordRepository.save(k1)).thenReturn(k11);
-//        when(keywordRepository.save(k2)).thenReturn(k21);
-        when(keywordRepository.exists(3L)).thenReturn(true);
-        when(keywordRepository.exists(4L)).thenReturn(true);
-        when(keywordRepository.findOne(9L)).thenReturn(k11);
-        when(keywordRepository.findOne(23L)).thenReturn(k21);
+
+        when(articleRepository.findOne(33L)).thenReturn(existing);
+        when(articleRepository.save(existing)).thenReturn(existing);
+        when(authorRepository.findAll(asSet(1L, 2L))).thenReturn(Arrays.asList(a21, a11));
+        when(keywordRepository.findAll(asSet(3L, 4L))).thenReturn(Arrays.asList(k11, k21));
 
         // when
-        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(toTest, "entityManager", entityManager);
         Article result = toTest.updateArticle(input);
 
-        assertThat(result, is(expected));
+        // then: one read, one lookup per kind, one write; nothing to resolve by name
+        verify(articleRepository, times(1)).findOne(33L);
+        verify(authorRepository, times(1)).findAll(any(Iterable.class));
+        verify(keywordRepository, times(1)).findAll(any(Iterable.class));
+        verify(articleRepository, times(1)).save(existing);
+        verifyNoMoreInteractions(articleRepository, authorRepository, keywordRepository, naturalKeyResolver);
+        verify(entityManager).flush();
+        // the join rows are written as a difference, not by Hibernate
+        verify(associationWriter).replaceAuthors(33L, Collections.emptySet(), asSet(1L, 2L));
+        verify(associationWriter).replaceKeywords(33L, Collections.emptySet(), asSet(3L, 4L));
+        verify(entityManager).detach(existing);
+
+        assertThat(result, is(Matchers.sameInstance(existing)));
+        assertThat(result.getHeadline(), is("dummy headline"));
+        assertThat(result.getAuthors(), is(Matchers.contains(Matchers.sameInstance(a11), Matchers.sameInstance(a21))));
+        assertThat(result.getKeywords(), is(Matchers.contains(Matchers.sameInstance(k11), Matchers.sameInstance(k21))));
+    }
+
+    @Test
+    public void testPatchArticleChangesOnlyTheFieldsSent() {
+        final Article existing = patchable();
+        final List<Author> authors = existing.getAuthors();
+        final Article changes = new Article();
+        changes.setHeadline("new headline");
+        changes.setVersion(3L);
+
+        when(articleRepository.findOne(33L)).thenReturn(existing);
+        when(articleRepository.save(existing)).thenReturn(existing);
+
+        // when
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final Article result = toTest.patchArticle(33L, changes);
+
+        // then: one read, one write; the associations are not touched
+        verify(articleRepository, times(1)).findOne(33L);
+        verify(articleRepository, times(1)).save(existing);
+        verifyNoMoreInteractions(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, associationWriter);
+
+        assertThat(result.getHeadline(), is("new headline"));
+        assertThat(result.getMainText(), is("old text"));
+        assertThat(result.getAuthors(), is(Matchers.sameInstance(authors)));
+    }
+
+    @Test
+    public void testPatchArticleReplacesChangedAssociationsOnly() {
+        final Article existing = patchable();
+        final List<Author> authors = existing.getAuthors();
+        final Author sameAuthor = new Author("f1", "l1");
+        sameAuthor.setId(1L);
+        final Keyword otherKeyword = new Keyword("stuff");
+        otherKeyword.setId(4L);
+        final Article changes = new Article();
+        changes.setAuthors(new ArrayList<>(Collections.singletonList(sameAuthor)));
+        changes.setKeywords(new ArrayList<>(Collections.singletonList(otherKeyword)));
+
+        when(articleRepository.findOne(33L)).thenReturn(existing);
+        when(articleRepository.save(existing)).thenReturn(existing);
+        when(authorRepository.findAll(asSet(1L))).thenReturn(Collections.singletonList(existing.getAuthors().get(0)));
+        when(keywordRepository.findAll(asSet(4L))).thenReturn(Collections.singletonList(otherKeyword));
+
+        // when
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(toTest, "entityManager", entityManager);
+        final Article result = toTest.patchArticle(33L, changes);
+
+        // then: only the keyword join rows are written, as a difference
+        verify(articleRepository, times(1)).save(existing);
+        verify(associationWriter).replaceKeywords(33L, asSet(3L), asSet(4L));
+        verifyNoMoreInteractions(associationWriter);
+        verify(entityManager).detach(existing);
+        assertThat(result.getAuthors(), is(Matchers.sameInstance(authors)));
+        assertThat(result.getKeywords(), is(Matchers.contains(Matchers.sameInstance(otherKeyword))));
+    }
+
+    @Test
+    public void testPatchArticleWithoutChangesDoesNotWrite() {
+        final Article existing = patchable();
+        final Article changes = new Article();
+        changes.setHeadline("old headline");
+
+        when(articleRepository.findOne(33L)).thenReturn(existing);
+
+        // when
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final Article result = toTest.patchArticle(33L, changes);
+
+        // then
+        verify(articleRepository, times(1)).findOne(33L);
+        verifyNoMoreInteractions(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, eventPublisher);
+        assertThat(result, is(Matchers.sameInstance(existing)));
+        assertThat(toTest.patchArticle(34L, changes), is(Matchers.nullValue()));
+    }
+
+    @Test(expected = ObjectOptimisticLockingFailureException.class)
+    public void testPatchArticleOfAnotherVersion() {
+        final Article changes = new Article();
+        changes.setHeadline("new headline");
+        changes.setVersion(2L);
+
+        when(articleRepository.findOne(33L)).thenReturn(patchable());
+
+        // when
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        toTest.patchArticle(33L, changes);
+    }
+
+    /**
+     * @return article 33 in version 3, with one author and one keyword
+     */
+    private static Article patchable() {
+        final Article existing = new Article();
+        existing.setId(33L);
+        existing.setHeadline("old headline");
+        existing.setMainText("old text");
+        existing.setVersion(3L);
+        final Author author = new Author("f1", "l1");
+        author.setId(1L);
+        existing.addAuthor(author);
+        final Keyword keyword = new Keyword("hot");
+        keyword.setId(3L);
+        existing.addKeyword(keyword);
+        return existing;
     }
 
     @Test
     public void testDeleteArticle() {
 
-        when(articleRepository.exists(1L)).thenReturn(false);
-        when(articleRepository.exists(2L)).thenReturn(true);
+        when(articleRepository.markDeletedByIdIn(eq(Collections.singleton(1L)), any(LocalDateTime.class))).thenReturn(0);
+        when(articleRepository.markDeletedByIdIn(eq(Collections.singleton(2L)), any(LocalDateTime.class))).thenReturn(1);
 
-        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
 
         boolean res = toTest.deleteArticle(1L);
         boolean res2 = toTest.deleteArticle(2L);
 
-        verify(articleRepository, times(1)).exists(1L);
-        verify(articleRepository, times(1)).exists(2L);
+        // one statement each, only a tombstone
+        assertThat(res, is(false));
+        assertThat(res2, is(true));
+        verify(articleRepository, times(2)).markDeletedByIdIn(any(Collection.class), any(LocalDateTime.class));
+        verifyNoMoreInteractions(articleRepository);
+        verify(eventPublisher, times(1)).publishEvent(any(ArticleChangedEvent.class));
+    }
+
+    @Test
+    public void testDeleteArticles() {
+        final List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= ArticleService.MAX_BATCH_SIZE + 1; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        when(articleRepository.markDeletedByIdIn(any(Collection.class), any(LocalDateTime.class))).thenReturn(500, 1);
+        when(articleRepository.markDeletedByPublishedOnBetween(eq(LocalDate.MIN), eq(LocalDate.MAX), any(LocalDateTime.class)))
+                .thenReturn(3);
+        when(articleRepository.findIdsByDeletedOnAndPublishedOnBetween(any(LocalDateTime.class), eq(LocalDate.MIN), eq(LocalDate.MAX)))
+                .thenReturn(Arrays.<Number>asList(7L, 8L, 9L));
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+
+        // one statement per batch of distinct ids
+        assertThat(toTest.deleteArticles(ids), is(501));
+        verify(articleRepository, times(2)).markDeletedByIdIn(any(Collection.class), any(LocalDateTime.class));
+        verify(eventPublisher, times(ArticleService.MAX_BATCH_SIZE + 1)).publishEvent(any(ArticleChangedEvent.class));
+
+        // one statement for the whole range, the ids are selected by the deletion time
+        final ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        final ArgumentCaptor<ArticleChangedEvent> event = ArgumentCaptor.forClass(ArticleChangedEvent.class);
+        assertThat(toTest.deleteArticlesByDateRange(LocalDate.MIN, LocalDate.MAX), is(3));
+        verify(articleRepository).markDeletedByPublishedOnBetween(eq(LocalDate.MIN), eq(LocalDate.MAX), now.capture());
+        verify(articleRepository).findIdsByDeletedOnAndPublishedOnBetween(now.getValue(), LocalDate.MIN, LocalDate.MAX);
+        verify(eventPublisher, times(ArticleService.MAX_BATCH_SIZE + 4)).publishEvent(event.capture());
+        assertThat(event.getValue().getArticleId(), is(9L));
+        assertThat(event.getValue().isDeleted(), is(true));
+        verify(articleRepository, never()).findIdsByPublishedOnBetween(any(LocalDate.class), any(LocalDate.class));
+        verify(articleRepository, times(2)).markDeletedByIdIn(any(Collection.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void testDeletedArticleIsNotFound() {
+        final Article deleted = new Article();
+        deleted.setId(1L);
+        deleted.setDeletedOn(LocalDateTime.now());
+        when(articleRepository.findOne(1L)).thenReturn(deleted);
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+
+        assertThat(toTest.findOne(1L), is(Matchers.nullValue()));
+        final Article changes = new Article();
+        changes.setHeadline("headline");
+        assertThat(toTest.patchArticle(1L, changes), is(Matchers.nullValue()));
+        verify(articleRepository, never()).save(any(Article.class));
     }
 
     @Test
     public void testFindOne() {
         Mockito.stub(articleRepository.findOne(1L)).toReturn(new Article());
 
-        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
         Article result = toTest.findOne(1L);
 
         assertThat(result, notNullValue());;
         verify(articleRepository, times(1)).findOne(1L);
     }
 
+    @Test
+    public void testFindByDateRangePaged() {
+        final LocalDate from = LocalDate.parse("2013-12-12");
+        final LocalDate to = LocalDate.parse("2015-12-12");
+        final ArticleCursor after = new ArticleCursor(LocalDate.parse("2014-01-01"), 7L);
+
+        when(articleRepository.findPageIdsByPublishedOnBetween(from, to, new PageRequest(0, 10)))
+                .thenReturn(Arrays.asList(3L, 7L));
+        when(articleRepository.findPageIdsByPublishedOnBetween(from, to, after.getPublishedOn(), 7L, new PageRequest(0, 10)))
+                .thenReturn(Collections.emptyList());
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        toTest.findByDateRange(from, to, null, 10);
+        final List<Article> lastPage = toTest.findByDateRange(from, to, after, 10);
+
+        // the articles of a page are loaded by their ids, an empty page doesn't query at all
+        assertThat(lastPage.isEmpty(), is(true));
+        verify(articleRepository, times(1)).findByIdInOrderByPublishedOnAscIdAsc(Arrays.asList(3L, 7L));
+        verify(articleRepository, times(1)).findByIdInOrderByPublishedOnAscIdAsc(any(List.class));
+    }
+
+    @Test
+    public void testStreamDetachesConsumedArticles() {
+        final Article a1 = new Article();
+        a1.setId(1L);
+        final Article a2 = new Article();
+        a2.setId(2L);
+        final LocalDate from = LocalDate.parse("2013-12-12");
+        final LocalDate to = LocalDate.parse("2015-12-12");
+        when(articleRepository.streamByPublishedOnBetween(from, to)).thenReturn(Stream.of(a1, a2));
+        when(articleRepository.streamByAuthorsId(4L)).thenReturn(Stream.of(a1));
+        when(articleRepository.streamByKeywordsNameIgnoreCase("berlin")).thenReturn(Stream.of(a2));
+
+        final EntityManager entityManager = mock(EntityManager.class);
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        ReflectionTestUtils.setField(toTest, "entityManager", entityManager);
+
+        final List<Article> consumed = new ArrayList<>();
+        toTest.streamByDateRange(from, to, consumed::add);
+        toTest.streamByAuthorId(4L, consumed::add);
+        toTest.streamByKeywordName("berlin", consumed::add);
+
+        assertThat(consumed, is(Matchers.contains(a1, a2, a1, a2)));
+        verify(entityManager, times(2)).detach(a1);
+        verify(entityManager, times(2)).detach(a2);
+    }
+
+    @Test
+    public void testFindVersions() {
+        final LocalDateTime updatedOn = LocalDateTime.now();
+        final ArticleVersion version = new ArticleVersion(updatedOn, 3L);
+        final LocalDate from = LocalDate.parse("2013-12-12");
+        final LocalDate to = LocalDate.parse("2015-12-12");
+        final ArticleVersion articleVersion = new ArticleVersion(updatedOn, 1L, 2L);
+        when(articleRepository.findVersionById(1L)).thenReturn(articleVersion);
+        when(articleRepository.findVersionByAuthorsId(2L)).thenReturn(version);
+        when(articleRepository.findVersionByKeywordsNameIgnoreCase("berlin")).thenReturn(version);
+        when(articleRepository.findVersionByPublishedOnBetween(from, to)).thenReturn(version);
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+
+        assertThat(toTest.findVersion(1L), is(articleVersion));
+        assertThat(toTest.findVersion(4711L), is(Matchers.nullValue()));
+        assertThat(toTest.findVersionByAuthorId(2L), is(version));
+        assertThat(toTest.findVersionByKeywordName("berlin"), is(version));
+        assertThat(toTest.findVersionByDateRange(from, to), is(version));
+    }
+
+    @Test
+    public void testFindByKeywordNameUsesIndex() {
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+
+        // index not ready yet: database query
+        toTest.findByKeywordName("berlin");
+        verify(articleRepository, times(1)).findByKeywordsNameIgnoreCase("berlin");
+
+        final long[] ids = new long[1500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        final Article article = new Article();
+        when(keywordIndex.isReady()).thenReturn(true);
+        when(keywordIndex.lookup("berlin")).thenReturn(ids);
+        when(articleRepository.findByIdInOrderById(any(List.class))).thenReturn(Collections.singletonList(article));
+
+        final List<Article> result = toTest.findByKeywordName("berlin");
+
+        // two batched IN-queries instead of the join
+        assertThat(result, is(Matchers.contains(article, article)));
+        verify(articleRepository, times(2)).findByIdInOrderById(any(List.class));
+        verify(articleRepository, times(1)).findByKeywordsNameIgnoreCase("berlin");
+    }
+
+    @Test
+    public void testFindByFulltextKeepsRanking() {
+        final Article first = new Article();
+        first.setId(5L);
+        final Article second = new Article();
+        second.setId(1L);
+        when(fulltextIndex.search("berlin", 10)).thenReturn(new long[] { 5L, 3L, 1L });
+        // loaded in id order, 3 was deleted meanwhile
+        when(articleRepository.findByIdInOrderById(any(List.class))).thenReturn(Arrays.asList(second, first));
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final List<Article> result = toTest.findByFulltext("berlin", 10);
+
+        assertThat(result, is(Matchers.contains(first, second)));
+    }
+
+    @Test
+    public void testFindSummaries() {
+        final ArticleSummary summary = new ArticleSummary(1L, "headline", "teaser", LocalDate.parse("2014-01-01"), null);
+        when(articleRepository.findSummariesByAuthorsId(3L)).thenReturn(Collections.singletonList(summary));
+        when(articleRepository.findAuthorNamesByArticleIdIn(any(Collection.class))).thenReturn(
+                Collections.singletonList(new Object[] { 1L, 3L, "Frau", "Rust" }));
+        when(articleRepository.findKeywordNamesByArticleIdIn(any(Collection.class))).thenReturn(
+                Arrays.asList(new Object[] { 1L, 3L, "Hamburg" }, new Object[] { 1L, 4L, "Europa" }));
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final List<ArticleSummary> result = toTest.findSummariesByAuthorId(3L);
+
+        assertThat(result, is(Collections.singletonList(summary)));
+        assertThat(summary.getAuthors().get(0).getLastname(), is("Rust"));
+        assertThat(summary.getKeywords().size(), is(2));
+
+        // the same queries for the other listings, none for an empty one
+        toTest.findSummariesByDateRange(LocalDate.parse("2013-12-12"), LocalDate.parse("2015-12-12"));
+        toTest.findSummariesByKeywordName("hamburg");
+        when(keywordIndex.isReady()).thenReturn(true);
+        when(keywordIndex.lookup("hamburg")).thenReturn(new long[] { 1L });
+        toTest.findSummariesByKeywordName("hamburg");
+        verify(articleRepository, times(1)).findSummariesByKeywordsNameIgnoreCase("hamburg");
+        verify(articleRepository, times(1)).findSummariesByIdIn(Arrays.asList(1L));
+        verify(articleRepository, times(1)).findAuthorNamesByArticleIdIn(any(Collection.class));
+    }
+
+    @Test
+    public void testCreateArticles() {
+        final Author existingAuthor = new Author("Lorenz", "Vossen");
+        existingAuthor.setId(1L);
+        final Keyword existingKeyword = new Keyword("Berlin");
+        existingKeyword.setId(2L);
+        final Author newAuthor = new Author("new", "author");
+        newAuthor.setId(100L);
+        final Keyword newKeyword = new Keyword("new keyword");
+        newKeyword.setId(101L);
+        final Map<String, Long> keywordIds = new HashMap<>();
+        keywordIds.put("Berlin", 2L);
+        keywordIds.put("new keyword", 101L);
+        when(authorRepository.findAll(asSet(1L, 4711L))).thenReturn(Collections.singletonList(existingAuthor));
+        when(naturalKeyResolver.resolveAuthors(asSet(Arrays.asList("new", "author"))))
+                .thenReturn(Collections.singletonMap(Arrays.asList("new", "author"), 100L));
+        when(authorRepository.findAll(asSet(100L))).thenReturn(Collections.singletonList(newAuthor));
+        when(naturalKeyResolver.resolveKeywords(asSet("Berlin", "new keyword"))).thenReturn(keywordIds);
+        when(keywordRepository.findAll(asSet(2L, 101L))).thenReturn(Arrays.asList(newKeyword, existingKeyword));
+
+        final Article first = new Article();
+        final Author byId = new Author("Lorenz", "Vossen");
+        byId.setId(1L);
+        first.addAuthor(byId);
+        first.addAuthor(new Author("new", "author"));
+        first.addKeyword(new Keyword("Berlin"));
+        first.addKeyword(new Keyword("new keyword"));
+        final Article second = new Article();
+        final Author unknown = new Author("new", "author");
+        unknown.setId(4711L);
+        second.addAuthor(unknown);
+        second.addKeyword(new Keyword("new keyword"));
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final List<Article> result = toTest.createArticles(Arrays.asList(first, second));
+
+        assertThat(result, is(Matchers.contains(first, second)));
+        assertThat(first.getAuthors().get(0), is(Matchers.sameInstance(existingAuthor)));
+        assertThat(first.getKeywords().get(0), is(Matchers.sameInstance(existingKeyword)));
+        // new authors and keywords are resolved once per batch, unknown ids by name
+        assertThat(first.getAuthors().get(1), is(Matchers.sameInstance(newAuthor)));
+        assertThat(second.getAuthors().get(0), is(Matchers.sameInstance(newAuthor)));
+        assertThat(first.getKeywords().get(1), is(Matchers.sameInstance(newKeyword)));
+        assertThat(second.getKeywords().get(0), is(Matchers.sameInstance(newKeyword)));
+        verify(naturalKeyResolver, times(1)).resolveAuthors(any(Collection.class));
+        verify(naturalKeyResolver, times(1)).resolveKeywords(any(Collection.class));
+        verify(articleRepository, times(2)).save(any(Article.class));
+        verify(eventPublisher, times(2)).publishEvent(any(ArticleChangedEvent.class));
+    }
+
+    @Test
+    public void testCreateArticleResolvesStaleIdsAgain() {
+        final Keyword keyword = new Keyword("stale");
+        keyword.setId(6L);
+        when(naturalKeyResolver.resolveKeywords(asSet("stale")))
+                .thenReturn(Collections.singletonMap("stale", 5L), Collections.singletonMap("stale", 6L));
+        when(keywordRepository.findAll(asSet(5L))).thenReturn(Collections.emptyList());
+        when(keywordRepository.findAll(asSet(6L))).thenReturn(Collections.singletonList(keyword));
+
+        final Article input = new Article();
+        input.addKeyword(new Keyword("stale"));
+        when(articleRepository.save(input)).thenReturn(input);
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        final Article result = toTest.createArticle(input);
+
+        assertThat(result.getKeywords(), is(Matchers.contains(Matchers.sameInstance(keyword))));
+        verify(naturalKeyResolver, times(1)).evictKeywords(asSet("stale"));
+        verify(naturalKeyResolver, times(2)).resolveKeywords(any(Collection.class));
+    }
+
+    @Test
+    public void testWritesPublishEvents() {
+        final Article article = new Article();
+        article.setId(33L);
+        when(articleRepository.save(article)).thenReturn(article);
+        when(articleRepository.findOne(33L)).thenReturn(article);
+        when(articleRepository.markDeletedByIdIn(eq(Collections.singleton(33L)), any(LocalDateTime.class))).thenReturn(1);
+
+        final ArticleService toTest = new ArticleService(articleRepository, authorRepository, keywordRepository, naturalKeyResolver, idempotencyKeyRepository, associationWriter, keywordIndex, fulltextIndex, eventPublisher);
+        toTest.createArticle(article);
+        toTest.updateArticle(article);
+        toTest.deleteArticle(33L);
+        toTest.deleteArticle(34L);
+
+        verify(eventPublisher, times(3)).publishEvent(any(ArticleChangedEvent.class));
+    }
+
+
+    @SafeVarargs
+    private static <T> Set<T> asSet(T... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
 }
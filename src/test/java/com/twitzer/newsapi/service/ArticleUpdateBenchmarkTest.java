@@ -0,0 +1,180 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import com.twitzer.newsapi.repository.ArticleRepository;
+import com.twitzer.newsapi.repository.KeywordRepository;
+import com.twitzer.newsapi.repository.domain.Article;
+import com.twitzer.newsapi.repository.domain.Keyword;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Update throughput on articles with {@value #KEYWORDS_PER_ARTICLE} keywords,
+ * one keyword exchanged per update: the Hibernate rewrite of all join rows
+ * against the join row difference of {@link ArticleService#patchArticle(Long, Article)}.
+ * The rewrite moves the keyword window forth by one, the patch back; both
+ * run once to warm up, then alternately {@value #ROUNDS} times.
+ * Logs the numbers, checks only the resulting join rows.
+ *
+ * @author jschulz
+ */
+@Slf4j
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = "ingest.journal.path = ")
+public class ArticleUpdateBenchmarkTest {
+
+    private static final int ARTICLES = 10;
+
+    private static final int KEYWORDS_PER_ARTICLE = 60;
+
+    /** every round moves the keyword window of every article forth and back. */
+    private static final int ROUNDS = 10;
+
+    private static final String KEYWORD_PREFIX = "benchmark keyword ";
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private KeywordRepository keywordRepository;
+
+    @Autowired
+    private NaturalKeyResolver naturalKeyResolver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<String> keywordNames = new ArrayList<>();
+
+    private final List<Long> keywordIds = new ArrayList<>();
+
+    private final List<Long> articleIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i <= KEYWORDS_PER_ARTICLE; i++) {
+            keywordNames.add(KEYWORD_PREFIX + i);
+        }
+        final Map<String, Long> ids = naturalKeyResolver.resolveKeywords(keywordNames);
+        keywordNames.forEach((name) -> keywordIds.add(ids.get(name)));
+
+        for (int i = 0; i < ARTICLES; i++) {
+            final Article article = new Article();
+            article.setHeadline("benchmark headline " + i);
+            article.setPublishedOn(LocalDate.parse("2016-12-12"));
+            article.setKeywords(window(0));
+            articleIds.add(articleService.createArticle(article).getId());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (Long id : articleIds) {
+            jdbcTemplate.update("DELETE FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID = ?", id);
+            jdbcTemplate.update("DELETE FROM NEWS_ARTICLE WHERE ID = ?", id);
+        }
+        jdbcTemplate.update("DELETE FROM NEWS_KEYWORD WHERE NAME LIKE ?", KEYWORD_PREFIX + "%");
+        naturalKeyResolver.evictKeywords(keywordNames);
+    }
+
+    @Test
+    public void testUpdateThroughput() {
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // forth: replace the keyword list of the managed article, Hibernate rewrites all join rows
+        final Update rewrite = (articleId, start) -> transaction.execute((status) -> {
+            final Article article = articleRepository.findOne(articleId);
+            final List<Keyword> keywords = new ArrayList<>();
+            keywordRepository.findAll(keywordIds.subList(start, start + KEYWORDS_PER_ARTICLE)).forEach(keywords::add);
+            article.setKeywords(keywords);
+            article.updateUpdated();
+            return articleRepository.save(article);
+        });
+        // back: patch the keywords, only the difference of the join rows is written
+        final Update delta = (articleId, start) -> {
+            final Article changes = new Article();
+            changes.setKeywords(window(start));
+            return articleService.patchArticle(articleId, changes);
+        };
+        run(rewrite, 1);
+        run(delta, 0);
+
+        long rewriteNanos = 0;
+        long deltaNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            rewriteNanos += run(rewrite, 1);
+            assertWindow(1);
+            deltaNanos += run(delta, 0);
+            assertWindow(0);
+        }
+
+        log.info("----------------- {} updates of articles with {} keywords: rewrite {} updates/s, delta {} updates/s",
+                ARTICLES * ROUNDS, KEYWORDS_PER_ARTICLE, perSecond(rewriteNanos), perSecond(deltaNanos));
+    }
+
+    /**
+     * @return  the nanos taken to move the keyword window of every article to the start
+     */
+    private long run(final Update update, final int windowStart) {
+        final long started = System.nanoTime();
+        for (Long articleId : articleIds) {
+            update.apply(articleId, windowStart);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private void assertWindow(final int start) {
+        for (Long articleId : articleIds) {
+            final List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT KEYWORD_ID FROM NEWS_ARTICLE_KEYWORD WHERE ARTICLE_ID = ?", Long.class, articleId);
+            assertThat(ids.size(), is(KEYWORDS_PER_ARTICLE));
+            assertThat(new HashSet<>(ids), is(new HashSet<>(keywordIds.subList(start, start + KEYWORDS_PER_ARTICLE))));
+        }
+    }
+
+    /**
+     * @return  the detached keywords from start on, referenced by id
+     */
+    private List<Keyword> window(final int start) {
+        final List<Keyword> keywords = new ArrayList<>();
+        for (int i = start; i < start + KEYWORDS_PER_ARTICLE; i++) {
+            final Keyword keyword = new Keyword(keywordNames.get(i));
+            keyword.setId(keywordIds.get(i));
+            keywords.add(keyword);
+        }
+        return keywords;
+    }
+
+    private static long perSecond(final long nanos) {
+        return ARTICLES * ROUNDS * 1_000_000_000L / Math.max(1, nanos);
+    }
+
+    @FunctionalInterface
+    private interface Update {
+        Article apply(Long articleId, int windowStart);
+    }
+}
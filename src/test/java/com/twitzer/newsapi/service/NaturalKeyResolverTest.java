@@ -0,0 +1,175 @@
+package com.twitzer.newsapi.service;
+
+import com.twitzer.newsapi.Application;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs against the database: the resolver commits its inserts with the
+ * caller, or on its own without a transaction, so the tests delete their
+ * rows afterwards.
+ *
+ * @author jschulz
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = Application.class)
+@TestPropertySource(properties = "ingest.journal.path = ")
+public class NaturalKeyResolverTest {
+
+    private static final String NEW_KEYWORD = "resolver keyword";
+
+    private static final List<String> NEW_AUTHOR = Arrays.asList("Resolver", "Author");
+
+    @Autowired
+    private NaturalKeyResolver naturalKeyResolver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @After
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM NEWS_KEYWORD WHERE NAME = ?", NEW_KEYWORD);
+        jdbcTemplate.update("DELETE FROM NEWS_AUTHOR WHERE FIRSTNAME = ?", NEW_AUTHOR.get(0));
+        jdbcTemplate.update("DELETE FROM NEWS_AUTHOR WHERE FIRSTNAME = ? AND LASTNAME = ?", "Lorenz", "Merkel");
+        naturalKeyResolver.evictKeywords(Arrays.asList(NEW_KEYWORD));
+        naturalKeyResolver.evictAuthors(Arrays.asList(NEW_AUTHOR, Arrays.asList("Lorenz", "Merkel")));
+    }
+
+    @Test
+    public void testResolveKeywords() {
+        final Map<String, Long> ids = naturalKeyResolver.resolveKeywords(Arrays.asList("Berlin", NEW_KEYWORD));
+
+        assertThat(ids.get("Berlin"), is(2L));
+        assertThat(ids.get(NEW_KEYWORD), is(notNullValue()));
+        assertThat(keywordRows(), is(1));
+
+        // cached, and inserted only if absent
+        assertThat(naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)), is(Collections.singletonMap(NEW_KEYWORD, ids.get(NEW_KEYWORD))));
+        naturalKeyResolver.evictKeywords(Arrays.asList(NEW_KEYWORD));
+        assertThat(naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD), is(ids.get(NEW_KEYWORD)));
+        assertThat(keywordRows(), is(1));
+    }
+
+    @Test
+    public void testResolveAuthors() {
+        final List<String> existing = Arrays.asList("Lorenz", "Vossen");
+        // both names exist, but not as a pair
+        final List<String> crossed = Arrays.asList("Lorenz", "Merkel");
+        final Map<List<String>, Long> ids = naturalKeyResolver.resolveAuthors(Arrays.asList(existing, crossed, NEW_AUTHOR));
+
+        assertThat(ids.size(), is(3));
+        assertThat(ids.get(existing), is(1L));
+        assertThat(ids.get(crossed) > 4L, is(true));
+        assertThat(ids.get(NEW_AUTHOR), is(notNullValue()));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM NEWS_AUTHOR WHERE FIRSTNAME = ?",
+                Integer.class, "Lorenz"), is(2));
+    }
+
+    @Test
+    public void testRollbackOfTheCallerRemovesTheRow() {
+        final TransactionTemplate caller = new TransactionTemplate(transactionManager);
+        final Long id = caller.execute((status) -> {
+            status.setRollbackOnly();
+            final Long inserted = naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD);
+            // visible in the caller's transaction
+            assertThat(keywordRows(), is(1));
+            return inserted;
+        });
+        assertThat(keywordRows(), is(0));
+
+        // not cached, inserted again
+        final Long inserted = naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD);
+        assertThat(inserted.equals(id), is(false));
+        assertThat(keywordRows(), is(1));
+    }
+
+    @Test
+    public void testCommitOfTheCallerCachesTheId() {
+        final TransactionTemplate caller = new TransactionTemplate(transactionManager);
+        final Long id = caller.execute((status) -> naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD));
+        assertThat(keywordRows(), is(1));
+
+        // from the cache, the row is gone
+        jdbcTemplate.update("DELETE FROM NEWS_KEYWORD WHERE NAME = ?", NEW_KEYWORD);
+        assertThat(naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD), is(id));
+    }
+
+    @Test
+    public void testConcurrentResolvesCreateOneRow() throws Exception {
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Callable<Long>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(() -> naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD));
+            }
+            final List<Future<Long>> ids = executor.invokeAll(calls);
+            for (Future<Long> id : ids) {
+                assertThat(id.get(), is(ids.get(0).get()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(keywordRows(), is(1));
+    }
+
+    @Test
+    public void testConcurrentCallersCreateOneRow() throws Exception {
+        final TransactionTemplate caller = new TransactionTemplate(transactionManager);
+        final CountDownLatch resolved = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Long> first = executor.submit(() -> caller.execute((status) -> {
+                final Long id = naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD);
+                resolved.countDown();
+                // commits while the second caller is resolving
+                await(new CountDownLatch(1), 500);
+                return id;
+            }));
+            await(resolved, 10_000);
+            // the second caller's insert conflicts with the first one's uncommitted row
+            final Long second = caller.execute((status) -> naturalKeyResolver.resolveKeywords(Arrays.asList(NEW_KEYWORD)).get(NEW_KEYWORD));
+            assertThat(second, is(first.get()));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(keywordRows(), is(1));
+    }
+
+    private static void await(final CountDownLatch latch, final long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int keywordRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM NEWS_KEYWORD WHERE NAME = ?", Integer.class, NEW_KEYWORD);
+    }
+}